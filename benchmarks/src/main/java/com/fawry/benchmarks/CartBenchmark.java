@@ -0,0 +1,48 @@
+package com.fawry.benchmarks;
+
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.ShippableItem;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.valueobject.Money;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CartBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int cartSize;
+
+    @Param({"1", "50"})
+    public int unitsPerLine;
+
+    private Product[] products;
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        products = Fixtures.products(cartSize);
+        cart = Fixtures.cart(products, unitsPerLine);
+    }
+
+    @Benchmark
+    public Cart addItem() {
+        return Fixtures.cart(products, unitsPerLine);
+    }
+
+    @Benchmark
+    public Money calculateSubtotal() {
+        return cart.calculateSubtotal();
+    }
+
+    @Benchmark
+    public List<ShippableItem> getShippableItems() {
+        return cart.getShippableItems();
+    }
+}
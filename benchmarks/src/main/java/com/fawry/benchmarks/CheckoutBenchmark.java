@@ -0,0 +1,62 @@
+package com.fawry.benchmarks;
+
+import com.fawry.application.CheckoutResult;
+import com.fawry.application.CheckoutService;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.service.ShippingService;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckoutBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int cartSize;
+
+    @Param({"1", "50"})
+    public int unitsPerLine;
+
+    private final CheckoutService checkoutService = new CheckoutService(new ShippingService());
+    private Product[] products;
+    private Customer customer;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        products = Fixtures.products(cartSize);
+        // shipment notices go to System.out; keep them out of the measurement
+        originalOut = System.out;
+        System.setOut(Fixtures.NULL_STREAM);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        System.setOut(originalOut);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        customer = new Customer("Benchmark", new Money(Integer.MAX_VALUE));
+        Fixtures.fill(customer.getCart(), products, unitsPerLine);
+    }
+
+    @TearDown(Level.Invocation)
+    public void restoreStock() {
+        for (Product product : products) {
+            product.increaseQuantity(Fixtures.STOCK - product.getQuantity());
+        }
+    }
+
+    @Benchmark
+    public CheckoutResult processCheckout() {
+        return checkoutService.processCheckout(customer);
+    }
+}
@@ -0,0 +1,144 @@
+package com.fawry.benchmarks;
+
+import com.fawry.application.CheckoutResult;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.product.Expirable;
+import com.fawry.domain.model.product.ExpirableProduct;
+import com.fawry.domain.model.product.ExpirableShippableProduct;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.product.Shippable;
+import com.fawry.domain.model.product.ShippableProduct;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import com.fawry.infrastructure.codec.BinaryCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// BinaryCodec against Java serialization for a CheckoutResult. The domain classes aren't
+// Serializable, so the Java side goes through Serializable mirror records, and converting
+// to and from them is part of what it measures. Encoded sizes are printed at setup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    record ProductData(int type, long mostSignificantBits, long leastSignificantBits, String name,
+            BigDecimal price, int quantity, BigDecimal weight, String weightUnit, LocalDate expirationDate)
+            implements Serializable {
+    }
+
+    record LineData(ProductData product, int quantity) implements Serializable {
+    }
+
+    record ResultData(List<LineData> lines, BigDecimal subtotal, BigDecimal shippingCost, BigDecimal total,
+            BigDecimal remainingBalance) implements Serializable {
+    }
+
+    @Param({"1", "100"})
+    public int cartSize;
+
+    @Param({"heap", "direct"})
+    public String buffer;
+
+    private CheckoutResult result;
+    private ByteBuffer out;
+    private ByteBuffer encoded;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Cart cart = Fixtures.cart(Fixtures.products(cartSize), 3);
+        Money subtotal = cart.calculateSubtotal();
+        result = new CheckoutResult(cart.getItems(), subtotal, new Money(30), subtotal.add(new Money(30)),
+                new Money(1000));
+
+        out = buffer.equals("direct") ? ByteBuffer.allocateDirect(1 << 20) : ByteBuffer.allocate(1 << 20);
+        BinaryCodec.encode(out, result);
+        out.flip();
+        encoded = out.duplicate();
+        serialized = javaEncode();
+        System.out.printf("%n%d lines: binary %d bytes, java serialization %d bytes%n",
+                cartSize, encoded.remaining(), serialized.length);
+    }
+
+    @Benchmark
+    public ByteBuffer binaryEncode() {
+        out.clear();
+        BinaryCodec.encode(out, result);
+        return out;
+    }
+
+    @Benchmark
+    public CheckoutResult binaryDecode() {
+        return BinaryCodec.decodeCheckoutResult(encoded.duplicate());
+    }
+
+    @Benchmark
+    public byte[] javaEncode() throws IOException {
+        List<LineData> lines = new ArrayList<>(result.purchasedItems().size());
+        for (CartItem item : result.purchasedItems()) {
+            lines.add(new LineData(toData(item.getProduct()), item.getQuantity()));
+        }
+        ResultData data = new ResultData(lines, result.subtotal().getAmount(), result.shippingCost().getAmount(),
+                result.total().getAmount(), result.remainingBalance().getAmount());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+            stream.writeObject(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public CheckoutResult javaDecode() throws IOException, ClassNotFoundException {
+        ResultData data;
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            data = (ResultData) stream.readObject();
+        }
+        List<CartItem> items = new ArrayList<>(data.lines().size());
+        for (LineData line : data.lines()) {
+            items.add(new CartItem(fromData(line.product()), line.quantity()));
+        }
+        return new CheckoutResult(items, new Money(data.subtotal()), new Money(data.shippingCost()),
+                new Money(data.total()), new Money(data.remainingBalance()));
+    }
+
+    private static ProductData toData(Product product) {
+        int type = (product instanceof Shippable ? 1 : 0) + (product instanceof Expirable ? 2 : 0);
+        Weight weight = product instanceof Shippable shippable ? shippable.getWeight() : null;
+        LocalDate expiration = product instanceof Expirable expirable ? expirable.getExpirationDate() : null;
+        ProductId id = product.getProductId();
+        return new ProductData(type, id.getMostSignificantBits(), id.getLeastSignificantBits(), product.getName(),
+                product.getPrice().getAmount(), product.getQuantity(),
+                weight == null ? null : weight.getAmount(), weight == null ? null : weight.getUnit(), expiration);
+    }
+
+    private static Product fromData(ProductData data) {
+        ProductId id = new ProductId(data.mostSignificantBits(), data.leastSignificantBits());
+        Money price = new Money(data.price());
+        return switch (data.type()) {
+            case 0 -> new StandardProduct(id, data.name(), price, data.quantity());
+            case 1 -> new ShippableProduct(id, data.name(), price, data.quantity(),
+                    new Weight(data.weight(), data.weightUnit()));
+            case 2 -> new ExpirableProduct(id, data.name(), price, data.quantity(), data.expirationDate());
+            default -> new ExpirableShippableProduct(id, data.name(), price, data.quantity(),
+                    new Weight(data.weight(), data.weightUnit()), data.expirationDate());
+        };
+    }
+}
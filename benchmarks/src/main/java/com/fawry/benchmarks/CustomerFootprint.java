@@ -0,0 +1,95 @@
+package com.fawry.benchmarks;
+
+import com.fawry.application.CustomerRegistry;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.valueobject.Money;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Retained heap per customer, measured as the used heap after a full GC with the
+// customers held minus the same without them. Not a JMH benchmark; run it on its own:
+//
+//   java -XX:+UseParallelGC -Xmx3g -cp target/benchmarks.jar \
+//       com.fawry.benchmarks.CustomerFootprint [customers] [layout...]
+//
+// Layouts: registry (no carts), map (ConcurrentHashMap by name), carts (every customer
+// with an empty cart, the old eager behaviour) and sparse (1% with a 3-line cart).
+// Defaults to 10,000,000 customers and all four, each measured from a clean heap.
+// Names are "customer-N" and count towards the footprint.
+public class CustomerFootprint {
+    private static final int DEFAULT_CUSTOMERS = 10_000_000;
+    private static final String[] LAYOUTS = {"registry", "map", "carts", "sparse"};
+    private static final Money BALANCE = Money.ofCents(100_000);
+
+    public static void main(String[] args) {
+        int customers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CUSTOMERS;
+        String[] layouts = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : LAYOUTS;
+        // shared by every sparse cart and allocated before any baseline
+        Product[] products = Fixtures.products(3);
+
+        for (String layout : layouts) {
+            long before = usedAfterGc();
+            Object held = build(layout, customers, products);
+            long after = usedAfterGc();
+            Reference.reachabilityFence(held);
+            double perCustomer = (double) (after - before) / customers;
+            System.out.printf("%-9s %,d customers: %.0f B/customer, %,d MB retained%n",
+                    layout, customers, perCustomer, (after - before) >> 20);
+        }
+    }
+
+    private static Object build(String layout, int customers, Product[] products) {
+        return switch (layout) {
+            case "registry" -> registry(customers, 0, products);
+            case "carts" -> registry(customers, 1, products);
+            case "sparse" -> registry(customers, 100, products);
+            case "map" -> map(customers);
+            default -> throw new IllegalArgumentException("Unknown layout: " + layout);
+        };
+    }
+
+    private static Map<String, Customer> map(int customers) {
+        Map<String, Customer> map = new ConcurrentHashMap<>(customers);
+        for (int i = 0; i < customers; i++) {
+            Customer customer = new Customer("customer-" + i, BALANCE);
+            map.put(customer.getName(), customer);
+        }
+        return map;
+    }
+
+    // Every cartEvery-th customer gets a cart: empty when cartEvery is 1, three lines otherwise.
+    private static CustomerRegistry registry(int customers, int cartEvery, Product[] products) {
+        CustomerRegistry registry = new CustomerRegistry(64, customers);
+        for (int i = 0; i < customers; i++) {
+            Customer customer = registry.register("customer-" + i, BALANCE);
+            if (cartEvery == 1) {
+                customer.getCart();
+            } else if (cartEvery > 1 && i % cartEvery == 0) {
+                for (Product product : products) {
+                    customer.getCart().addItem(product, 1);
+                }
+            }
+        }
+        return registry;
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // repeat until a collection frees nothing more, so finalization and soft refs settle
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = memory.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
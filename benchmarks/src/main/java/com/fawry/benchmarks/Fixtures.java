@@ -0,0 +1,48 @@
+package com.fawry.benchmarks;
+
+import com.fawry.application.ProductFactory;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+
+final class Fixtures {
+    static final int STOCK = 1_000_000_000;
+    static final PrintStream NULL_STREAM = new PrintStream(OutputStream.nullOutputStream());
+
+    private Fixtures() {
+    }
+
+    // Cycles through the four product types so every suite sees the same mix.
+    static Product[] products(int count) {
+        Product[] products = new Product[count];
+        LocalDate expiration = LocalDate.now().plusYears(1);
+        for (int i = 0; i < count; i++) {
+            String name = "Product-" + i;
+            Money price = new Money(1 + (i % 500) * 0.25);
+            Weight weight = new Weight(0.125 + (i % 40) * 0.05);
+            products[i] = switch (i % 4) {
+                case 0 -> ProductFactory.createStandardProduct(name, price, STOCK);
+                case 1 -> ProductFactory.createShippableProduct(name, price, STOCK, weight);
+                case 2 -> ProductFactory.createExpirableProduct(name, price, STOCK, expiration);
+                default -> ProductFactory.createExpirableShippableProduct(name, price, STOCK, weight, expiration);
+            };
+        }
+        return products;
+    }
+
+    static Cart cart(Product[] products, int unitsPerLine) {
+        Cart cart = new Cart();
+        fill(cart, products, unitsPerLine);
+        return cart;
+    }
+
+    static void fill(Cart cart, Product[] products, int unitsPerLine) {
+        for (Product product : products) {
+            cart.addItem(product, unitsPerLine);
+        }
+    }
+}
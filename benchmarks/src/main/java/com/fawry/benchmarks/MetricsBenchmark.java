@@ -0,0 +1,46 @@
+package com.fawry.benchmarks;
+
+import com.fawry.application.CheckoutPhase;
+import com.fawry.infrastructure.metrics.CheckoutMetricsRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Cost of one recorded sample, single-threaded and with every core recording into
+// the same registry. Run with -t to change the thread count of the shared case.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private final CheckoutMetricsRegistry registry = new CheckoutMetricsRegistry();
+
+    @State(Scope.Thread)
+    public static class Samples {
+        private long value = 1_000;
+
+        long next() {
+            // spread samples over a few hundred buckets, like real latencies
+            value = value * 6364136223846793005L + 1442695040888963407L;
+            return (value >>> 40) & 0xFFFFF;
+        }
+    }
+
+    @Benchmark
+    public void recordPhase(Samples samples) {
+        registry.recordPhase(CheckoutPhase.COMMIT, samples.next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordPhaseShared(Samples samples) {
+        registry.recordPhase(CheckoutPhase.COMMIT, samples.next());
+    }
+
+    @Benchmark
+    public void recordCartSize(Samples samples) {
+        registry.recordCartSize(1 + (int) (samples.next() & 63), 1 + (int) (samples.next() & 1023));
+    }
+}
@@ -0,0 +1,53 @@
+package com.fawry.benchmarks;
+
+import com.fawry.domain.model.valueobject.Money;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int quantity;
+
+    private Money price;
+    private Money balance;
+    private double weight;
+
+    @Setup
+    public void setUp() {
+        price = new Money(19.99);
+        balance = new Money(1_000_000);
+        weight = 0.825;
+    }
+
+    @Benchmark
+    public Money add() {
+        return balance.add(price);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return balance.subtract(price);
+    }
+
+    @Benchmark
+    public Money multiplyByQuantity() {
+        return price.multiply(quantity);
+    }
+
+    @Benchmark
+    public Money multiplyByWeight() {
+        return price.multiply(weight * quantity);
+    }
+
+    @Benchmark
+    public boolean compare() {
+        return balance.isGreaterThanOrEqual(price.multiply(quantity));
+    }
+}
@@ -0,0 +1,66 @@
+package com.fawry.benchmarks;
+
+import com.fawry.domain.model.product.ProductId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductIdBenchmark {
+
+    @Param({"100", "10000"})
+    public int cartSize;
+
+    private ProductId[] ids;
+    private ProductId[] probes;
+    private Map<ProductId, Integer> cart;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ids = new ProductId[cartSize];
+        probes = new ProductId[cartSize];
+        cart = new HashMap<>();
+        for (int i = 0; i < cartSize; i++) {
+            ids[i] = new ProductId();
+            // equal but not identical keys, like ids parsed from a request
+            probes[i] = new ProductId(ids[i].getId());
+            cart.put(ids[i], i);
+        }
+    }
+
+    @Benchmark
+    public ProductId generate() {
+        return new ProductId();
+    }
+
+    @Benchmark
+    public UUID generateSecureRandomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public ProductId parse() {
+        return new ProductId(ids[nextIndex()].getId());
+    }
+
+    @Benchmark
+    public Integer cartLookup() {
+        return cart.get(probes[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        int index = next++;
+        if (next == cartSize) {
+            next = 0;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fawry.benchmarks;
+
+import com.fawry.application.CheckoutResult;
+import com.fawry.application.ReceiptService;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.valueobject.Money;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReceiptBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int cartSize;
+
+    @Param({"1", "50"})
+    public int unitsPerLine;
+
+    private final ReceiptService receiptService = new ReceiptService(Fixtures.NULL_STREAM);
+    private CheckoutResult result;
+
+    @Setup
+    public void setUp() {
+        Cart cart = Fixtures.cart(Fixtures.products(cartSize), unitsPerLine);
+        Money subtotal = cart.calculateSubtotal();
+        Money shipping = new Money(42.5);
+        result = new CheckoutResult(cart.getItems(), subtotal, shipping, subtotal.add(shipping), new Money(1000));
+    }
+
+    @Benchmark
+    public void printReceipt() {
+        receiptService.printReceipt(result);
+    }
+}
@@ -0,0 +1,72 @@
+package com.fawry.benchmarks;
+
+import com.fawry.application.CheckoutOutcome;
+import com.fawry.application.CheckoutService;
+import com.fawry.application.OrderCommitter;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.service.ShippingService;
+import com.fawry.infrastructure.inventory.ShardedOrderCommitter;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Checkout throughput as inventory shards are added. shards = 0 is the lock-striped
+// OrderCommitter for reference. Each thread fills its own cart with random products from
+// a shared catalog and checks it out, so larger carts span more shards.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ShardedCheckoutBenchmark {
+    private static final int CATALOG_SIZE = 4096;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"1", "4"})
+    public int linesPerCart;
+
+    private Product[] products;
+    private OrderCommitter committer;
+    private CheckoutService checkoutService;
+
+    @State(Scope.Thread)
+    public static class Shopper {
+        private final Customer customer = new Customer("Benchmark", new Money(Integer.MAX_VALUE));
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = Fixtures.products(CATALOG_SIZE);
+        committer = shards == 0 ? new OrderCommitter() : new ShardedOrderCommitter(shards);
+        // shipments are dropped so only the commit path is measured
+        checkoutService = new CheckoutService(new ShippingService(), committer, (customer, items) -> {
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (committer instanceof ShardedOrderCommitter sharded) {
+            sharded.close();
+        }
+    }
+
+    @Benchmark
+    public CheckoutOutcome checkout(Shopper shopper) {
+        for (int i = 0; i < linesPerCart; i++) {
+            shopper.customer.getCart().addItem(products[shopper.random.nextInt(CATALOG_SIZE)], 1);
+        }
+        CheckoutOutcome outcome = checkoutService.tryCheckout(shopper.customer);
+        if (outcome instanceof CheckoutOutcome.Rejected) {
+            shopper.customer.getCart().clear();
+            shopper.customer.addToWallet(new Money(Integer.MAX_VALUE));
+        }
+        return outcome;
+    }
+}
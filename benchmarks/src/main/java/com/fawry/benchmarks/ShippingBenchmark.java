@@ -0,0 +1,41 @@
+package com.fawry.benchmarks;
+
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.ShippableItem;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.service.ShippingService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShippingBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int cartSize;
+
+    @Param({"1", "50"})
+    public int unitsPerLine;
+
+    private final ShippingService shippingService = new ShippingService();
+    private List<ShippableItem> shippableItems;
+    private Money subtotal;
+
+    @Setup
+    public void setUp() {
+        Cart cart = Fixtures.cart(Fixtures.products(cartSize), unitsPerLine);
+        shippableItems = cart.getShippableItems();
+        // stay under the free shipping threshold so the weight path is measured
+        subtotal = Money.ZERO;
+    }
+
+    @Benchmark
+    public Money calculateShippingCostWithDiscounts() {
+        return shippingService.calculateShippingCostWithDiscounts(shippableItems, subtotal);
+    }
+}
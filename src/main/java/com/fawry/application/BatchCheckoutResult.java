@@ -0,0 +1,49 @@
+package com.fawry.application;
+
+import java.util.Arrays;
+import java.util.List;
+
+public record BatchCheckoutResult(List<CustomerCheckout> checkouts, long elapsedNanos) {
+    public BatchCheckoutResult {
+        if (checkouts == null) {
+            throw new IllegalArgumentException("Checkouts cannot be null");
+        }
+        if (elapsedNanos < 0) {
+            throw new IllegalArgumentException("Elapsed time cannot be negative");
+        }
+        checkouts = List.copyOf(checkouts);
+    }
+
+    public int successCount() {
+        return (int) checkouts.stream().filter(CustomerCheckout::isSuccess).count();
+    }
+
+    public int failureCount() {
+        return checkouts.size() - successCount();
+    }
+
+    public double throughputPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : checkouts.size() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    // Nearest-rank percentile of per-checkout latency, p in [0, 100].
+    public long latencyPercentileNanos(double p) {
+        if (p < 0 || p > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (checkouts.isEmpty()) {
+            return 0;
+        }
+        long[] latencies = checkouts.stream().mapToLong(CustomerCheckout::latencyNanos).toArray();
+        Arrays.sort(latencies);
+        int rank = (int) Math.ceil(p / 100.0 * latencies.length);
+        return latencies[Math.max(rank, 1) - 1];
+    }
+
+    public String summary() {
+        return String.format(
+                "Batch checkout: %d customers, %d succeeded, %d failed in %.1f ms (%.0f checkouts/s, p50 %.3f ms, p99 %.3f ms, max %.3f ms)",
+                checkouts.size(), successCount(), failureCount(), elapsedNanos / 1e6, throughputPerSecond(),
+                latencyPercentileNanos(50) / 1e6, latencyPercentileNanos(99) / 1e6, latencyPercentileNanos(100) / 1e6);
+    }
+}
@@ -0,0 +1,8 @@
+package com.fawry.application;
+
+import com.fawry.domain.model.customer.Customer;
+
+public interface CheckoutListener {
+    // Called on the checkout thread after payment and inventory are committed.
+    void onCheckoutCompleted(Customer customer, CheckoutResult result);
+}
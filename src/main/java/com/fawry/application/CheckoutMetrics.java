@@ -0,0 +1,32 @@
+package com.fawry.application;
+
+// Receives timings from CheckoutService. Called on the checkout thread, so
+// implementations must be cheap and thread-safe.
+public interface CheckoutMetrics {
+    CheckoutMetrics NONE = new CheckoutMetrics() {
+        @Override
+        public void recordPhase(CheckoutPhase phase, long nanos) {
+        }
+
+        @Override
+        public void recordFailure(RuntimeException failure) {
+        }
+
+        @Override
+        public void recordRejection(RejectionReason reason) {
+        }
+
+        @Override
+        public void recordCartSize(int lines, int units) {
+        }
+    };
+
+    void recordPhase(CheckoutPhase phase, long nanos);
+
+    void recordFailure(RuntimeException failure);
+
+    // A business rejection returned by tryCheckout instead of thrown.
+    void recordRejection(RejectionReason reason);
+
+    void recordCartSize(int lines, int units);
+}
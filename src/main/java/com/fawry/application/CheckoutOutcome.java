@@ -0,0 +1,52 @@
+package com.fawry.application;
+
+import com.fawry.domain.exception.CartEmptyException;
+import com.fawry.domain.exception.DomainException;
+import com.fawry.domain.exception.InsufficientBalanceException;
+import com.fawry.domain.exception.InsufficientStockException;
+import com.fawry.domain.exception.ProductExpiredException;
+
+// Result of CheckoutService.tryCheckout: either the completed checkout or the business
+// reason it was turned down, with the message processCheckout would have thrown.
+public sealed interface CheckoutOutcome {
+
+    boolean isSuccess();
+
+    record Completed(CheckoutResult result) implements CheckoutOutcome {
+        public Completed {
+            if (result == null) {
+                throw new IllegalArgumentException("Checkout result cannot be null");
+            }
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return true;
+        }
+    }
+
+    record Rejected(RejectionReason reason, String message) implements CheckoutOutcome {
+        public Rejected {
+            if (reason == null) {
+                throw new IllegalArgumentException("Rejection reason cannot be null");
+            }
+            if (message == null) {
+                throw new IllegalArgumentException("Rejection message cannot be null");
+            }
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return false;
+        }
+
+        public DomainException toException() {
+            return switch (reason) {
+                case EMPTY_CART -> new CartEmptyException();
+                case PRODUCT_EXPIRED -> new ProductExpiredException(message);
+                case INSUFFICIENT_STOCK -> new InsufficientStockException(message);
+                case INSUFFICIENT_BALANCE -> new InsufficientBalanceException(message);
+            };
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.fawry.application;
+
+public enum CheckoutPhase {
+    VALIDATION,
+    PRICING,
+    SHIPPING,
+    COMMIT,
+    SHIPMENT,
+    NOTIFICATION,
+    TOTAL
+}
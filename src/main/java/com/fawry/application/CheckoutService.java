@@ -1,61 +1,268 @@
 package com.fawry.application;
 
 import com.fawry.domain.exception.CartEmptyException;
-import com.fawry.domain.exception.InsufficientBalanceException;
+import com.fawry.domain.exception.ProductExpiredException;
 import com.fawry.domain.model.cart.Cart;
 import com.fawry.domain.model.cart.CartItem;
 import com.fawry.domain.model.cart.ShippableItem;
 import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Expirable;
 import com.fawry.domain.model.valueobject.Money;
 import com.fawry.domain.service.ShippingService;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class CheckoutService {
+    private static final int DEFAULT_MAX_IN_FLIGHT = 256;
+
     private final ShippingService shippingService;
+    private final OrderCommitter orderCommitter;
+    private final ShipmentPublisher shipmentPublisher;
+    private final List<CheckoutListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile CheckoutMetrics metrics = CheckoutMetrics.NONE;
+    private final AtomicLong postCommitFailures = new AtomicLong();
 
     public CheckoutService(ShippingService shippingService) {
+        this(shippingService, new OrderCommitter());
+    }
+
+    public CheckoutService(ShippingService shippingService, OrderCommitter orderCommitter) {
+        this(shippingService, orderCommitter, (customer, items) -> shippingService.processShipment(items));
+    }
+
+    public CheckoutService(ShippingService shippingService, OrderCommitter orderCommitter,
+            ShipmentPublisher shipmentPublisher) {
         this.shippingService = shippingService;
+        this.orderCommitter = orderCommitter;
+        this.shipmentPublisher = shipmentPublisher;
+    }
+
+    public void addCheckoutListener(CheckoutListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    public void setMetrics(CheckoutMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null");
+        }
+        this.metrics = metrics;
     }
 
     public CheckoutResult processCheckout(Customer customer) {
-        Cart cart = customer.getCart();
+        CheckoutMetrics metrics = this.metrics;
+        long start = System.nanoTime();
+        try {
+            CheckoutOutcome outcome = checkout(customer, metrics, start, true);
+            if (outcome instanceof CheckoutOutcome.Rejected rejected) {
+                throw rejected.toException();
+            }
+            metrics.recordPhase(CheckoutPhase.TOTAL, System.nanoTime() - start);
+            return ((CheckoutOutcome.Completed) outcome).result();
+        } catch (RuntimeException e) {
+            metrics.recordFailure(e);
+            throw e;
+        }
+    }
+
+    // Exception-free counterpart of processCheckout for rejection-heavy traffic: an empty
+    // cart, an expired product, missing stock or balance come back as a Rejected outcome.
+    // Only invalid arguments and unexpected faults still throw.
+    public CheckoutOutcome tryCheckout(Customer customer) {
+        CheckoutMetrics metrics = this.metrics;
+        long start = System.nanoTime();
+        try {
+            CheckoutOutcome outcome = checkout(customer, metrics, start, false);
+            if (outcome instanceof CheckoutOutcome.Rejected rejected) {
+                metrics.recordRejection(rejected.reason());
+            } else {
+                metrics.recordPhase(CheckoutPhase.TOTAL, System.nanoTime() - start);
+            }
+            return outcome;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(e);
+            throw e;
+        }
+    }
+
+    private CheckoutOutcome checkout(Customer customer, CheckoutMetrics metrics, long start, boolean throwing) {
+        if (customer.isCartEmpty()) {
+            // nothing to buy; don't create or restore a cart just to find that out
+            if (throwing) {
+                throw new CartEmptyException();
+            }
+            return new CheckoutOutcome.Rejected(RejectionReason.EMPTY_CART, CartEmptyException.MESSAGE);
+        }
+        // pinned so a cart store can't park it between the commit and the clear below
+        Cart cart = customer.pinCart();
+        try {
+            return checkout(customer, cart, metrics, start, throwing);
+        } finally {
+            customer.unpinCart();
+        }
+    }
+
+    private CheckoutOutcome checkout(Customer customer, Cart cart, CheckoutMetrics metrics, long start,
+            boolean throwing) {
 
         // Validate the cart and items
-        validateCheckout(cart);
+        if (throwing) {
+            validateCheckout(cart);
+        } else {
+            CheckoutOutcome.Rejected rejection = findRejection(cart);
+            if (rejection != null) {
+                return rejection;
+            }
+        }
+        metrics.recordCartSize(cart.getItems().size(), cart.getTotalItemCount());
+        long mark = record(metrics, CheckoutPhase.VALIDATION, start);
 
         Money subtotal = cart.calculateSubtotal();
+        mark = record(metrics, CheckoutPhase.PRICING, mark);
+
         List<ShippableItem> shippableItems = cart.getShippableItems();
         Money shippingCost = shippingService.calculateShippingCostWithDiscounts(shippableItems, subtotal);
         Money total = subtotal.add(shippingCost);
+        mark = record(metrics, CheckoutPhase.SHIPPING, mark);
 
-        // Check customer
-        if (!customer.canAfford(total)) {
-            throw new InsufficientBalanceException(total.getAmount(), customer.getBalance().getAmount());
-        }
-
-        // payment
-        customer.deductFromWallet(total);
-
-        // update inventory
-        updateInventory(cart.getItems());
-
-        // process shipping
-        if (!shippableItems.isEmpty()) {
-            shippingService.processShipment(shippableItems);
+        // payment and inventory - all lines and the wallet debit succeed together or not at all
+        CheckoutOutcome.Rejected rejection = orderCommitter.tryCommit(
+                customer, cart.getItems(), subtotal, shippingCost, total);
+        if (rejection != null) {
+            return rejection;
         }
+        mark = record(metrics, CheckoutPhase.COMMIT, mark);
 
-        // clear cart and return result
+        // the order is paid for from here on: settle the cart before anything else can fail
         CheckoutResult result = new CheckoutResult(
                 cart.getItems(),
                 subtotal,
                 shippingCost,
                 total,
                 customer.getBalance());
-
         cart.clear();
 
-        return result;
+        // process shipping
+        if (!shippableItems.isEmpty()) {
+            try {
+                shipmentPublisher.publish(customer, shippableItems);
+            } catch (RuntimeException e) {
+                postCommitFailed("Shipment for " + customer.getName() + " was not published", e);
+            }
+        }
+        mark = record(metrics, CheckoutPhase.SHIPMENT, mark);
+
+        for (CheckoutListener listener : listeners) {
+            try {
+                listener.onCheckoutCompleted(customer, result);
+            } catch (RuntimeException e) {
+                postCommitFailed("Checkout listener failed for " + customer.getName(), e);
+            }
+        }
+        record(metrics, CheckoutPhase.NOTIFICATION, mark);
+
+        return new CheckoutOutcome.Completed(result);
+    }
+
+    // Shipment publishing and listeners run after the order is committed, so a failure
+    // there can't fail the checkout: the caller would retry and be charged twice.
+    private void postCommitFailed(String message, RuntimeException e) {
+        postCommitFailures.incrementAndGet();
+        System.err.println(message + ": " + e.getMessage());
+    }
+
+    // Shipments or listener calls that failed after their order had committed.
+    public long getPostCommitFailureCount() {
+        return postCommitFailures.get();
+    }
+
+    public BatchCheckoutResult processCheckoutBatch(Collection<Customer> customers) {
+        return processCheckoutBatch(customers, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    // Runs each customer's checkout on its own virtual thread, at most maxInFlight at a time.
+    // Failures, errors included, are recorded per customer and never end the batch;
+    // results come back in the order of the input.
+    public BatchCheckoutResult processCheckoutBatch(Collection<Customer> customers, int maxInFlight) {
+        if (customers == null) {
+            throw new IllegalArgumentException("Customers cannot be null");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight checkouts must be positive");
+        }
+        List<Customer> batch = List.copyOf(customers);
+        Set<Customer> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Customer customer : batch) {
+            if (!distinct.add(customer)) {
+                throw new IllegalArgumentException("Customer appears more than once in batch: " + customer.getName());
+            }
+        }
+
+        AtomicReferenceArray<CustomerCheckout> checkouts = new AtomicReferenceArray<>(batch.size());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < batch.size(); i++) {
+                int index = i;
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        checkouts.set(index, checkoutOne(batch.get(index)));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        CustomerCheckout[] results = new CustomerCheckout[batch.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = checkouts.get(i);
+        }
+        return new BatchCheckoutResult(List.of(results), elapsed);
+    }
+
+    private CustomerCheckout checkoutOne(Customer customer) {
+        long start = System.nanoTime();
+        try {
+            CheckoutResult result = processCheckout(customer);
+            return new CustomerCheckout(customer, result, null, System.nanoTime() - start);
+        } catch (Throwable e) {
+            return new CustomerCheckout(customer, null, e, System.nanoTime() - start);
+        }
+    }
+
+    private static long record(CheckoutMetrics metrics, CheckoutPhase phase, long since) {
+        long now = System.nanoTime();
+        metrics.recordPhase(phase, now - since);
+        return now;
+    }
+
+    // The checks validateCheckout makes, reported instead of thrown.
+    private static CheckoutOutcome.Rejected findRejection(Cart cart) {
+        if (cart.isEmpty()) {
+            return new CheckoutOutcome.Rejected(RejectionReason.EMPTY_CART, CartEmptyException.MESSAGE);
+        }
+        for (CartItem item : cart.getItems()) {
+            if (item.getProduct() instanceof Expirable expirable && expirable.isExpired()) {
+                return new CheckoutOutcome.Rejected(RejectionReason.PRODUCT_EXPIRED,
+                        ProductExpiredException.message(item.getProduct().getName(), expirable.getExpirationDate()));
+            }
+        }
+        return null;
     }
 
     private void validateCheckout(Cart cart) {
@@ -65,8 +272,4 @@ public class CheckoutService {
 
         cart.validateForCheckout();
     }
-
-    private void updateInventory(Collection<CartItem> items) {
-        items.forEach(item -> item.getProduct().reduceQuantity(item.getQuantity()));
-    }
 }
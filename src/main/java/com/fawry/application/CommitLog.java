@@ -0,0 +1,19 @@
+package com.fawry.application;
+
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.valueobject.Money;
+import java.util.Collection;
+
+public interface CommitLog {
+    // Called by OrderCommitter while it still holds the checkout's locks, after stock and
+    // wallet changes are applied. Returns the sequence number of the logged commit; throwing
+    // rolls the checkout back.
+    long append(Customer customer, Collection<CartItem> items, Money subtotal, Money shippingCost, Money total);
+
+    // Called by OrderCommitter while it holds the customer's stripe, after amount has been
+    // credited to the wallet. Throwing takes the credit back.
+    long appendCredit(Customer customer, Money amount);
+
+    long lastSequence();
+}
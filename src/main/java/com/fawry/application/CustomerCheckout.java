@@ -0,0 +1,25 @@
+package com.fawry.application;
+
+import com.fawry.domain.model.customer.Customer;
+
+public record CustomerCheckout(
+        Customer customer,
+        CheckoutResult result,
+        Throwable failure,
+        long latencyNanos) {
+    public CustomerCheckout {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        if ((result == null) == (failure == null)) {
+            throw new IllegalArgumentException("Exactly one of result or failure must be set");
+        }
+        if (latencyNanos < 0) {
+            throw new IllegalArgumentException("Latency cannot be negative");
+        }
+    }
+
+    public boolean isSuccess() {
+        return result != null;
+    }
+}
@@ -0,0 +1,281 @@
+package com.fawry.application;
+
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.valueobject.Money;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Customers by name, spread over independently locked shards. The customer's name is its
+// id everywhere else (journal, snapshots, the HTTP API), so it is the key here too.
+//
+// A shard is an open-addressing table of Customer references with linear probing, plus a
+// parallel array of their hashes so a probe only dereferences a customer whose hash
+// matches. The key is read off the customer itself, so an entry costs two array slots
+// rather than a map node. Lookups are optimistic reads that only take the shard's read
+// lock when a writer got in between. forEach copies one shard's table at a time the same
+// way and walks the copy, so iteration never holds a lock while calling back and writers
+// only ever wait for an array copy; what it sees of each shard is that shard as of its
+// copy.
+public class CustomerRegistry {
+    private static final int DEFAULT_SHARDS = 64;
+    private static final int MIN_SHARD_CAPACITY = 16;
+
+    private final Shard[] shards;
+    private final int shardShift;
+
+    public CustomerRegistry() {
+        this(DEFAULT_SHARDS, 0);
+    }
+
+    // expectedCustomers presizes the shards so loading that many never resizes a table.
+    public CustomerRegistry(int shardCount, int expectedCustomers) {
+        if (shardCount <= 0 || Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("Shard count must be a positive power of two");
+        }
+        if (expectedCustomers < 0) {
+            throw new IllegalArgumentException("Expected customers cannot be negative");
+        }
+        int perShard = (int) Math.min((long) expectedCustomers / shardCount * 4 / 3 + 1, 1 << 30);
+        int capacity = Math.max(MIN_SHARD_CAPACITY, Integer.highestOneBit(perShard - 1) << 1);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(capacity);
+        }
+        // the top bits pick the shard and the low bits the slot, so the two stay independent
+        this.shardShift = Integer.SIZE - Integer.numberOfTrailingZeros(shardCount);
+    }
+
+    // Registers a new customer; throws IllegalArgumentException if the name is taken.
+    public Customer register(String name, Money walletBalance) {
+        Customer customer = new Customer(name, walletBalance);
+        if (putIfAbsent(customer) != customer) {
+            throw new IllegalArgumentException("Customer already registered: " + customer.getName());
+        }
+        return customer;
+    }
+
+    // Adds customer unless its name is taken; returns whichever customer is registered.
+    public Customer putIfAbsent(Customer customer) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        String name = customer.getName();
+        int hash = hash(name);
+        return shardFor(hash).putIfAbsent(customer, name, hash);
+    }
+
+    // The name is trimmed first, as Customer trims it, and the factory gets the trimmed one.
+    public Customer computeIfAbsent(String name, Function<String, Customer> factory) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer name cannot be null or empty");
+        }
+        String key = name.trim();
+        Customer existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        Customer created = factory.apply(key);
+        if (created == null || !created.getName().equals(key)) {
+            throw new IllegalArgumentException("Factory must create a customer named " + key);
+        }
+        return putIfAbsent(created);
+    }
+
+    // The customer with this name, or null.
+    public Customer get(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Customer name cannot be null");
+        }
+        int hash = hash(name);
+        return shardFor(hash).get(name, hash);
+    }
+
+    public boolean remove(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Customer name cannot be null");
+        }
+        int hash = hash(name);
+        return shardFor(hash).remove(name, hash);
+    }
+
+    public void forEach(Consumer<? super Customer> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        for (Shard shard : shards) {
+            for (Customer customer : shard.copy()) {
+                if (customer != null) {
+                    action.accept(customer);
+                }
+            }
+        }
+    }
+
+    public List<Customer> getAllCustomers() {
+        List<Customer> customers = new ArrayList<>(size());
+        forEach(customers::add);
+        return customers;
+    }
+
+    public int size() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.size;
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    private Shard shardFor(int hash) {
+        return shards.length == 1 ? shards[0] : shards[hash >>> shardShift];
+    }
+
+    private static int hash(String name) {
+        // String hashes are weak in the low bits for similar names; mix before masking
+        int h = name.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Shard {
+        private final StampedLock lock = new StampedLock();
+        // Written only under the write lock; both arrays are replaced together on resize.
+        private Customer[] table;
+        private int[] hashes;
+        private volatile int size;
+
+        Shard(int capacity) {
+            this.table = new Customer[capacity];
+            this.hashes = new int[capacity];
+        }
+
+        Customer get(String name, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Customer found = find(table, hashes, name, hash);
+                if (lock.validate(stamp)) {
+                    return found;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(table, hashes, name, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        Customer putIfAbsent(Customer customer, String name, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                Customer existing = find(table, hashes, name, hash);
+                if (existing != null) {
+                    return existing;
+                }
+                if ((size + 1) > table.length - (table.length >>> 2)) {
+                    resize();
+                }
+                insert(table, hashes, customer, hash);
+                size++;
+                return customer;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        boolean remove(String name, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                Customer[] slots = table;
+                int[] slotHashes = hashes;
+                int mask = slots.length - 1;
+                int i = indexOf(slots, slotHashes, name, hash);
+                if (i < 0) {
+                    return false;
+                }
+                // backward-shift deletion: pull later entries of the probe run into the gap
+                slots[i] = null;
+                for (int j = (i + 1) & mask; slots[j] != null; j = (j + 1) & mask) {
+                    int home = slotHashes[j] & mask;
+                    boolean homeInGap = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+                    if (homeInGap) {
+                        slots[i] = slots[j];
+                        slotHashes[i] = slotHashes[j];
+                        slots[j] = null;
+                        i = j;
+                    }
+                }
+                size--;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        Customer[] copy() {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Customer[] copy = table.clone();
+                if (lock.validate(stamp)) {
+                    return copy;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return table.clone();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void resize() {
+            Customer[] grown = new Customer[table.length << 1];
+            int[] grownHashes = new int[grown.length];
+            for (int i = 0; i < table.length; i++) {
+                if (table[i] != null) {
+                    insert(grown, grownHashes, table[i], hashes[i]);
+                }
+            }
+            table = grown;
+            hashes = grownHashes;
+        }
+
+        private static void insert(Customer[] slots, int[] slotHashes, Customer customer, int hash) {
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            while (slots[i] != null) {
+                i = (i + 1) & mask;
+            }
+            slotHashes[i] = hash;
+            slots[i] = customer;
+        }
+
+        // Safe under an optimistic read: names are final, a reader that caught the arrays
+        // mid-resize sees different lengths, and the probe is bounded even if the table
+        // changes underneath.
+        private static Customer find(Customer[] slots, int[] slotHashes, String name, int hash) {
+            int i = indexOf(slots, slotHashes, name, hash);
+            return i < 0 ? null : slots[i];
+        }
+
+        private static int indexOf(Customer[] slots, int[] slotHashes, String name, int hash) {
+            if (slots.length != slotHashes.length) {
+                return -1;
+            }
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            for (int probes = 0; probes < slots.length; probes++) {
+                Customer customer = slots[i];
+                if (customer == null) {
+                    return -1;
+                }
+                if (slotHashes[i] == hash && customer.getName().equals(name)) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+    }
+}
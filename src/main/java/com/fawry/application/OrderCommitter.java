@@ -0,0 +1,208 @@
+package com.fawry.application;
+
+import com.fawry.domain.exception.DomainException;
+import com.fawry.domain.exception.InsufficientBalanceException;
+import com.fawry.domain.exception.InsufficientStockException;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.valueobject.Money;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Applies a checkout's stock changes and wallet debit as one unit. Each product, and the
+// customer, maps to a lock stripe; stripes are always taken in ascending index order, so
+// carts that overlap wait for each other instead of deadlocking, and carts that don't
+// overlap mostly take different stripes.
+//
+// With a CommitLog, commits are logged while their stripes are still held. An entity read
+// under its stripe (readStripe) is therefore exact as of the log's last sequence at that
+// moment: every logged commit that touched it has finished, and none can start. Snapshots
+// are built from such reads.
+public class OrderCommitter {
+    private static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] stripes;
+    private final CommitLog commitLog;
+
+    public OrderCommitter() {
+        this(DEFAULT_STRIPES, null);
+    }
+
+    public OrderCommitter(CommitLog commitLog) {
+        this(DEFAULT_STRIPES, commitLog);
+    }
+
+    public OrderCommitter(int stripeCount, CommitLog commitLog) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a positive power of two");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.commitLog = commitLog;
+    }
+
+    public void commit(Customer customer, Collection<CartItem> items, Money subtotal, Money shippingCost, Money total) {
+        CheckoutOutcome.Rejected rejection = tryCommit(customer, items, subtotal, shippingCost, total);
+        if (rejection != null) {
+            throw rejection.toException();
+        }
+    }
+
+    // Same as commit, but a shortfall in stock or balance comes back as a rejection instead
+    // of an exception. Returns null once the order is committed.
+    public CheckoutOutcome.Rejected tryCommit(Customer customer, Collection<CartItem> items, Money subtotal,
+            Money shippingCost, Money total) {
+        checkArguments(customer, items, subtotal, shippingCost, total);
+
+        CartItem[] lines = items.toArray(new CartItem[0]);
+        Arrays.sort(lines, Comparator.comparing((CartItem item) -> item.getProduct().getProductId()));
+        int[] lockOrder = stripesFor(customer, lines);
+
+        int locked = 0;
+        try {
+            for (int stripe : lockOrder) {
+                stripes[stripe].lock();
+                locked++;
+            }
+            return apply(customer, lines, subtotal, shippingCost, total);
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[lockOrder[i]].unlock();
+            }
+        }
+    }
+
+    // Credits the customer's wallet under its stripe, so the credit is logged and a
+    // snapshot read of the balance can't fall between the two.
+    public void credit(Customer customer, Money amount) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        ReentrantLock lock = stripes[stripeOf(customer)];
+        lock.lock();
+        try {
+            customer.addToWallet(amount);
+            if (commitLog != null) {
+                try {
+                    commitLog.appendCredit(customer, amount);
+                } catch (RuntimeException e) {
+                    customer.deductFromWallet(amount);
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs reader while holding the stripe, so no commit can change the stripe's entities
+    // meanwhile. Returns the log sequence the values read are exact as of.
+    public long readStripe(int stripe, Runnable reader) {
+        ReentrantLock lock = stripes[stripe];
+        lock.lock();
+        try {
+            reader.run();
+            return commitLog == null ? 0 : commitLog.lastSequence();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Whether commits are logged. Snapshots are only consistent with a log to replay.
+    public boolean hasCommitLog() {
+        return commitLog != null;
+    }
+
+    public int stripeOf(ProductId productId) {
+        return spread(productId.hashCode());
+    }
+
+    public int stripeOf(Customer customer) {
+        return spread(System.identityHashCode(customer));
+    }
+
+    private CheckoutOutcome.Rejected apply(Customer customer, CartItem[] lines, Money subtotal, Money shippingCost,
+            Money total) {
+        for (CartItem line : lines) {
+            if (!line.canCommitStock()) {
+                return insufficientStock(line);
+            }
+        }
+
+        if (!customer.tryDeductFromWallet(total)) {
+            return insufficientBalance(customer, total);
+        }
+
+        // stock can still move underneath us through paths that don't take the stripes
+        // (e.g. reservations), so every step stays undoable
+        int applied = 0;
+        try {
+            for (CartItem line : lines) {
+                line.commitStock();
+                applied++;
+            }
+            if (commitLog != null) {
+                commitLog.append(customer, List.of(lines), subtotal, shippingCost, total);
+            }
+            return null;
+        } catch (RuntimeException e) {
+            for (int i = applied - 1; i >= 0; i--) {
+                lines[i].rollbackStock();
+            }
+            customer.addToWallet(total);
+            // lost a race for stock with a path that doesn't take the stripes
+            if (e instanceof DomainException && applied < lines.length) {
+                return insufficientStock(lines[applied]);
+            }
+            throw e;
+        }
+    }
+
+    protected static void checkArguments(Customer customer, Collection<CartItem> items, Money subtotal,
+            Money shippingCost, Money total) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Items cannot be null or empty");
+        }
+        if (subtotal == null || shippingCost == null || total == null) {
+            throw new IllegalArgumentException("Subtotal, shipping cost and total cannot be null");
+        }
+    }
+
+    public static CheckoutOutcome.Rejected insufficientBalance(Customer customer, Money total) {
+        return new CheckoutOutcome.Rejected(RejectionReason.INSUFFICIENT_BALANCE,
+                InsufficientBalanceException.message(total.getAmount(), customer.getBalance().getAmount()));
+    }
+
+    // Also used by committers that take stock somewhere other than under these stripes.
+    public static CheckoutOutcome.Rejected insufficientStock(CartItem line) {
+        Product product = line.getProduct();
+        return new CheckoutOutcome.Rejected(RejectionReason.INSUFFICIENT_STOCK,
+                InsufficientStockException.message(product.getName(), line.getQuantity(), product.getQuantity()));
+    }
+
+    private int[] stripesFor(Customer customer, CartItem[] lines) {
+        int[] indexes = new int[lines.length + 1];
+        for (int i = 0; i < lines.length; i++) {
+            indexes[i] = stripeOf(lines[i].getProduct().getProductId());
+        }
+        indexes[lines.length] = stripeOf(customer);
+        return Arrays.stream(indexes).sorted().distinct().toArray();
+    }
+
+    private int spread(int hash) {
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,163 @@
+package com.fawry.application;
+
+import com.fawry.domain.exception.InvalidProductException;
+import com.fawry.domain.model.product.Expirable;
+import com.fawry.domain.model.product.ExpiryIndex;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.product.Shippable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// In-memory product repository. Stock lives on the Product objects themselves, so
+// stock updates never touch the indexes; only inserts and removals do.
+//
+// Given an ExpiryIndex, the catalog registers every expirable product it holds with it,
+// so checkout's expiry checks read the index's day flags. Starting and closing the
+// index stays with whoever created it.
+public class ProductCatalog {
+    // Separates name from id in name index keys; sorts below any printable character.
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ConcurrentHashMap<ProductId, Product> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Product> byName = new ConcurrentSkipListMap<>();
+    private final Set<Product> shippable = ConcurrentHashMap.newKeySet();
+    private final Set<Product> expirable = ConcurrentHashMap.newKeySet();
+    private final ExpiryIndex expiryIndex;
+
+    public ProductCatalog() {
+        this(null);
+    }
+
+    public ProductCatalog(ExpiryIndex expiryIndex) {
+        this.expiryIndex = expiryIndex;
+    }
+
+    public void add(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        // indexes are updated inside compute so an add and a remove of the same id can't interleave
+        byId.compute(product.getProductId(), (id, existing) -> {
+            if (existing != null) {
+                throw new InvalidProductException("Product already in catalog: " + id);
+            }
+            byName.put(nameKey(product), product);
+            if (product instanceof Shippable) {
+                shippable.add(product);
+            }
+            if (product instanceof Expirable) {
+                expirable.add(product);
+                if (expiryIndex != null) {
+                    expiryIndex.register(product);
+                }
+            }
+            return product;
+        });
+    }
+
+    public void addAll(Collection<? extends Product> products) {
+        if (products == null) {
+            throw new IllegalArgumentException("Products cannot be null");
+        }
+        products.forEach(this::add);
+    }
+
+    public boolean remove(ProductId productId) {
+        if (productId == null) {
+            throw new IllegalArgumentException("Product ID cannot be null");
+        }
+        boolean[] removed = new boolean[1];
+        byId.computeIfPresent(productId, (id, existing) -> {
+            byName.remove(nameKey(existing));
+            shippable.remove(existing);
+            if (expirable.remove(existing) && expiryIndex != null) {
+                expiryIndex.unregister(existing);
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public Optional<Product> findById(ProductId productId) {
+        if (productId == null) {
+            throw new IllegalArgumentException("Product ID cannot be null");
+        }
+        return Optional.ofNullable(byId.get(productId));
+    }
+
+    public Product getById(ProductId productId) {
+        return findById(productId)
+                .orElseThrow(() -> new InvalidProductException("Product not found: " + productId));
+    }
+
+    // Resolves many ids in one call, keeping the request order. Unknown ids are left out.
+    public Map<ProductId, Product> getAll(Collection<ProductId> productIds) {
+        if (productIds == null) {
+            throw new IllegalArgumentException("Product IDs cannot be null");
+        }
+        Map<ProductId, Product> found = new LinkedHashMap<>(Math.max(16, productIds.size() * 4 / 3 + 1));
+        for (ProductId productId : productIds) {
+            Product product = byId.get(productId);
+            if (product != null) {
+                found.put(productId, product);
+            }
+        }
+        return found;
+    }
+
+    // Case-insensitive name prefix search, in name order.
+    public List<Product> findByNamePrefix(String prefix, int limit) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String from = normalize(prefix);
+        ConcurrentNavigableMap<String, Product> range = byName.subMap(from, true, from + Character.MAX_VALUE, false);
+        List<Product> matches = new ArrayList<>(Math.min(limit, 64));
+        for (Product product : range.values()) {
+            if (matches.size() == limit) {
+                break;
+            }
+            matches.add(product);
+        }
+        return matches;
+    }
+
+    public Collection<Product> getShippableProducts() {
+        return Collections.unmodifiableSet(shippable);
+    }
+
+    public Collection<Product> getExpirableProducts() {
+        return Collections.unmodifiableSet(expirable);
+    }
+
+    public Collection<Product> getAllProducts() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    private static String nameKey(Product product) {
+        return normalize(product.getName()) + KEY_SEPARATOR + product.getProductId();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
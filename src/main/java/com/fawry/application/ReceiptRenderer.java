@@ -0,0 +1,133 @@
+package com.fawry.application;
+
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.valueobject.Money;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+// Renders the checkout receipt into a caller-supplied StringBuilder, producing exactly
+// what the old printf-based ReceiptService printed, without String.format or
+// BigDecimal-to-double conversion for ordinary amounts.
+//
+// printf formats in the default locale. The integer fast path writes ASCII digits and
+// '.', so it is only used when the locale formats numbers that way; other locales (e.g.
+// ar-EG digits, de-DE decimal comma) go through the original format strings.
+public class ReceiptRenderer {
+    private static final String NEWLINE = System.lineSeparator();
+    private static final int NAME_WIDTH = 14;
+    private static final int AMOUNT_WIDTH = 8;
+    // up to 15 significant digits a scale-2 amount survives the trip through double
+    // unchanged, so integer rounding below matches what %.0f / %.2f printed
+    private static final long MAX_EXACT_CENTS = 999_999_999_999_999L;
+
+    private final Locale locale;
+    private final boolean asciiNumbers;
+
+    // The default format locale, which is what printf used.
+    public ReceiptRenderer() {
+        this(Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    public ReceiptRenderer(Locale locale) {
+        if (locale == null) {
+            throw new IllegalArgumentException("Locale cannot be null");
+        }
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.locale = locale;
+        this.asciiNumbers = symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.';
+    }
+
+    public void render(CheckoutResult result, StringBuilder out) {
+        if (!asciiNumbers) {
+            renderFormatted(result, out);
+            return;
+        }
+        out.append("** Checkout receipt **").append(NEWLINE);
+
+        for (CartItem item : result.purchasedItems()) {
+            out.append(item.getQuantity()).append("x ");
+            padRight(out, item.getProduct().getName(), NAME_WIDTH);
+            out.append(' ');
+            appendWholeAmount(out, item.calculateSubtotal(), AMOUNT_WIDTH);
+            out.append(NEWLINE);
+        }
+
+        out.append("----------------------").append(NEWLINE);
+        out.append("Subtotal         ");
+        appendWholeAmount(out, result.subtotal(), AMOUNT_WIDTH);
+        out.append(NEWLINE).append("Shipping         ");
+        appendWholeAmount(out, result.shippingCost(), AMOUNT_WIDTH);
+        out.append(NEWLINE).append("Amount           ");
+        appendWholeAmount(out, result.total(), AMOUNT_WIDTH);
+        out.append(NEWLINE).append("Remaining balance: $");
+        appendCents(out, result.remainingBalance());
+        out.append(NEWLINE).append(NEWLINE);
+    }
+
+    // The old printf calls, verbatim.
+    private void renderFormatted(CheckoutResult result, StringBuilder out) {
+        out.append("** Checkout receipt **").append(NEWLINE);
+        for (CartItem item : result.purchasedItems()) {
+            out.append(String.format(locale, "%dx %-14s %8.0f%n",
+                    item.getQuantity(),
+                    item.getProduct().getName(),
+                    item.calculateSubtotal().getAmount().doubleValue()));
+        }
+        out.append("----------------------").append(NEWLINE);
+        out.append(String.format(locale, "Subtotal         %8.0f%n", result.subtotal().getAmount().doubleValue()));
+        out.append(String.format(locale, "Shipping         %8.0f%n", result.shippingCost().getAmount().doubleValue()));
+        out.append(String.format(locale, "Amount           %8.0f%n", result.total().getAmount().doubleValue()));
+        out.append(String.format(locale, "Remaining balance: $%.2f%n",
+                result.remainingBalance().getAmount().doubleValue()));
+        out.append(NEWLINE);
+    }
+
+    // %<width>.0f of the amount
+    private void appendWholeAmount(StringBuilder out, Money amount, int width) {
+        if (!isExact(amount)) {
+            out.append(String.format(locale, "%" + width + ".0f", amount.getAmount().doubleValue()));
+            return;
+        }
+        long units = (amount.getCentsExact() + 50) / 100;
+        for (int i = digits(units); i < width; i++) {
+            out.append(' ');
+        }
+        out.append(units);
+    }
+
+    // %.2f of the amount
+    private void appendCents(StringBuilder out, Money amount) {
+        if (!isExact(amount)) {
+            out.append(String.format(locale, "%.2f", amount.getAmount().doubleValue()));
+            return;
+        }
+        long cents = amount.getCentsExact();
+        long fraction = cents % 100;
+        out.append(cents / 100).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    // %-<width>s
+    private static void padRight(StringBuilder out, String text, int width) {
+        out.append(text);
+        for (int i = text.length(); i < width; i++) {
+            out.append(' ');
+        }
+    }
+
+    private static boolean isExact(Money amount) {
+        return amount.fitsInCents() && amount.getCentsExact() <= MAX_EXACT_CENTS;
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
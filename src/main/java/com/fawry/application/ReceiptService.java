@@ -1,10 +1,10 @@
 package com.fawry.application;
 
-import com.fawry.domain.model.cart.CartItem;
 import java.io.PrintStream;
 
 public class ReceiptService {
     private final PrintStream output;
+    private final ReceiptRenderer renderer = new ReceiptRenderer();
 
     public ReceiptService() {
         this(System.out);
@@ -15,26 +15,10 @@ public class ReceiptService {
     }
 
     public void printReceipt(CheckoutResult result) {
-        output.println("** Checkout receipt **");
-
-        for (CartItem item : result.purchasedItems()) {
-            output.printf("%dx %-14s %8.0f%n",
-                    item.getQuantity(),
-                    item.getProduct().getName(),
-                    item.calculateSubtotal().getAmount().doubleValue());
-        }
-
-        // totals
-        output.println("----------------------");
-        output.printf("Subtotal         %8.0f%n",
-                result.subtotal().getAmount().doubleValue());
-        output.printf("Shipping         %8.0f%n",
-                result.shippingCost().getAmount().doubleValue());
-        output.printf("Amount           %8.0f%n",
-                result.total().getAmount().doubleValue());
-        output.printf("Remaining balance: $%.2f%n",
-                result.remainingBalance().getAmount().doubleValue());
-        output.println();
+        StringBuilder receipt = new StringBuilder(256);
+        renderer.render(result, receipt);
+        // one write, so one lock on the stream, per receipt
+        output.append(receipt);
     }
 
     public void printSummary(CheckoutResult result) {
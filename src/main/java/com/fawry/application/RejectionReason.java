@@ -0,0 +1,26 @@
+package com.fawry.application;
+
+import com.fawry.domain.exception.CartEmptyException;
+import com.fawry.domain.exception.DomainException;
+import com.fawry.domain.exception.InsufficientBalanceException;
+import com.fawry.domain.exception.InsufficientStockException;
+import com.fawry.domain.exception.ProductExpiredException;
+
+// Business reasons a checkout can be turned down, each matching the exception
+// processCheckout throws for it.
+public enum RejectionReason {
+    EMPTY_CART(CartEmptyException.class),
+    PRODUCT_EXPIRED(ProductExpiredException.class),
+    INSUFFICIENT_STOCK(InsufficientStockException.class),
+    INSUFFICIENT_BALANCE(InsufficientBalanceException.class);
+
+    private final Class<? extends DomainException> exceptionType;
+
+    RejectionReason(Class<? extends DomainException> exceptionType) {
+        this.exceptionType = exceptionType;
+    }
+
+    public Class<? extends DomainException> getExceptionType() {
+        return exceptionType;
+    }
+}
@@ -0,0 +1,10 @@
+package com.fawry.application;
+
+import com.fawry.domain.model.cart.ShippableItem;
+import com.fawry.domain.model.customer.Customer;
+import java.util.List;
+
+public interface ShipmentPublisher {
+    // Called on the checkout thread once payment and inventory are committed.
+    void publish(Customer customer, List<ShippableItem> items);
+}
@@ -1,7 +1,9 @@
 package com.fawry.domain.exception;
 
 public class CartEmptyException extends DomainException {
+    public static final String MESSAGE = "Cannot checkout with an empty cart";
+
     public CartEmptyException() {
-        super("Cannot checkout with an empty cart");
+        super(MESSAGE);
     }
 }
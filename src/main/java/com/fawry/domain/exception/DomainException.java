@@ -1,11 +1,16 @@
 package com.fawry.domain.exception;
 
+// Business rule failures. They are expected, frequent under load and always caught by
+// the application layer, so they skip stack trace capture and suppression unless
+// -Dfawry.domainExceptions.stackTraces=true is set for debugging.
 public abstract class DomainException extends RuntimeException {
+    private static final boolean STACK_TRACES = Boolean.getBoolean("fawry.domainExceptions.stackTraces");
+
     protected DomainException(String message) {
-        super(message);
+        super(message, null, false, STACK_TRACES);
     }
 
     protected DomainException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, STACK_TRACES);
     }
 }
@@ -3,8 +3,16 @@ package com.fawry.domain.exception;
 import java.math.BigDecimal;
 
 public class InsufficientBalanceException extends DomainException {
+    public InsufficientBalanceException(String message) {
+        super(message);
+    }
+
     public InsufficientBalanceException(BigDecimal required, BigDecimal available) {
-        super(String.format("Insufficient balance. Required: $%.2f, Available: $%.2f",
-                          required, available));
+        super(message(required, available));
+    }
+
+    public static String message(BigDecimal required, BigDecimal available) {
+        return String.format("Insufficient balance. Required: $%.2f, Available: $%.2f",
+                          required, available);
     }
 }
@@ -6,7 +6,11 @@ public class InsufficientStockException extends DomainException {
     }
 
     public InsufficientStockException(String productName, int requested, int available) {
-        super(String.format("Insufficient stock for %s. Requested: %d, Available: %d",
-                          productName, requested, available));
+        super(message(productName, requested, available));
+    }
+
+    public static String message(String productName, int requested, int available) {
+        return String.format("Insufficient stock for %s. Requested: %d, Available: %d",
+                          productName, requested, available);
     }
 }
@@ -1,7 +1,17 @@
 package com.fawry.domain.exception;
 
+import java.time.LocalDate;
+
 public class ProductExpiredException extends DomainException {
     public ProductExpiredException(String message) {
         super(message);
     }
+
+    public ProductExpiredException(String productName, LocalDate expirationDate) {
+        super(message(productName, expirationDate));
+    }
+
+    public static String message(String productName, LocalDate expirationDate) {
+        return "Product '" + productName + "' expired on " + expirationDate;
+    }
 }
@@ -6,16 +6,33 @@ import com.fawry.domain.exception.InvalidProductException;
 import com.fawry.domain.model.product.Product;
 import com.fawry.domain.model.product.ProductId;
 import com.fawry.domain.model.product.Shippable;
+import com.fawry.domain.model.reservation.StockReservations;
 import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class Cart {
+    // Debug switch: recompute the totals from the lines after every change and fail on a mismatch.
+    private static final boolean VERIFY_TOTALS = Boolean.getBoolean("fawry.cart.verifyTotals");
+
     private final Map<ProductId, CartItem> items;
+    // Optional; when set every line keeps a time-limited hold on its stock.
+    private final StockReservations reservations;
+
+    // Running totals, updated on every line change so reads do not walk the items.
+    private Money subtotal = Money.ZERO;
+    private int totalUnits;
+    private BigDecimal shippableKilograms = BigDecimal.ZERO;
 
     public Cart() {
+        this(null);
+    }
+
+    public Cart(StockReservations reservations) {
         this.items = new HashMap<>();
+        this.reservations = reservations;
     }
 
     public void addItem(Product product, int quantity) {
@@ -27,11 +44,21 @@ public class Cart {
         }
 
         ProductId productId = product.getProductId();
-        if (items.containsKey(productId)) {
-            CartItem existingItem = items.get(productId);
+        CartItem existingItem = items.get(productId);
+        if (existingItem != null) {
+            if (reservations != null) {
+                existingItem.setHold(reservations.adjust(
+                        existingItem.getHold(), product, existingItem.getQuantity() + quantity));
+            }
             existingItem.increaseQuantity(quantity);
         } else {
-            items.put(productId, new CartItem(product, quantity));
+            CartItem item = new CartItem(product, quantity);
+            if (reservations != null) {
+                item.setHold(reservations.reserve(product, quantity));
+            }
+            items.put(productId, item);
+            item.setCart(this);
+            applyLine(item.getProduct(), 0, quantity);
         }
     }
 
@@ -44,6 +71,9 @@ public class Cart {
         if (removed == null) {
             throw new InvalidProductException("Product not found in cart");
         }
+        removed.setCart(null);
+        applyLine(removed.getProduct(), removed.getQuantity(), 0);
+        removed.releaseHold();
     }
 
     public void updateItemQuantity(ProductId productId, int newQuantity) {
@@ -59,7 +89,9 @@ public class Cart {
             throw new InvalidProductException("Product not found in cart");
         }
 
-        if (!item.getProduct().isAvailable(newQuantity)) {
+        if (reservations != null) {
+            item.setHold(reservations.adjust(item.getHold(), item.getProduct(), newQuantity));
+        } else if (!item.getProduct().isAvailable(newQuantity)) {
             throw new InsufficientStockException(
                 "Insufficient stock for " + item.getProduct().getName() +
                 ". Available: " + item.getProduct().getQuantity() + ", Requested: " + newQuantity);
@@ -69,15 +101,17 @@ public class Cart {
     }
 
     public Money calculateSubtotal() {
-        return items.values().stream()
-                   .map(CartItem::calculateSubtotal)
-                   .reduce(Money.ZERO, Money::add);
+        return subtotal;
+    }
+
+    public Weight getTotalShippableWeight() {
+        return new Weight(shippableKilograms);
     }
 
     public List<ShippableItem> getShippableItems() {
         return items.values().stream()
                    .filter(item -> item.getProduct() instanceof Shippable)
-                   .flatMap(this::expandShippableItem)
+                   .map(this::toShippableItem)
                    .collect(Collectors.toList());
     }
 
@@ -90,9 +124,7 @@ public class Cart {
     }
 
     public int getTotalItemCount() {
-        return items.values().stream()
-                   .mapToInt(CartItem::getQuantity)
-                   .sum();
+        return totalUnits;
     }
 
     public boolean isEmpty() {
@@ -100,7 +132,57 @@ public class Cart {
     }
 
     public void clear() {
+        items.values().forEach(item -> {
+            item.setCart(null);
+            item.releaseHold();
+        });
         items.clear();
+        subtotal = Money.ZERO;
+        totalUnits = 0;
+        shippableKilograms = BigDecimal.ZERO;
+    }
+
+    // Compares the running totals with a full recompute over the lines.
+    public void verifyTotals() {
+        Money expectedSubtotal = items.values().stream()
+                   .map(CartItem::calculateSubtotal)
+                   .reduce(Money.ZERO, Money::add);
+        int expectedUnits = items.values().stream()
+                   .mapToInt(CartItem::getQuantity)
+                   .sum();
+        BigDecimal expectedKilograms = items.values().stream()
+                   .filter(item -> item.getProduct() instanceof Shippable)
+                   .map(item -> unitKilograms(item.getProduct()).multiply(BigDecimal.valueOf(item.getQuantity())))
+                   .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        if (!expectedSubtotal.equals(subtotal)
+                || expectedUnits != totalUnits
+                || expectedKilograms.compareTo(shippableKilograms) != 0) {
+            throw new IllegalStateException(String.format(
+                    "Cart totals drifted: subtotal %s (expected %s), units %d (expected %d), weight %s (expected %s)",
+                    subtotal, expectedSubtotal, totalUnits, expectedUnits, shippableKilograms, expectedKilograms));
+        }
+    }
+
+    void onQuantityChanged(CartItem item, int oldQuantity) {
+        applyLine(item.getProduct(), oldQuantity, item.getQuantity());
+    }
+
+    private void applyLine(Product product, int oldQuantity, int newQuantity) {
+        subtotal = subtotal.subtract(product.calculateSubtotal(oldQuantity))
+                           .add(product.calculateSubtotal(newQuantity));
+        totalUnits += newQuantity - oldQuantity;
+        if (product instanceof Shippable) {
+            shippableKilograms = shippableKilograms.add(
+                    unitKilograms(product).multiply(BigDecimal.valueOf((long) newQuantity - oldQuantity)));
+        }
+        if (VERIFY_TOTALS) {
+            verifyTotals();
+        }
+    }
+
+    private static BigDecimal unitKilograms(Product product) {
+        return ((Shippable) product).getWeight().getAmount();
     }
 
     public Collection<CartItem> getItems() {
@@ -115,14 +197,10 @@ public class Cart {
         return items.containsKey(productId);
     }
 
-    private Stream<ShippableItem> expandShippableItem(CartItem item) {
-        if (!(item.getProduct() instanceof Shippable shippable)) {
-            return Stream.empty();
-        }
-
-        return Stream.generate(() ->
-            new ShippableItem(item.getProduct().getName(), shippable.getWeight()))
-            .limit(item.getQuantity());
+    private ShippableItem toShippableItem(CartItem item) {
+        Product product = item.getProduct();
+        Shippable shippable = (Shippable) product;
+        return new ShippableItem(product.getProductId(), product.getName(), shippable.getWeight(), item.getQuantity());
     }
 
     @Override
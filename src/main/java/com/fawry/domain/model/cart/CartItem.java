@@ -1,11 +1,15 @@
 package com.fawry.domain.model.cart;
 
 import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.reservation.StockHold;
 import com.fawry.domain.model.valueobject.Money;
 
 public class CartItem {
     private final Product product;
     private int quantity;
+    private StockHold hold;
+    // Cart whose running totals follow this line's quantity; null once removed.
+    private Cart cart;
 
     public CartItem(Product product, int quantity) {
         if (product == null) {
@@ -30,14 +34,14 @@ public class CartItem {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
-        this.quantity = quantity;
+        changeQuantity(quantity);
     }
 
     public void increaseQuantity(int amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
-        this.quantity += amount;
+        changeQuantity(this.quantity + amount);
     }
 
     public void decreaseQuantity(int amount) {
@@ -47,7 +51,57 @@ public class CartItem {
         if (amount >= quantity) {
             throw new IllegalArgumentException("Cannot decrease quantity below 1");
         }
-        this.quantity -= amount;
+        changeQuantity(this.quantity - amount);
+    }
+
+    private void changeQuantity(int newQuantity) {
+        int oldQuantity = this.quantity;
+        this.quantity = newQuantity;
+        if (cart != null) {
+            cart.onQuantityChanged(this, oldQuantity);
+        }
+    }
+
+    void setCart(Cart cart) {
+        this.cart = cart;
+    }
+
+    public StockHold getHold() {
+        return hold;
+    }
+
+    void setHold(StockHold hold) {
+        this.hold = hold;
+    }
+
+    // Takes this line's units out of stock, using the reservation first if it is still held.
+    public void commitStock() {
+        int held = hold == null ? 0 : hold.consume();
+        if (held >= quantity) {
+            return;
+        }
+        try {
+            product.reduceQuantity(quantity - held);
+        } catch (RuntimeException e) {
+            product.increaseQuantity(held);
+            throw e;
+        }
+    }
+
+    public boolean canCommitStock() {
+        int held = hold == null ? 0 : hold.getQuantity();
+        return held >= quantity || product.isAvailable(quantity - held);
+    }
+
+    // Undoes commitStock. The units go back to free stock, not into a new hold.
+    public void rollbackStock() {
+        product.increaseQuantity(quantity);
+    }
+
+    public void releaseHold() {
+        if (hold != null) {
+            hold.release();
+        }
     }
 
     public Money calculateSubtotal() {
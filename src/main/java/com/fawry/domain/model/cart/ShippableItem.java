@@ -1,19 +1,34 @@
 package com.fawry.domain.model.cart;
 
+import com.fawry.domain.model.product.ProductId;
 import com.fawry.domain.model.valueobject.Weight;
 
-public record ShippableItem(String name, Weight weight) {
+public record ShippableItem(ProductId productId, String name, Weight weight, int quantity) {
 
     public ShippableItem {
+        if (productId == null) {
+            throw new IllegalArgumentException("Shippable item product ID cannot be null");
+        }
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Shippable item name cannot be null or empty");
         }
         if (weight == null) {
             throw new IllegalArgumentException("Shippable item weight cannot be null");
         }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Shippable item quantity must be positive");
+        }
     }
 
     public double getKilograms() {
         return weight.getAmount().doubleValue();
     }
+
+    public Weight getTotalWeight() {
+        return weight.multiply(quantity);
+    }
+
+    public ShippableItem withQuantity(int newQuantity) {
+        return new ShippableItem(productId, name, weight, newQuantity);
+    }
 }
@@ -0,0 +1,22 @@
+package com.fawry.domain.model.customer;
+
+import com.fawry.domain.model.cart.Cart;
+
+// Keeps the carts of idle customers somewhere other than the Customer object. An attached
+// customer hands its cart over through parkCart and gets it back, rebuilt by restore, on
+// its next getCart.
+public interface CartStore {
+    // Handle of a parked cart that had no lines; nothing is stored for it.
+    long EMPTY = 0L;
+    // Not a handle: the customer had no cart in the store. Also what a park function
+    // returns to keep the cart on the heap.
+    long NOT_PARKED = -1L;
+
+    // Stamp recorded on every cart access; only compared with other stamps from the same store.
+    long currentTick();
+
+    // Called whenever an attached customer's cart comes (back) onto the heap: refills cart
+    // with the lines parked under handle (none for EMPTY or NOT_PARKED, the latter being a
+    // first cart) and frees them. Called with the customer's lock held.
+    void restore(Customer customer, long handle, Cart cart);
+}
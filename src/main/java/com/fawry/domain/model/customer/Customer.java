@@ -4,14 +4,28 @@ import com.fawry.domain.exception.InsufficientStockException;
 import com.fawry.domain.model.cart.Cart;
 import com.fawry.domain.model.product.Product;
 import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.reservation.StockReservations;
 import com.fawry.domain.model.valueobject.Money;
+import java.util.function.ToLongFunction;
 
 public class Customer {
     private final String name;
-    private Money walletBalance;
-    private final Cart cart;
+    private final Wallet wallet;
+    private final StockReservations reservations;
+    // Created on first use, so customers who never shop don't carry an empty cart. Null
+    // before that and while parked in cartStore under the parkedCart handle.
+    private volatile Cart cart;
+    private long parkedCart = CartStore.NOT_PARKED;
+    private volatile CartStore cartStore;
+    private volatile long lastCartAccess;
+    // Callers between pinCart and unpinCart; a pinned cart is never parked.
+    private int cartPins;
 
     public Customer(String name, Money walletBalance) {
+        this(name, walletBalance, null);
+    }
+
+    public Customer(String name, Money walletBalance, StockReservations reservations) {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Customer name cannot be null or empty");
         }
@@ -20,8 +34,8 @@ public class Customer {
         }
 
         this.name = name.trim();
-        this.walletBalance = walletBalance;
-        this.cart = new Cart();
+        this.wallet = new Wallet(walletBalance);
+        this.reservations = reservations;
     }
 
     public String getName() {
@@ -29,11 +43,105 @@ public class Customer {
     }
 
     public Money getWalletBalance() {
-        return walletBalance;
+        return wallet.getBalance();
     }
 
+    // Creates the cart on first call; use hasCart to look without creating one.
     public Cart getCart() {
-        return cart;
+        CartStore store = cartStore;
+        Cart current = cart;
+        if (store == null && current != null) {
+            return current;
+        }
+        synchronized (this) {
+            store = cartStore;
+            if (store != null) {
+                lastCartAccess = store.currentTick();
+            }
+            if (cart == null) {
+                Cart created = new Cart(reservations);
+                if (store != null) {
+                    store.restore(this, parkedCart, created);
+                    parkedCart = CartStore.NOT_PARKED;
+                }
+                cart = created;
+            }
+            return cart;
+        }
+    }
+
+    // getCart for a use that spans more than one call on the cart, such as a checkout: the
+    // cart stays on the heap until the matching unpinCart, so nothing done to it in
+    // between is lost to a park.
+    public synchronized Cart pinCart() {
+        Cart pinned = getCart();
+        cartPins++;
+        return pinned;
+    }
+
+    public synchronized void unpinCart() {
+        if (cartPins == 0) {
+            throw new IllegalStateException("Cart is not pinned: " + name);
+        }
+        cartPins--;
+        CartStore store = cartStore;
+        if (store != null) {
+            lastCartAccess = store.currentTick();
+        }
+    }
+
+    // Reads emptiness without creating, restoring or touching the cart, for paths that only
+    // look. A parked cart with lines counts as not empty even if restoring would drop them.
+    public synchronized boolean isCartEmpty() {
+        if (cart != null) {
+            return cart.isEmpty();
+        }
+        return parkedCart == CartStore.NOT_PARKED || parkedCart == CartStore.EMPTY;
+    }
+
+    // Whether the customer has a cart, on the heap or parked.
+    public synchronized boolean hasCart() {
+        return cart != null || parkedCart != CartStore.NOT_PARKED;
+    }
+
+    // From now on the cart may be parked in store while idle. A caller must not keep using
+    // a Cart reference across an idle period; getCart again instead.
+    public synchronized void attachCartStore(CartStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Cart store cannot be null");
+        }
+        if (cartStore != null && cartStore != store) {
+            throw new IllegalStateException("Customer already uses another cart store: " + name);
+        }
+        lastCartAccess = store.currentTick();
+        cartStore = store;
+    }
+
+    // Parks the cart unless it is pinned or was accessed after idleSince. park turns the
+    // cart into a handle, or returns NOT_PARKED to keep it on the heap. Returns true once
+    // parked.
+    public synchronized boolean parkCart(long idleSince, ToLongFunction<Cart> park) {
+        if (cartStore == null) {
+            throw new IllegalStateException("Customer has no cart store: " + name);
+        }
+        if (cart == null || cartPins > 0 || lastCartAccess > idleSince) {
+            return false;
+        }
+        long handle = park.applyAsLong(cart);
+        if (handle == CartStore.NOT_PARKED) {
+            return false;
+        }
+        cart = null;
+        parkedCart = handle;
+        return true;
+    }
+
+    public long getLastCartAccess() {
+        return lastCartAccess;
+    }
+
+    public synchronized boolean isCartParked() {
+        return cart == null && parkedCart != CartStore.NOT_PARKED;
     }
 
     public void addToCart(Product product, int quantity) {
@@ -48,11 +156,14 @@ public class Customer {
                     "Insufficient stock for " + product.getName() +
                             ". Available: " + product.getQuantity() + ", Requested: " + quantity);
         }
+        Cart pinned = pinCart();
         try {
-            cart.addItem(product, quantity);
+            pinned.addItem(product, quantity);
             System.out.println("Added " + quantity + "x " + product.getName() + " to cart");
         } catch (Exception e) {
             System.err.println("Error adding product to cart: " + e.getMessage());
+        } finally {
+            unpinCart();
         }
 
     }
@@ -61,7 +172,12 @@ public class Customer {
         if (productId == null) {
             throw new IllegalArgumentException("Product ID cannot be null");
         }
-        cart.removeItem(productId);
+        Cart pinned = pinCart();
+        try {
+            pinned.removeItem(productId);
+        } finally {
+            unpinCart();
+        }
     }
 
     public void updateCartItemQuantity(ProductId productId, int newQuantity) {
@@ -71,35 +187,46 @@ public class Customer {
         if (newQuantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
-        cart.updateItemQuantity(productId, newQuantity);
+        Cart pinned = pinCart();
+        try {
+            pinned.updateItemQuantity(productId, newQuantity);
+        } finally {
+            unpinCart();
+        }
     }
 
     public void deductFromWallet(Money amount) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
-        if (walletBalance.isLessThan(amount)) {
+        if (!wallet.tryDebit(amount)) {
             throw new IllegalArgumentException("Insufficient wallet balance");
         }
-        this.walletBalance = walletBalance.subtract(amount);
+    }
+
+    public boolean tryDeductFromWallet(Money amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        return wallet.tryDebit(amount);
     }
 
     public void addToWallet(Money amount) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
-        this.walletBalance = walletBalance.add(amount);
+        wallet.credit(amount);
     }
 
     public boolean canAfford(Money amount) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
-        return walletBalance.isGreaterThanOrEqual(amount);
+        return wallet.getBalance().isGreaterThanOrEqual(amount);
     }
 
     public Money getBalance() {
-        return walletBalance;
+        return wallet.getBalance();
     }
 
     public boolean isProductAvailable(Product product, int quantity) {
@@ -111,6 +238,6 @@ public class Customer {
 
     @Override
     public String toString() {
-        return String.format("Customer: %s (Balance: %s)", name, walletBalance);
+        return String.format("Customer: %s (Balance: %s)", name, wallet);
     }
 }
@@ -0,0 +1,154 @@
+package com.fawry.domain.model.customer;
+
+import com.fawry.domain.model.valueobject.Money;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Wallet balance in cents. Debits are a single compare-and-set against the balance.
+// Credits go to the balance too, but once they start colliding they are parked in
+// striped cells (created on first contention) and folded in when a debit needs them.
+// Folds run one at a time under a sequence number, odd while one is in progress, so
+// getBalance can tell when it read the cells and the balance around a fold and retry
+// instead of missing the amount in transit.
+public class Wallet {
+    private static final VarHandle BALANCE;
+    private static final VarHandle CELLS;
+    private static final VarHandle FOLD_SEQUENCE;
+    // Longs per cell slot, so neighbouring cells never share a cache line.
+    private static final int CELL_STRIDE = 8;
+    private static final int CELL_COUNT = Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BALANCE = lookup.findVarHandle(Wallet.class, "balance", long.class);
+            CELLS = lookup.findVarHandle(Wallet.class, "creditCells", AtomicLongArray.class);
+            FOLD_SEQUENCE = lookup.findVarHandle(Wallet.class, "foldSequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long balance;
+    private volatile AtomicLongArray creditCells;
+    private volatile long foldSequence;
+
+    public Wallet(Money initialBalance) {
+        if (initialBalance == null) {
+            throw new IllegalArgumentException("Wallet balance cannot be null");
+        }
+        this.balance = cents(initialBalance, "Wallet balance");
+    }
+
+    public Money getBalance() {
+        while (true) {
+            long sequence = foldSequence;
+            if ((sequence & 1) == 0) {
+                long total = balance;
+                AtomicLongArray cells = creditCells;
+                if (cells != null) {
+                    for (int i = 0; i < cells.length(); i += CELL_STRIDE) {
+                        total = Math.addExact(total, cells.get(i));
+                    }
+                }
+                if (foldSequence == sequence) {
+                    return Money.ofCents(total);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public boolean tryDebit(Money amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        if (!amount.fitsInCents()) {
+            // more than any balance can hold
+            return false;
+        }
+        long cents = amount.getCentsExact();
+        while (true) {
+            long current = balance;
+            if (current >= cents) {
+                if (BALANCE.weakCompareAndSet(this, current, current - cents)) {
+                    return true;
+                }
+            } else if (!foldCredits()) {
+                return false;
+            }
+        }
+    }
+
+    public void credit(Money amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        long cents = cents(amount, "Credit");
+        AtomicLongArray cells = creditCells;
+        if (cells == null) {
+            long current = balance;
+            if (BALANCE.compareAndSet(this, current, Math.addExact(current, cents))) {
+                return;
+            }
+            cells = creditCells();
+        }
+        cells.getAndAdd(cellIndex(), cents);
+    }
+
+    // Moves parked credits into the balance. Returns false if there was nothing to move;
+    // true also when another fold is in progress, so the caller looks at the balance again.
+    private boolean foldCredits() {
+        AtomicLongArray cells = creditCells;
+        if (cells == null) {
+            return false;
+        }
+        long sequence = foldSequence;
+        if ((sequence & 1) != 0 || !FOLD_SEQUENCE.compareAndSet(this, sequence, sequence + 1)) {
+            Thread.onSpinWait();
+            return true;
+        }
+        try {
+            long drained = 0;
+            for (int i = 0; i < cells.length(); i += CELL_STRIDE) {
+                drained = Math.addExact(drained, cells.getAndSet(i, 0));
+            }
+            if (drained == 0) {
+                return false;
+            }
+            long current;
+            do {
+                current = balance;
+            } while (!BALANCE.weakCompareAndSet(this, current, Math.addExact(current, drained)));
+            return true;
+        } finally {
+            foldSequence = sequence + 2;
+        }
+    }
+
+    private AtomicLongArray creditCells() {
+        AtomicLongArray cells = new AtomicLongArray(CELL_COUNT * CELL_STRIDE);
+        AtomicLongArray existing = (AtomicLongArray) CELLS.compareAndExchange(this, null, cells);
+        return existing != null ? existing : cells;
+    }
+
+    private static int cellIndex() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((hash >>> 16) & (CELL_COUNT - 1)) * CELL_STRIDE;
+    }
+
+    @Override
+    public String toString() {
+        return getBalance().toString();
+    }
+
+    private static long cents(Money money, String what) {
+        if (!money.fitsInCents()) {
+            throw new IllegalArgumentException(what + " is too large: " + money);
+        }
+        return money.getCentsExact();
+    }
+}
@@ -36,17 +36,22 @@ public class ExpirableProduct extends Product implements Expirable {
         return checkDate.isAfter(expirationDate);
     }
 
+    @Override
+    public boolean isExpired() {
+        return isExpiredToday(expirationDate);
+    }
+
     @Override
     public void validateForPurchase() {
         super.validateForPurchase();
         if (isExpired()) {
-            throw new ProductExpiredException("Product '" + name + "' expired on " + expirationDate);
+            throw new ProductExpiredException(name, expirationDate);
         }
     }
 
     @Override
     public String toString() {
         return String.format("Expirable Product: %s [ID: %s, Price: %s, Quantity: %d, Expires: %s]",
-                name, productId, price, quantity, expirationDate);
+                name, productId, price, getQuantity(), expirationDate);
     }
 }
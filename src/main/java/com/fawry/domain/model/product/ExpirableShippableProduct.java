@@ -47,6 +47,11 @@ public class ExpirableShippableProduct extends Product implements Expirable, Shi
         return checkDate.isAfter(expirationDate);
     }
 
+    @Override
+    public boolean isExpired() {
+        return isExpiredToday(expirationDate);
+    }
+
     @Override
     public Weight getWeight() {
         return weight;
@@ -56,7 +61,7 @@ public class ExpirableShippableProduct extends Product implements Expirable, Shi
     public void validateForPurchase() {
         super.validateForPurchase();
         if (isExpired()) {
-            throw new ProductExpiredException("Product '" + name + "' expired on " + expirationDate);
+            throw new ProductExpiredException(name, expirationDate);
         }
     }
 
@@ -64,6 +69,6 @@ public class ExpirableShippableProduct extends Product implements Expirable, Shi
     public String toString() {
         return String.format(
                 "Expirable & Shippable Product: %s [ID: %s, Price: %s, Quantity: %d, Weight: %s, Expires: %s]",
-                name, productId, price, quantity, weight, expirationDate);
+                name, productId, price, getQuantity(), weight, expirationDate);
     }
 }
@@ -0,0 +1,40 @@
+package com.fawry.domain.model.product;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every indexed product expiring on the same day shares one bucket, so the daily
+// tick expires all of them with a single write to the flag.
+final class ExpiryBucket {
+    private final ExpiryIndex index;
+    private final long epochDay;
+    private final Set<Product> products = ConcurrentHashMap.newKeySet();
+    private volatile boolean expired;
+
+    ExpiryBucket(ExpiryIndex index, long epochDay) {
+        this.index = index;
+        this.epochDay = epochDay;
+    }
+
+    long getEpochDay() {
+        return epochDay;
+    }
+
+    Set<Product> getProducts() {
+        return products;
+    }
+
+    // The flag is only kept current while the index's ticker runs; an index nobody has
+    // started answers from its clock instead.
+    boolean isExpired() {
+        return expired || (!index.isRunning() && index.currentDay() > epochDay);
+    }
+
+    boolean isMarkedExpired() {
+        return expired;
+    }
+
+    void markExpired() {
+        expired = true;
+    }
+}
@@ -0,0 +1,188 @@
+package com.fawry.domain.model.product;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Buckets expirable products by expiration day. Indexed products check expiry by
+// reading their bucket's flag; the daily tick walks only the buckets whose day has
+// passed and flips each one, so a whole day's stock expires in one step. Upcoming
+// buckets are kept sorted by day, so "what expires in the next N days" is a range
+// read instead of a catalog scan.
+//
+// The flags only move while the index is started; until then, and after close, indexed
+// products check their date against the index's clock. Whoever creates the index owns
+// start() and close(); ProductCatalog only keeps its membership in step.
+public class ExpiryIndex implements AutoCloseable {
+    private final Clock clock;
+    private final ConcurrentSkipListMap<Long, ExpiryBucket> upcoming = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, ExpiryBucket> expired = new ConcurrentSkipListMap<>();
+    private final Map<ProductId, ExpiryBucket> bucketOf = new ConcurrentHashMap<>();
+    private volatile long today;
+    private volatile boolean running;
+    private ScheduledExecutorService ticker;
+
+    public ExpiryIndex() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public ExpiryIndex(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+        this.today = currentDay();
+    }
+
+    public synchronized void register(Product product) {
+        if (!(product instanceof Expirable expirable)) {
+            throw new IllegalArgumentException("Product is not expirable: " + product);
+        }
+        unregister(product);
+
+        long day = expirable.getExpirationDate().toEpochDay();
+        ExpiryBucket bucket;
+        if (day < today) {
+            bucket = expired.computeIfAbsent(day, key -> new ExpiryBucket(this, key));
+            bucket.markExpired();
+        } else {
+            bucket = upcoming.computeIfAbsent(day, key -> new ExpiryBucket(this, key));
+        }
+        bucket.getProducts().add(product);
+        bucketOf.put(product.getProductId(), bucket);
+        product.setExpiryBucket(bucket);
+    }
+
+    public void registerAll(Collection<? extends Product> products) {
+        if (products == null) {
+            throw new IllegalArgumentException("Products cannot be null");
+        }
+        for (Product product : products) {
+            if (product instanceof Expirable) {
+                register(product);
+            }
+        }
+    }
+
+    public synchronized boolean unregister(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        ExpiryBucket bucket = bucketOf.remove(product.getProductId());
+        if (bucket == null) {
+            return false;
+        }
+        bucket.getProducts().remove(product);
+        product.setExpiryBucket(null);
+        if (bucket.getProducts().isEmpty()) {
+            (bucket.isMarkedExpired() ? expired : upcoming).remove(bucket.getEpochDay(), bucket);
+        }
+        return true;
+    }
+
+    // Moves to the clock's current day and expires every bucket whose day is now in the
+    // past. Returns the number of products that expired.
+    public synchronized int tick() {
+        long now = currentDay();
+        today = Math.max(today, now);
+        int expiredProducts = 0;
+
+        Map.Entry<Long, ExpiryBucket> first;
+        while ((first = upcoming.firstEntry()) != null && first.getKey() < today) {
+            ExpiryBucket bucket = first.getValue();
+            upcoming.remove(first.getKey());
+            bucket.markExpired();
+            expired.put(bucket.getEpochDay(), bucket);
+            expiredProducts += bucket.getProducts().size();
+        }
+        return expiredProducts;
+    }
+
+    public LocalDate getToday() {
+        return LocalDate.ofEpochDay(today);
+    }
+
+    // Products still sellable today whose last day falls within the next `days` days,
+    // soonest first. days = 1 means products on their last day.
+    public List<Product> getExpiringWithin(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Days cannot be negative");
+        }
+        long from = today;
+        return collect(upcoming.subMap(from, true, from + days, false));
+    }
+
+    public List<Product> getExpired() {
+        return collect(expired);
+    }
+
+    public int size() {
+        return bucketOf.size();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Ticks now, then just after every midnight in the clock's zone.
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        tick();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expiry-index-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        scheduleNextTick();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            running = false;
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    // Rescheduled after every tick rather than at a fixed 24h rate, so days that are
+    // 23 or 25 hours long still tick at midnight.
+    private synchronized void scheduleNextTick() {
+        if (ticker == null) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(clock.getZone());
+        long delay = Math.max(0, Duration.between(now, midnight).toMillis());
+        ticker.schedule(() -> {
+            tick();
+            scheduleNextTick();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static List<Product> collect(NavigableMap<Long, ExpiryBucket> buckets) {
+        List<Product> products = new ArrayList<>();
+        for (ExpiryBucket bucket : buckets.values()) {
+            products.addAll(bucket.getProducts());
+        }
+        return products;
+    }
+
+    final long currentDay() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+}
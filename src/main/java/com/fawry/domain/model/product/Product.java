@@ -2,11 +2,30 @@ package com.fawry.domain.model.product;
 
 import com.fawry.domain.exception.InvalidProductException;
 import com.fawry.domain.model.valueobject.Money;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+
 public abstract class Product {
+    private static final VarHandle STOCK;
+
+    static {
+        try {
+            STOCK = MethodHandles.lookup().findVarHandle(Product.class, "stock", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     protected final ProductId productId;
     protected final String name;
     protected final Money price;
-    protected int quantity;
+    // Free units in the low 32 bits, units held by reservations in the high 32 bits, so
+    // moving units into or out of a hold never changes the on-hand total a reader sees.
+    // Only ever changed through CAS on STOCK; free + held never exceeds Integer.MAX_VALUE.
+    private volatile long stock;
+    // Set while an ExpiryIndex tracks this product.
+    private volatile ExpiryBucket expiryBucket;
 
     protected Product(String name, Money price, int quantity) {
         if (name == null || name.trim().isEmpty()) {
@@ -22,7 +41,7 @@ public abstract class Product {
         this.productId = new ProductId();
         this.name = name.trim();
         this.price = price;
-        this.quantity = quantity;
+        this.stock = quantity;
     }
 
     protected Product(ProductId productId, String name, Money price, int quantity) {
@@ -42,7 +61,7 @@ public abstract class Product {
         this.productId = productId;
         this.name = name.trim();
         this.price = price;
-        this.quantity = quantity;
+        this.stock = quantity;
     }
 
     public ProductId getProductId() {
@@ -57,33 +76,108 @@ public abstract class Product {
         return price;
     }
 
+    // Units free to sell; excludes units held by reservations.
     public int getQuantity() {
-        return quantity;
+        return free(stock);
+    }
+
+    public int getHeldQuantity() {
+        return held(stock);
+    }
+
+    // Free plus held: the units physically in stock.
+    public int getOnHandQuantity() {
+        long current = stock;
+        return free(current) + held(current);
     }
 
     public boolean isAvailable() {
-        return quantity > 0;
+        return getQuantity() > 0;
     }
 
     public boolean isAvailable(int requestedQuantity) {
-        return quantity >= requestedQuantity;
+        return getQuantity() >= requestedQuantity;
     }
 
-    public void reduceQuantity(int amount) {
+    public boolean tryReduce(int amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Amount to reduce cannot be negative");
         }
-        if (amount > quantity) {
-            throw new InvalidProductException("Insufficient stock. Available: " + quantity + ", Requested: " + amount);
+        long current;
+        do {
+            current = stock;
+            if (amount > free(current)) {
+                return false;
+            }
+        } while (!STOCK.weakCompareAndSet(this, current, current - amount));
+        return true;
+    }
+
+    public void reduceQuantity(int amount) {
+        if (!tryReduce(amount)) {
+            throw new InvalidProductException("Insufficient stock. Available: " + getQuantity() + ", Requested: " + amount);
         }
-        this.quantity -= amount;
     }
 
     public void increaseQuantity(int amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Amount to increase cannot be negative");
         }
-        this.quantity += amount;
+        long current;
+        do {
+            current = stock;
+            if (free(current) + held(current) > Integer.MAX_VALUE - amount) {
+                throw new IllegalArgumentException("Product quantity cannot exceed " + Integer.MAX_VALUE);
+            }
+        } while (!STOCK.weakCompareAndSet(this, current, current + amount));
+    }
+
+    // Moves amount free units into reservation holds, or returns false if fewer are free.
+    public boolean tryHold(int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount to hold cannot be negative");
+        }
+        long current;
+        do {
+            current = stock;
+            if (amount > free(current)) {
+                return false;
+            }
+        } while (!STOCK.weakCompareAndSet(this, current, current - amount + ((long) amount << 32)));
+        return true;
+    }
+
+    // Moves amount held units back to free stock.
+    public void releaseHeld(int amount) {
+        moveOutOfHold(amount, true);
+    }
+
+    // Takes amount held units out of stock altogether, as when a reservation is sold.
+    public void consumeHeld(int amount) {
+        moveOutOfHold(amount, false);
+    }
+
+    private void moveOutOfHold(int amount, boolean toFree) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Held amount cannot be negative");
+        }
+        long current;
+        long next;
+        do {
+            current = stock;
+            if (amount > held(current)) {
+                throw new IllegalStateException("Only " + held(current) + " units of " + name + " are held");
+            }
+            next = current - ((long) amount << 32) + (toFree ? amount : 0);
+        } while (!STOCK.weakCompareAndSet(this, current, next));
+    }
+
+    private static int free(long stock) {
+        return (int) stock;
+    }
+
+    private static int held(long stock) {
+        return (int) (stock >>> 32);
     }
 
     public Money calculateSubtotal(int requestedQuantity) {
@@ -97,9 +191,20 @@ public abstract class Product {
         // Default - to be overridden
     }
 
+    // isExpired() for the expirable product types: an indexed product asks its day's
+    // bucket, any other compares today's date.
+    final boolean isExpiredToday(LocalDate expirationDate) {
+        ExpiryBucket bucket = expiryBucket;
+        return bucket != null ? bucket.isExpired() : LocalDate.now().isAfter(expirationDate);
+    }
+
+    void setExpiryBucket(ExpiryBucket expiryBucket) {
+        this.expiryBucket = expiryBucket;
+    }
+
     @Override
     public String toString() {
         return String.format("%s [ID: %s, Price: %s, Quantity: %d]",
-                name, productId, price, quantity);
+                name, productId, price, getQuantity());
     }
 }
@@ -1,28 +1,67 @@
 package com.fawry.domain.model.product;
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
-public class ProductId {
-    private final String id;
+// 128-bit id kept as two longs. The canonical UUID string form is only produced or
+// parsed at the edges (getId/toString and the String constructor).
+public class ProductId implements Comparable<ProductId> {
+    private static final int CANONICAL_LENGTH = 36;
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final int hash;
 
     public ProductId(String id) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("Product ID cannot be null or empty");
         }
-        this.id = id.trim();
+        String canonical = id.trim();
+        if (!isCanonical(canonical)) {
+            throw new IllegalArgumentException("Product ID must be a canonical UUID string: " + id);
+        }
+        this.mostSignificantBits = parseHex(canonical, 0, 8) << 32
+                | parseHex(canonical, 9, 13) << 16
+                | parseHex(canonical, 14, 18);
+        this.leastSignificantBits = parseHex(canonical, 19, 23) << 48
+                | parseHex(canonical, 24, 36);
+        this.hash = mix(mostSignificantBits, leastSignificantBits);
+    }
+
+    public ProductId(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.hash = mix(mostSignificantBits, leastSignificantBits);
     }
 
+    // Random version 4 id. Uses the thread-local PRNG instead of SecureRandom: ids only
+    // need to be unique, not unpredictable.
     public ProductId() {
-        this.id = UUID.randomUUID().toString();
+        this(randomVersion4Msb(), randomVariantLsb());
     }
 
     public String getId() {
-        return id;
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    @Override
+    public int compareTo(ProductId other) {
+        // unsigned order of the bits is the same as the order of the lower-case strings
+        int result = Long.compareUnsigned(mostSignificantBits, other.mostSignificantBits);
+        return result != 0 ? result : Long.compareUnsigned(leastSignificantBits, other.leastSignificantBits);
     }
 
     @Override
     public String toString() {
-        return id;
+        return getId();
     }
 
     @Override
@@ -32,11 +71,69 @@ public class ProductId {
         if (obj == null || getClass() != obj.getClass())
             return false;
         ProductId productId = (ProductId) obj;
-        return id.equals(productId.id);
+        return mostSignificantBits == productId.mostSignificantBits
+                && leastSignificantBits == productId.leastSignificantBits;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return hash;
+    }
+
+    private static long randomVersion4Msb() {
+        long bits = ThreadLocalRandom.current().nextLong();
+        return (bits & ~0xF000L) | 0x4000L;
+    }
+
+    private static long randomVariantLsb() {
+        long bits = ThreadLocalRandom.current().nextLong();
+        return (bits & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    }
+
+    // murmur3 fmix64 over both halves, folded to 32 bits
+    private static int mix(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static boolean isCanonical(String id) {
+        if (id.length() != CANONICAL_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < CANONICAL_LENGTH; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (hexValue(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String id, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value << 4 | hexValue(id.charAt(i));
+        }
+        return value;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
     }
 }
@@ -30,6 +30,6 @@ public class ShippableProduct extends Product implements Shippable {
     @Override
     public String toString() {
         return String.format("Shippable Product: %s [ID: %s, Price: %s, Quantity: %d, Weight: %s]",
-                name, productId, price, quantity, weight);
+                name, productId, price, getQuantity(), weight);
     }
 }
@@ -15,6 +15,6 @@ public class StandardProduct extends Product {
     @Override
     public String toString() {
         return String.format("Standard Product: %s [ID: %s, Price: %s, Quantity: %d]",
-                name, productId, price, quantity);
+                name, productId, price, getQuantity());
     }
 }
@@ -0,0 +1,92 @@
+package com.fawry.domain.model.reservation;
+
+import com.fawry.domain.model.product.Product;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+public final class StockHold {
+    private static final VarHandle HELD;
+    private static final int TERMINATED = -1;
+
+    static {
+        try {
+            HELD = MethodHandles.lookup().findVarHandle(StockHold.class, "held", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Product product;
+    // Units moved into the product's held stock; TERMINATED once consumed or released.
+    private volatile int held;
+    volatile long deadlineTick;
+    // Link in a timer wheel bucket, only touched by the wheel.
+    StockHold next;
+
+    StockHold(Product product, int held, long deadlineTick) {
+        this.product = product;
+        this.held = held;
+        this.deadlineTick = deadlineTick;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public int getQuantity() {
+        return Math.max(held, 0);
+    }
+
+    public boolean isActive() {
+        return held != TERMINATED;
+    }
+
+    // Caller has already taken delta units from stock; they are returned if the hold is gone.
+    boolean grow(int delta) {
+        int current;
+        do {
+            current = held;
+            if (current == TERMINATED) {
+                product.releaseHeld(delta);
+                return false;
+            }
+        } while (!HELD.weakCompareAndSet(this, current, current + delta));
+        return true;
+    }
+
+    boolean shrink(int delta) {
+        int current;
+        do {
+            current = held;
+            if (current == TERMINATED || current < delta) {
+                return false;
+            }
+        } while (!HELD.weakCompareAndSet(this, current, current - delta));
+        product.releaseHeld(delta);
+        return true;
+    }
+
+    // Turns the hold into a sale. Returns the units sold, or 0 if the hold had already expired.
+    public int consume() {
+        int units = (int) HELD.getAndSet(this, TERMINATED);
+        if (units > 0) {
+            product.consumeHeld(units);
+        }
+        return Math.max(units, 0);
+    }
+
+    // Gives the held units back to the product. Returns the units released.
+    public int release() {
+        int units = (int) HELD.getAndSet(this, TERMINATED);
+        if (units > 0) {
+            product.releaseHeld(units);
+        }
+        return Math.max(units, 0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StockHold: %s (Quantity: %d, Active: %s)",
+                product.getName(), getQuantity(), isActive());
+    }
+}
@@ -0,0 +1,162 @@
+package com.fawry.domain.model.reservation;
+
+import com.fawry.domain.exception.InsufficientStockException;
+import com.fawry.domain.model.product.Product;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Time-limited holds on product stock. Reserving moves units from the product's free
+// stock into its held stock; expired holds are found through a hashed timer wheel, so a tick
+// only walks the bucket that is due instead of every live hold.
+public class StockReservations implements AutoCloseable {
+    private static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long ttlTicks;
+    private final long tickMillis;
+    private final int mask;
+    private final Clock clock;
+    private final AtomicReferenceArray<StockHold> buckets;
+    private volatile long lastTick;
+    private ScheduledExecutorService ticker;
+
+    public StockReservations(Duration ttl) {
+        this(ttl, DEFAULT_TICK, DEFAULT_WHEEL_SIZE, Clock.systemUTC());
+    }
+
+    public StockReservations(Duration ttl, Duration tick, int wheelSize, Clock clock) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Reservation TTL must be positive");
+        }
+        if (tick == null || tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("Tick duration must be at least one millisecond");
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a positive power of two");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.tickMillis = tick.toMillis();
+        this.ttlTicks = Math.max(1, (ttl.toMillis() + tickMillis - 1) / tickMillis);
+        this.mask = wheelSize - 1;
+        this.clock = clock;
+        this.buckets = new AtomicReferenceArray<>(wheelSize);
+        this.lastTick = currentTick();
+    }
+
+    public StockHold reserve(Product product, int quantity) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        takeStock(product, quantity);
+        StockHold hold = new StockHold(product, quantity, currentTick() + ttlTicks);
+        schedule(hold);
+        return hold;
+    }
+
+    // Resizes a hold to newQuantity and restarts its TTL. Returns a fresh hold when the
+    // old one is missing or has already expired.
+    public StockHold adjust(StockHold hold, Product product, int newQuantity) {
+        if (newQuantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (hold == null || !hold.isActive()) {
+            return reserve(product, newQuantity);
+        }
+
+        int delta = newQuantity - hold.getQuantity();
+        boolean stillActive = true;
+        if (delta > 0) {
+            takeStock(hold.getProduct(), delta);
+            stillActive = hold.grow(delta);
+        } else if (delta < 0) {
+            stillActive = hold.shrink(-delta);
+        }
+        if (!stillActive) {
+            return reserve(product, newQuantity);
+        }
+        hold.deadlineTick = currentTick() + ttlTicks;
+        return hold;
+    }
+
+    // Releases every hold whose deadline has passed. Returns the number of holds released.
+    public synchronized int expireDue() {
+        long now = currentTick();
+        long from = lastTick + 1;
+        long to = Math.min(now, lastTick + buckets.length());
+        int released = 0;
+
+        for (long tick = from; tick <= to; tick++) {
+            StockHold hold = buckets.getAndSet((int) (tick & mask), null);
+            while (hold != null) {
+                StockHold next = hold.next;
+                hold.next = null;
+                if (hold.isActive()) {
+                    if (hold.deadlineTick <= now) {
+                        if (hold.release() > 0) {
+                            released++;
+                        }
+                    } else {
+                        push(hold, hold.deadlineTick);
+                    }
+                }
+                hold = next;
+            }
+        }
+        lastTick = Math.max(lastTick, now);
+        return released;
+    }
+
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-reservations-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    private void takeStock(Product product, int quantity) {
+        if (!product.tryHold(quantity)) {
+            throw new InsufficientStockException(product.getName(), quantity, product.getQuantity());
+        }
+    }
+
+    private void schedule(StockHold hold) {
+        push(hold, hold.deadlineTick);
+    }
+
+    private void push(StockHold hold, long deadlineTick) {
+        // a deadline the wheel has already passed goes into the next bucket to be ticked
+        long tick = Math.max(deadlineTick, lastTick + 1);
+        int index = (int) (tick & mask);
+        StockHold head;
+        do {
+            head = buckets.get(index);
+            hold.next = head;
+        } while (!buckets.compareAndSet(index, head, hold));
+    }
+
+    private long currentTick() {
+        return clock.millis() / tickMillis;
+    }
+}
@@ -0,0 +1,24 @@
+package com.fawry.domain.model.shipping;
+
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+
+// Applies to shipments weighing at least minimumWeight, up to the next bracket's minimum.
+// Cost is baseFee + ratePerKg * total weight.
+public record RateBracket(Weight minimumWeight, Money baseFee, Money ratePerKg) {
+    public RateBracket {
+        if (minimumWeight == null) {
+            throw new IllegalArgumentException("Bracket minimum weight cannot be null");
+        }
+        if (!minimumWeight.isWholeGrams()) {
+            throw new IllegalArgumentException("Bracket minimum weight must be a whole number of grams in kg: "
+                    + minimumWeight);
+        }
+        if (baseFee == null) {
+            throw new IllegalArgumentException("Bracket base fee cannot be null");
+        }
+        if (ratePerKg == null) {
+            throw new IllegalArgumentException("Bracket rate per kg cannot be null");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.fawry.domain.model.shipping;
+
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable, compiled form of the configured shipping rates. Each zone's brackets are
+// flattened into sorted primitive arrays (lower bound in grams, base fee and per-kg
+// rate in cents), so a lookup is a binary search plus a little long arithmetic.
+// Tables are never modified after compile; rate changes build a new table and swap it in.
+public final class ShippingRateTable {
+    public static final String DEFAULT_ZONE = "DEFAULT";
+
+    private static final long GRAMS_PER_KG = 1000L;
+    private static final long NO_FREE_SHIPPING = -1L;
+
+    private final String defaultZone;
+    private final Map<String, Integer> zoneIndex;
+    private final ShippingZone[] zones;
+    private final long[][] minimumGrams;
+    private final long[][] baseFeeCents;
+    private final long[][] ratePerKgCents;
+    private final long[] freeShippingCents;
+
+    private ShippingRateTable(String defaultZone, List<ShippingZone> zones) {
+        int count = zones.size();
+        this.defaultZone = defaultZone;
+        this.zoneIndex = new HashMap<>(count * 2);
+        this.zones = zones.toArray(new ShippingZone[0]);
+        this.minimumGrams = new long[count][];
+        this.baseFeeCents = new long[count][];
+        this.ratePerKgCents = new long[count][];
+        this.freeShippingCents = new long[count];
+
+        for (int z = 0; z < count; z++) {
+            ShippingZone zone = zones.get(z);
+            if (zoneIndex.put(zone.code(), z) != null) {
+                throw new IllegalArgumentException("Duplicate shipping zone: " + zone.code());
+            }
+
+            List<RateBracket> brackets = new ArrayList<>(zone.brackets());
+            brackets.sort(Comparator.comparingLong(bracket -> bracket.minimumWeight().getGramsExact()));
+            int size = brackets.size();
+            minimumGrams[z] = new long[size];
+            baseFeeCents[z] = new long[size];
+            ratePerKgCents[z] = new long[size];
+            for (int b = 0; b < size; b++) {
+                RateBracket bracket = brackets.get(b);
+                minimumGrams[z][b] = bracket.minimumWeight().getGramsExact();
+                if (b > 0 && minimumGrams[z][b] == minimumGrams[z][b - 1]) {
+                    throw new IllegalArgumentException("Zone " + zone.code()
+                            + " has two brackets starting at " + bracket.minimumWeight());
+                }
+                baseFeeCents[z][b] = cents(bracket.baseFee());
+                ratePerKgCents[z][b] = cents(bracket.ratePerKg());
+            }
+            if (minimumGrams[z][0] != 0) {
+                throw new IllegalArgumentException("Zone " + zone.code() + " must have a bracket starting at 0 kg");
+            }
+            freeShippingCents[z] = zone.freeShippingThreshold() == null
+                    ? NO_FREE_SHIPPING
+                    : cents(zone.freeShippingThreshold());
+        }
+
+        if (!zoneIndex.containsKey(defaultZone)) {
+            throw new IllegalArgumentException("Default zone is not configured: " + defaultZone);
+        }
+    }
+
+    public static ShippingRateTable compile(String defaultZone, Collection<ShippingZone> zones) {
+        if (defaultZone == null || defaultZone.trim().isEmpty()) {
+            throw new IllegalArgumentException("Default zone cannot be null or empty");
+        }
+        if (zones == null || zones.isEmpty()) {
+            throw new IllegalArgumentException("Rate table must have at least one zone");
+        }
+        return new ShippingRateTable(defaultZone.trim(), List.copyOf(zones));
+    }
+
+    // One zone, one bracket: ratePerKg for every kilogram, free at or above the threshold.
+    public static ShippingRateTable flat(Money ratePerKg, Money freeShippingThreshold) {
+        RateBracket bracket = new RateBracket(Weight.ZERO, Money.ZERO, ratePerKg);
+        return compile(DEFAULT_ZONE,
+                List.of(new ShippingZone(DEFAULT_ZONE, List.of(bracket), freeShippingThreshold)));
+    }
+
+    public String getDefaultZone() {
+        return defaultZone;
+    }
+
+    public List<ShippingZone> getZones() {
+        return List.of(zones);
+    }
+
+    public ShippingZone getZone(String code) {
+        return zones[indexOf(code)];
+    }
+
+    // Resolves a zone code once so repeated lookups skip the map.
+    public int indexOf(String code) {
+        Integer index = zoneIndex.get(code == null ? defaultZone : code);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown shipping zone: " + code);
+        }
+        return index;
+    }
+
+    public boolean qualifiesForFreeShipping(int zone, Money subtotal) {
+        if (subtotal == null) {
+            throw new IllegalArgumentException("Subtotal cannot be null");
+        }
+        long threshold = freeShippingCents[zone];
+        if (threshold == NO_FREE_SHIPPING) {
+            return false;
+        }
+        // a subtotal too large for a long count of cents is above any threshold
+        return !subtotal.fitsInCents() || subtotal.getCentsExact() >= threshold;
+    }
+
+    public Money rateForGrams(int zone, long grams) {
+        if (grams < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        int bracket = bracketOf(zone, grams);
+        long base = baseFeeCents[zone][bracket];
+        long rate = ratePerKgCents[zone][bracket];
+
+        // rate * grams / 1000, rounded half up like Money
+        long high = Math.multiplyHigh(rate, grams);
+        long product = rate * grams;
+        if (high == 0 && product >= 0 && product <= Long.MAX_VALUE - GRAMS_PER_KG / 2) {
+            long variable = (product + GRAMS_PER_KG / 2) / GRAMS_PER_KG;
+            long cost = base + variable;
+            if (cost >= 0) {
+                return Money.ofCents(cost);
+            }
+        }
+        return rateForKilograms(zone, BigDecimal.valueOf(grams, 3));
+    }
+
+    public Money rateForKilograms(int zone, BigDecimal kilograms) {
+        if (kilograms == null) {
+            throw new IllegalArgumentException("Weight cannot be null");
+        }
+        if (kilograms.signum() < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        // brackets start on whole grams, so flooring the weight picks the same bracket
+        BigInteger grams = kilograms.movePointRight(3).setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+        long flooredGrams = grams.bitLength() < Long.SIZE ? grams.longValue() : Long.MAX_VALUE;
+        int bracket = bracketOf(zone, flooredGrams);
+
+        Money variable = Money.ofCents(ratePerKgCents[zone][bracket]).multiply(kilograms);
+        return Money.ofCents(baseFeeCents[zone][bracket]).add(variable);
+    }
+
+    private int bracketOf(int zone, long grams) {
+        long[] bounds = minimumGrams[zone];
+        int low = 0;
+        int high = bounds.length - 1;
+        // last bracket whose lower bound is <= grams; bounds[0] is always 0
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (bounds[mid] <= grams) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static long cents(Money money) {
+        if (!money.fitsInCents()) {
+            throw new IllegalArgumentException("Rate table amount is too large: " + money);
+        }
+        return money.getCentsExact();
+    }
+}
@@ -0,0 +1,18 @@
+package com.fawry.domain.model.shipping;
+
+import com.fawry.domain.model.valueobject.Money;
+import java.util.List;
+
+// freeShippingThreshold is null when the zone never ships for free.
+public record ShippingZone(String code, List<RateBracket> brackets, Money freeShippingThreshold) {
+    public ShippingZone {
+        if (code == null || code.trim().isEmpty()) {
+            throw new IllegalArgumentException("Zone code cannot be null or empty");
+        }
+        if (brackets == null || brackets.isEmpty()) {
+            throw new IllegalArgumentException("Zone must have at least one rate bracket");
+        }
+        code = code.trim();
+        brackets = List.copyOf(brackets);
+    }
+}
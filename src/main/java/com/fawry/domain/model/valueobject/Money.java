@@ -1,21 +1,36 @@
 package com.fawry.domain.model.valueobject;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
 
 public class Money {
-    public static final Money ZERO = new Money(BigDecimal.ZERO);
+    private static final int SCALE = 2;
+    private static final long CENTS_PER_UNIT = 100L;
 
-    private final BigDecimal amount;
+    public static final Money ZERO = new Money(0L, null);
+
+    // Amount in cents. Only meaningful when overflow is null.
+    private final long cents;
+    // Set only when the amount does not fit in a long count of cents.
+    private final BigDecimal overflow;
 
     public Money(BigDecimal amount) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
-        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+        if (amount.signum() < 0) {
             throw new IllegalArgumentException("Amount cannot be negative");
         }
-        this.amount = amount.setScale(2, RoundingMode.HALF_UP);
+        BigDecimal scaled = amount.setScale(SCALE, RoundingMode.HALF_UP);
+        BigInteger unscaled = scaled.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            this.cents = unscaled.longValue();
+            this.overflow = null;
+        } else {
+            this.cents = 0L;
+            this.overflow = scaled;
+        }
     }
 
     public Money(double amount) {
@@ -23,36 +38,85 @@ public class Money {
     }
 
     public Money(int amount) {
-        this(BigDecimal.valueOf(amount));
+        this(checkedCents(amount), null);
+    }
+
+    private Money(long cents, BigDecimal overflow) {
+        this.cents = cents;
+        this.overflow = overflow;
+    }
+
+    public static Money ofCents(long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+        return cents == 0 ? ZERO : new Money(cents, null);
+    }
+
+    private static long checkedCents(int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+        return amount * CENTS_PER_UNIT;
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return overflow != null ? overflow : BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public boolean fitsInCents() {
+        return overflow == null;
+    }
+
+    public long getCentsExact() {
+        if (overflow != null) {
+            throw new ArithmeticException("Amount does not fit in a long count of cents: " + overflow);
+        }
+        return cents;
     }
 
     public Money add(Money other) {
         if (other == null) {
             throw new IllegalArgumentException("Other money cannot be null");
         }
-        return new Money(this.amount.add(other.amount));
+        if (overflow == null && other.overflow == null) {
+            long sum = cents + other.cents;
+            // both operands are non-negative, so overflow shows up as a sign flip
+            if (sum >= 0) {
+                return new Money(sum, null);
+            }
+        }
+        return new Money(this.getAmount().add(other.getAmount()));
     }
 
     public Money subtract(Money other) {
         if (other == null) {
             throw new IllegalArgumentException("Other money cannot be null");
         }
-        BigDecimal result = this.amount.subtract(other.amount);
-        return new Money(result);
+        if (overflow == null && other.overflow == null) {
+            if (cents < other.cents) {
+                throw new IllegalArgumentException("Amount cannot be negative");
+            }
+            return new Money(cents - other.cents, null);
+        }
+        return new Money(this.getAmount().subtract(other.getAmount()));
     }
 
     public Money multiply(BigDecimal multiplier) {
         if (multiplier == null) {
             throw new IllegalArgumentException("Multiplier cannot be null");
         }
-        return new Money(this.amount.multiply(multiplier));
+        return new Money(this.getAmount().multiply(multiplier));
     }
 
     public Money multiply(int multiplier) {
+        if (overflow == null && multiplier >= 0) {
+            long high = Math.multiplyHigh(cents, multiplier);
+            long product = cents * multiplier;
+            if (high == 0 && product >= 0) {
+                return new Money(product, null);
+            }
+        }
         return multiply(BigDecimal.valueOf(multiplier));
     }
 
@@ -64,25 +128,32 @@ public class Money {
         if (other == null) {
             throw new IllegalArgumentException("Other money cannot be null");
         }
-        return this.amount.compareTo(other.amount) > 0;
+        return compare(other) > 0;
     }
 
     public boolean isGreaterThanOrEqual(Money other) {
         if (other == null) {
             throw new IllegalArgumentException("Other money cannot be null");
         }
-        return this.amount.compareTo(other.amount) >= 0;
+        return compare(other) >= 0;
     }
 
     public boolean isLessThan(Money other) {
         if (other == null) {
             throw new IllegalArgumentException("Other money cannot be null");
         }
-        return this.amount.compareTo(other.amount) < 0;
+        return compare(other) < 0;
     }
 
     public boolean isZero() {
-        return amount.compareTo(BigDecimal.ZERO) == 0;
+        return overflow == null && cents == 0;
+    }
+
+    private int compare(Money other) {
+        if (overflow == null && other.overflow == null) {
+            return Long.compare(cents, other.cents);
+        }
+        return getAmount().compareTo(other.getAmount());
     }
 
     @Override
@@ -92,16 +163,21 @@ public class Money {
         if (obj == null || getClass() != obj.getClass())
             return false;
         Money money = (Money) obj;
-        return amount.compareTo(money.amount) == 0;
+        return compare(money) == 0;
     }
 
     @Override
     public int hashCode() {
-        return amount.hashCode();
+        // amounts that fit in cents never use the overflow form, so equal values share a representation
+        return overflow != null ? overflow.hashCode() : Long.hashCode(cents);
     }
 
     @Override
     public String toString() {
-        return "$" + amount.toString();
+        if (overflow != null) {
+            return "$" + overflow.toString();
+        }
+        long fraction = cents % CENTS_PER_UNIT;
+        return "$" + (cents / CENTS_PER_UNIT) + (fraction < 10 ? ".0" : ".") + fraction;
     }
 }
@@ -6,8 +6,12 @@ import java.util.Objects;
 public class Weight {
     public static final Weight ZERO = new Weight(BigDecimal.ZERO);
 
+    private static final long NOT_WHOLE_GRAMS = -1L;
+
     private final BigDecimal amount;
     private final String unit;
+    // Kilogram amounts that are a whole number of grams, precomputed for the shipping fast path.
+    private final long grams;
 
     public Weight(BigDecimal amount, String unit) {
         if (amount == null) {
@@ -21,6 +25,22 @@ public class Weight {
         }
         this.amount = amount;
         this.unit = unit.trim();
+        this.grams = "kg".equals(this.unit) ? wholeGrams(amount) : NOT_WHOLE_GRAMS;
+    }
+
+    private static long wholeGrams(BigDecimal kilograms) {
+        BigDecimal grams = kilograms.movePointRight(3);
+        if (grams.signum() == 0) {
+            return 0L;
+        }
+        if (grams.stripTrailingZeros().scale() > 0) {
+            return NOT_WHOLE_GRAMS;
+        }
+        try {
+            return grams.longValueExact();
+        } catch (ArithmeticException e) {
+            return NOT_WHOLE_GRAMS;
+        }
     }
 
     public Weight(double amount, String unit) {
@@ -51,6 +71,18 @@ public class Weight {
         return unit;
     }
 
+    public boolean isWholeGrams() {
+        return grams != NOT_WHOLE_GRAMS;
+    }
+
+    // Whole grams of a kilogram weight; check isWholeGrams first.
+    public long getGramsExact() {
+        if (grams == NOT_WHOLE_GRAMS) {
+            throw new ArithmeticException("Weight is not a whole number of grams: " + this);
+        }
+        return grams;
+    }
+
     public Weight add(Weight other) {
         if (other == null) {
             throw new IllegalArgumentException("Other weight cannot be null");
@@ -1,34 +1,102 @@
 package com.fawry.domain.service;
 
 import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
 import com.fawry.domain.model.cart.ShippableItem;
+import com.fawry.domain.model.shipping.ShippingRateTable;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class ShippingService {
     private static final Money SHIPPING_RATE_PER_KG = new Money(10.0);
     private static final Money FREE_SHIPPING_THRESHOLD = new Money(16000.0);
 
-    public Money calculateShippingCost(List<ShippableItem> items) {
-        if (items == null || items.isEmpty()) {
-            return Money.ZERO;
+    // Replaced as a whole by updateRateTable; each quote reads it once, so it never
+    // mixes rates from two tables.
+    private volatile ShippingRateTable rateTable;
+
+    public ShippingService() {
+        this(ShippingRateTable.flat(SHIPPING_RATE_PER_KG, FREE_SHIPPING_THRESHOLD));
+    }
+
+    public ShippingService(ShippingRateTable rateTable) {
+        this.rateTable = requireRateTable(rateTable);
+    }
+
+    public void updateRateTable(ShippingRateTable rateTable) {
+        this.rateTable = requireRateTable(rateTable);
+    }
+
+    private static ShippingRateTable requireRateTable(ShippingRateTable rateTable) {
+        if (rateTable == null) {
+            throw new IllegalArgumentException("Rate table cannot be null");
         }
+        return rateTable;
+    }
 
-        double totalWeight = items.stream()
-                .mapToDouble(item -> item.getKilograms())
-                .sum();
+    public ShippingRateTable getRateTable() {
+        return rateTable;
+    }
 
-        return SHIPPING_RATE_PER_KG.multiply(totalWeight);
+    public Money calculateShippingCost(List<ShippableItem> items) {
+        ShippingRateTable table = rateTable;
+        return calculateShippingCost(table, table.indexOf(null), items);
     }
 
     public Money calculateShippingCostWithDiscounts(List<ShippableItem> items, Money orderSubtotal) {
+        return calculateShippingCostWithDiscounts(items, orderSubtotal, null);
+    }
+
+    // zone is a rate table zone code; null means the table's default zone
+    public Money calculateShippingCostWithDiscounts(List<ShippableItem> items, Money orderSubtotal, String zone) {
+        ShippingRateTable table = rateTable;
+        int zoneIndex = table.indexOf(zone);
+
         // Free shipping for large orders
-        if (orderSubtotal.isGreaterThanOrEqual(FREE_SHIPPING_THRESHOLD)) {
+        if (table.qualifiesForFreeShipping(zoneIndex, orderSubtotal)) {
             return Money.ZERO;
         }
 
-        return calculateShippingCost(items);
+        return calculateShippingCost(table, zoneIndex, items);
+    }
+
+    private Money calculateShippingCost(ShippingRateTable table, int zoneIndex, List<ShippableItem> items) {
+        if (items == null || items.isEmpty()) {
+            return Money.ZERO;
+        }
+
+        long totalGrams = totalWholeGrams(items);
+        if (totalGrams >= 0) {
+            return table.rateForGrams(zoneIndex, totalGrams);
+        }
+
+        BigDecimal totalWeight = items.stream()
+                .map(item -> item.getTotalWeight().getAmount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return table.rateForKilograms(zoneIndex, totalWeight);
+    }
+
+    // -1 when some weight is not a whole number of grams or the sum does not fit in a long
+    private static long totalWholeGrams(List<ShippableItem> items) {
+        long total = 0;
+        for (ShippableItem item : items) {
+            Weight weight = item.weight();
+            if (!weight.isWholeGrams()) {
+                return -1;
+            }
+            long grams = weight.getGramsExact();
+            long high = Math.multiplyHigh(grams, item.quantity());
+            long line = grams * item.quantity();
+            if (high != 0 || line < 0 || line > Long.MAX_VALUE - total) {
+                return -1;
+            }
+            total += line;
+        }
+        return total;
     }
 
     public void processShipment(List<ShippableItem> items) {
@@ -36,33 +104,49 @@ public class ShippingService {
             return;
         }
 
-        System.out.println("**   Shipment notice   **");
+        System.out.print(formatShipmentNotice(items));
+    }
+
+    public String formatShipmentNotice(List<ShippableItem> items) {
+        StringBuilder notice = new StringBuilder();
+        notice.append("**   Shipment notice   **").append(System.lineSeparator());
 
-        Map<String, List<ShippableItem>> groupedItems = items.stream()
-                .collect(Collectors.groupingBy(ShippableItem::name));
+        // lines sharing a name are printed together, using the first line's unit weight
+        Map<String, ShippableItem> groupedItems = new HashMap<>();
+        for (ShippableItem item : items) {
+            groupedItems.merge(item.name(), item,
+                    (first, next) -> first.withQuantity(first.quantity() + next.quantity()));
+        }
 
         double totalWeight = 0.0;
 
-        for (Map.Entry<String, List<ShippableItem>> entry : groupedItems.entrySet()) {
+        for (Map.Entry<String, ShippableItem> entry : groupedItems.entrySet()) {
             String itemName = entry.getKey();
-            List<ShippableItem> itemList = entry.getValue();
-            int quantity = itemList.size();
-            double itemWeight = itemList.get(0).getKilograms();
+            int quantity = entry.getValue().quantity();
+            double itemWeight = entry.getValue().getKilograms();
 
-            System.out.printf("%dx %-14s %8.0fg%n",
-                    quantity, itemName, itemWeight * 1000);
+            notice.append(String.format("%dx %-14s %8.0fg%n",
+                    quantity, itemName, itemWeight * 1000));
 
             totalWeight += itemWeight * quantity;
         }
 
-        System.out.printf("Total weight %.1fkg%n%n", totalWeight);
+        notice.append(String.format("Total weight %.1fkg%n%n", totalWeight));
+        return notice.toString();
     }
 
+    // Per-kg rate of the lightest bracket in the default zone.
     public Money getShippingRatePerKg() {
-        return SHIPPING_RATE_PER_KG;
+        ShippingRateTable table = rateTable;
+        return table.getZone(table.getDefaultZone()).brackets().stream()
+                .min(Comparator.comparing(bracket -> bracket.minimumWeight().getGramsExact()))
+                .orElseThrow()
+                .ratePerKg();
     }
 
+    // Free-shipping threshold of the default zone, or null if it has none.
     public Money getFreeShippingThreshold() {
-        return FREE_SHIPPING_THRESHOLD;
+        ShippingRateTable table = rateTable;
+        return table.getZone(table.getDefaultZone()).freeShippingThreshold();
     }
 }
@@ -0,0 +1,240 @@
+package com.fawry.infrastructure.cartstore;
+
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.CartStore;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.infrastructure.codec.BinaryCodec;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// Keeps only active shoppers' carts on the heap. A sweep parks every attached customer's
+// cart that has gone untouched for the idle threshold, and then, while more than
+// maxHotCarts remain, the least recently used ones. A parked cart is encoded as product
+// ids and quantities (BinaryCodec.encodeCartLines) into an off-heap arena, and the
+// customer drops its Cart; the next getCart rebuilds it against the live catalog through
+// products. Lines for products the catalog no longer has are gone after a restore.
+//
+// Carts holding stock reservations stay on the heap, since parking would have to give
+// the holds up, and so do carts too big for an arena record or arriving when the arena
+// is full, and pinned carts (Customer.pinCart), which are in use. Callers must not keep an
+// unpinned Cart reference across an idle period: getCart again.
+public class CartSessionStore implements CartStore, AutoCloseable {
+    private static final long DEFAULT_MAX_OFF_HEAP_BYTES = 256L << 20;
+    // Neither pass takes a cart accessed more recently than this, whatever the idle
+    // threshold: its caller may still be using the Cart it got.
+    private static final long GRACE_MILLIS = 1000;
+
+    private record Access(Customer customer, long stamp) {
+    }
+
+    private final Function<ProductId, Product> products;
+    private final long idleMillis;
+    private final int maxHotCarts;
+    private final Clock clock;
+    private final OffHeapArena arena;
+    private final Set<Customer> hot = ConcurrentHashMap.newKeySet();
+    // Only used by sweep, which is synchronized.
+    private final ByteBuffer scratch = ByteBuffer.allocate(OffHeapArena.MAX_RECORD);
+
+    private final AtomicLong parked = new AtomicLong();
+    private final AtomicLong parks = new AtomicLong();
+    private final AtomicLong restores = new AtomicLong();
+    private final AtomicLong keptOnHeap = new AtomicLong();
+    private Thread sweeper;
+    private volatile boolean closed;
+
+    public CartSessionStore(Function<ProductId, Product> products, long idleMillis, int maxHotCarts) {
+        this(products, idleMillis, maxHotCarts, DEFAULT_MAX_OFF_HEAP_BYTES, Clock.systemUTC());
+    }
+
+    public CartSessionStore(Function<ProductId, Product> products, long idleMillis,
+            int maxHotCarts, long maxOffHeapBytes, Clock clock) {
+        if (products == null || clock == null) {
+            throw new IllegalArgumentException("Product lookup and clock cannot be null");
+        }
+        if (idleMillis < 0 || maxHotCarts < 0) {
+            throw new IllegalArgumentException("Idle threshold and hot cart limit cannot be negative");
+        }
+        this.products = products;
+        this.idleMillis = idleMillis;
+        this.maxHotCarts = maxHotCarts;
+        this.clock = clock;
+        this.arena = new OffHeapArena(maxOffHeapBytes);
+    }
+
+    public void attach(Customer customer) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        customer.attachCartStore(this);
+        // a customer without a cart joins the hot set when its first cart is created
+        if (customer.hasCart() && !customer.isCartParked()) {
+            hot.add(customer);
+        }
+    }
+
+    // Sweeps every periodMillis on a daemon thread until close.
+    public synchronized void start(long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Sweep period must be positive");
+        }
+        if (sweeper != null || closed) {
+            throw new IllegalStateException("Cart sweeper already started or closed");
+        }
+        sweeper = new Thread(() -> {
+            while (!closed) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(periodMillis));
+                if (!closed) {
+                    sweep();
+                }
+            }
+        }, "cart-sweeper");
+        sweeper.setDaemon(true);
+        sweeper.start();
+    }
+
+    // Returns how many carts were parked.
+    public synchronized int sweep() {
+        long now = clock.millis();
+        long idleSince = now - Math.max(idleMillis, GRACE_MILLIS);
+        int count = 0;
+        for (Customer customer : hot) {
+            if (customer.getLastCartAccess() <= idleSince && park(customer, idleSince)) {
+                count++;
+            }
+        }
+        int excess = hot.size() - maxHotCarts;
+        if (excess > 0) {
+            // approximate LRU: access stamps as of now; a customer touched since is skipped,
+            // and so is one touched within the grace period
+            long graceSince = now - GRACE_MILLIS;
+            List<Access> oldestFirst = new ArrayList<>(hot.size());
+            for (Customer customer : hot) {
+                long stamp = customer.getLastCartAccess();
+                if (stamp <= graceSince) {
+                    oldestFirst.add(new Access(customer, stamp));
+                }
+            }
+            oldestFirst.sort(Comparator.comparingLong(Access::stamp));
+            for (int i = 0; i < oldestFirst.size() && excess > 0; i++) {
+                Access access = oldestFirst.get(i);
+                if (park(access.customer(), access.stamp())) {
+                    count++;
+                    excess--;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long currentTick() {
+        return clock.millis();
+    }
+
+    @Override
+    public void restore(Customer customer, long handle, Cart cart) {
+        if (handle != NOT_PARKED) {
+            if (handle != EMPTY) {
+                BinaryCodec.decodeCartLines(arena.read(handle), cart, products);
+                arena.free(handle);
+            }
+            parked.decrementAndGet();
+            restores.incrementAndGet();
+        }
+        hot.add(customer);
+    }
+
+    public int hotCount() {
+        return hot.size();
+    }
+
+    public long parkedCount() {
+        return parked.get();
+    }
+
+    public long parkCount() {
+        return parks.get();
+    }
+
+    public long restoreCount() {
+        return restores.get();
+    }
+
+    // Idle carts a sweep left on the heap: holding stock, too big, or the arena was full.
+    public long keptOnHeapCount() {
+        return keptOnHeap.get();
+    }
+
+    public long offHeapUsedBytes() {
+        return arena.usedBytes();
+    }
+
+    public long offHeapReservedBytes() {
+        return arena.reservedBytes();
+    }
+
+    // Stops the sweeper. Parked carts stay restorable.
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            closed = true;
+            thread = sweeper;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean park(Customer customer, long idleSince) {
+        return customer.parkCart(idleSince, cart -> spill(customer, cart));
+    }
+
+    // Runs with the customer's lock held.
+    private long spill(Customer customer, Cart cart) {
+        long handle = EMPTY;
+        if (!cart.isEmpty()) {
+            for (CartItem item : cart.getItems()) {
+                if (item.getHold() != null) {
+                    keptOnHeap.incrementAndGet();
+                    return NOT_PARKED;
+                }
+            }
+            scratch.clear();
+            try {
+                BinaryCodec.encodeCartLines(scratch, cart);
+            } catch (BufferOverflowException e) {
+                keptOnHeap.incrementAndGet();
+                return NOT_PARKED;
+            }
+            handle = arena.write(scratch.flip());
+            if (handle < 0) {
+                keptOnHeap.incrementAndGet();
+                return NOT_PARKED;
+            }
+        }
+        hot.remove(customer);
+        parked.incrementAndGet();
+        parks.incrementAndGet();
+        return handle;
+    }
+}
@@ -0,0 +1,131 @@
+package com.fawry.infrastructure.cartstore;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Variable-length byte records in direct memory, outside the Java heap.
+//
+// Memory comes in fixed-size direct chunks, allocated as needed up to a byte limit. A
+// record takes a block from one of a few power-of-two size classes (32 B to 64 KB) with
+// a 4-byte length in front; freed blocks go on their class's free list and are reused
+// before the current chunk is cut any further. A record is named by a handle:
+//
+//   bits 56-62  size class + 1 (so a handle is never 0 or negative)
+//   bits 32-55  chunk index
+//   bits 0-31   block offset in the chunk
+final class OffHeapArena {
+    static final int MAX_RECORD = (1 << 16) - Integer.BYTES;
+    private static final int MIN_BLOCK_SHIFT = 5;
+    private static final int SIZE_CLASSES = 12;
+    private static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+    private final int chunkSize;
+    private final int maxChunks;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final long[][] freeBlocks = new long[SIZE_CLASSES][];
+    private final int[] freeCounts = new int[SIZE_CLASSES];
+    private int chunkTop;
+    private long usedBytes;
+
+    OffHeapArena(long maxBytes) {
+        this(maxBytes, DEFAULT_CHUNK_SIZE);
+    }
+
+    OffHeapArena(long maxBytes, int chunkSize) {
+        if (chunkSize < blockSize(SIZE_CLASSES - 1) || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("Chunk size must be a power of two of at least 64 KB");
+        }
+        if (maxBytes < chunkSize) {
+            throw new IllegalArgumentException("Arena must hold at least one chunk");
+        }
+        this.chunkSize = chunkSize;
+        this.maxChunks = (int) Math.min(maxBytes / chunkSize, 1 << 24);
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            freeBlocks[i] = new long[16];
+        }
+        this.chunkTop = chunkSize;
+    }
+
+    // Copies the remaining bytes of record in and returns its handle, or -1 when the
+    // record is too big or the arena is full.
+    synchronized long write(ByteBuffer record) {
+        int length = record.remaining();
+        if (length > MAX_RECORD) {
+            return -1;
+        }
+        int sizeClass = sizeClass(length + Integer.BYTES);
+        long handle = allocate(sizeClass);
+        if (handle < 0) {
+            return -1;
+        }
+        ByteBuffer chunk = chunks.get(chunkIndex(handle));
+        int offset = offset(handle);
+        chunk.putInt(offset, length);
+        chunk.put(offset + Integer.BYTES, record, record.position(), length);
+        record.position(record.limit());
+        usedBytes += blockSize(sizeClass);
+        return handle;
+    }
+
+    // A view of the record's bytes; only valid until the handle is freed.
+    synchronized ByteBuffer read(long handle) {
+        ByteBuffer chunk = chunks.get(chunkIndex(handle));
+        int offset = offset(handle);
+        return chunk.slice(offset + Integer.BYTES, chunk.getInt(offset));
+    }
+
+    synchronized void free(long handle) {
+        int sizeClass = (int) (handle >>> 56) - 1;
+        if (freeCounts[sizeClass] == freeBlocks[sizeClass].length) {
+            freeBlocks[sizeClass] = Arrays.copyOf(freeBlocks[sizeClass], freeCounts[sizeClass] * 2);
+        }
+        freeBlocks[sizeClass][freeCounts[sizeClass]++] = handle;
+        usedBytes -= blockSize(sizeClass);
+    }
+
+    // Bytes in live records' blocks, and direct memory reserved for chunks.
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    synchronized long reservedBytes() {
+        return (long) chunks.size() * chunkSize;
+    }
+
+    private long allocate(int sizeClass) {
+        if (freeCounts[sizeClass] > 0) {
+            return freeBlocks[sizeClass][--freeCounts[sizeClass]];
+        }
+        int size = blockSize(sizeClass);
+        if (chunkTop + size > chunkSize) {
+            // the rest of the current chunk is given up; blocks never straddle chunks
+            if (chunks.size() == maxChunks) {
+                return -1;
+            }
+            chunks.add(ByteBuffer.allocateDirect(chunkSize));
+            chunkTop = 0;
+        }
+        long handle = ((long) (sizeClass + 1) << 56) | ((long) (chunks.size() - 1) << 32) | chunkTop;
+        chunkTop += size;
+        return handle;
+    }
+
+    private static int sizeClass(int blockBytes) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(blockBytes, 1 << MIN_BLOCK_SHIFT) - 1);
+        return shift - MIN_BLOCK_SHIFT;
+    }
+
+    private static int blockSize(int sizeClass) {
+        return 1 << (sizeClass + MIN_BLOCK_SHIFT);
+    }
+
+    private static int chunkIndex(long handle) {
+        return (int) (handle >>> 32) & 0xFF_FFFF;
+    }
+
+    private static int offset(long handle) {
+        return (int) handle;
+    }
+}
@@ -0,0 +1,381 @@
+package com.fawry.infrastructure.codec;
+
+import com.fawry.application.CheckoutResult;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.product.ExpirableProduct;
+import com.fawry.domain.model.product.ExpirableShippableProduct;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.product.ShippableProduct;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+// Compact binary form of products, carts and checkout results, read and written in place
+// on a ByteBuffer (heap or direct). Every top-level value starts with a version byte and a
+// kind byte; decoding rejects versions and kinds it doesn't know.
+//
+//   product   type tag, id (2 x 8 bytes), name, price, quantity, then weight and/or
+//             expiration day depending on the tag
+//   cart      line count, then per line: product, quantity
+//   result    line count + 1 (0 = no lines recorded), lines as in a cart, then subtotal,
+//             shipping cost, total and remaining balance
+//   cart refs line count, then per line: product id (2 x 8 bytes), quantity; for carts
+//             whose products are looked up again on decode rather than carried along
+//
+// Counts, quantities and lengths are unsigned LEB128 varints. Money is its cent count
+// shifted left one bit; amounts too big for that set the low bit and follow with the
+// unscaled value's bytes. Weights are a unit ("kg" costs one byte) and a decimal: zigzag
+// scale plus unscaled value in the same form as money. Dates are zigzag epoch days.
+// Strings are UTF-8 with a varint byte length; from heap buffers they are decoded straight
+// out of the backing array.
+//
+// Encoding throws BufferOverflowException when out has no room left, and decoding
+// BufferUnderflowException on truncated input; either way the buffer position is left
+// wherever the failure happened. Stock holds are not part of a cart's encoding.
+public final class BinaryCodec {
+    public static final int VERSION = 1;
+
+    private static final byte KIND_PRODUCT = 1;
+    private static final byte KIND_CART = 2;
+    private static final byte KIND_CHECKOUT_RESULT = 3;
+    private static final byte KIND_CART_REFS = 4;
+
+    private static final byte TAG_STANDARD = 0;
+    private static final byte TAG_SHIPPABLE = 1;
+    private static final byte TAG_EXPIRABLE = 2;
+    private static final byte TAG_EXPIRABLE_SHIPPABLE = 3;
+
+    private static final int MONEY_SCALE = 2;
+    // Cent counts up to this size fit the shifted form
+    private static final long MAX_INLINE = Long.MAX_VALUE >>> 1;
+    private static final int MAX_VARINT_BYTES = 10;
+    private static final String KILOGRAMS = "kg";
+
+    private BinaryCodec() {
+    }
+
+    public static void encode(ByteBuffer out, Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        putHeader(out, KIND_PRODUCT);
+        putProduct(out, product);
+    }
+
+    public static void encode(ByteBuffer out, Cart cart) {
+        if (cart == null) {
+            throw new IllegalArgumentException("Cart cannot be null");
+        }
+        putHeader(out, KIND_CART);
+        putLines(out, cart.getItems(), 0);
+    }
+
+    public static void encode(ByteBuffer out, CheckoutResult result) {
+        if (result == null) {
+            throw new IllegalArgumentException("Checkout result cannot be null");
+        }
+        putHeader(out, KIND_CHECKOUT_RESULT);
+        if (result.purchasedItems() == null) {
+            putVarLong(out, 0);
+        } else {
+            putLines(out, result.purchasedItems(), 1);
+        }
+        putMoney(out, result.subtotal());
+        putMoney(out, result.shippingCost());
+        putMoney(out, result.total());
+        putMoney(out, result.remainingBalance());
+    }
+
+    // Writes only the product ids and quantities of cart's lines; see decodeCartLines.
+    public static void encodeCartLines(ByteBuffer out, Cart cart) {
+        if (cart == null) {
+            throw new IllegalArgumentException("Cart cannot be null");
+        }
+        putHeader(out, KIND_CART_REFS);
+        Collection<CartItem> items = cart.getItems();
+        putVarLong(out, items.size());
+        for (CartItem item : items) {
+            ProductId id = item.getProduct().getProductId();
+            putLong(out, id.getMostSignificantBits());
+            putLong(out, id.getLeastSignificantBits());
+            putVarLong(out, item.getQuantity());
+        }
+    }
+
+    // Adds the lines written by encodeCartLines to into, looking each product up through
+    // products. Lines whose product it no longer knows (null) are dropped.
+    public static void decodeCartLines(ByteBuffer in, Cart into, Function<ProductId, Product> products) {
+        if (into == null || products == null) {
+            throw new IllegalArgumentException("Cart and product lookup cannot be null");
+        }
+        checkHeader(in, KIND_CART_REFS);
+        int lines = getCount(in);
+        for (int i = 0; i < lines; i++) {
+            ProductId id = new ProductId(getLong(in), getLong(in));
+            int quantity = getCount(in);
+            Product product = products.apply(id);
+            if (product != null && quantity > 0) {
+                into.addItem(product, quantity);
+            }
+        }
+    }
+
+    public static Product decodeProduct(ByteBuffer in) {
+        checkHeader(in, KIND_PRODUCT);
+        return getProduct(in);
+    }
+
+    public static Cart decodeCart(ByteBuffer in) {
+        checkHeader(in, KIND_CART);
+        int lines = getCount(in);
+        Cart cart = new Cart();
+        for (int i = 0; i < lines; i++) {
+            Product product = getProduct(in);
+            cart.addItem(product, getCount(in));
+        }
+        return cart;
+    }
+
+    public static CheckoutResult decodeCheckoutResult(ByteBuffer in) {
+        checkHeader(in, KIND_CHECKOUT_RESULT);
+        int linesPlusOne = getCount(in);
+        List<CartItem> items = null;
+        if (linesPlusOne > 0) {
+            items = new ArrayList<>(linesPlusOne - 1);
+            for (int i = 0; i < linesPlusOne - 1; i++) {
+                Product product = getProduct(in);
+                items.add(new CartItem(product, getCount(in)));
+            }
+        }
+        return new CheckoutResult(items, getMoney(in), getMoney(in), getMoney(in), getMoney(in));
+    }
+
+    private static void putHeader(ByteBuffer out, byte kind) {
+        out.put((byte) VERSION).put(kind);
+    }
+
+    private static void checkHeader(ByteBuffer in, byte kind) {
+        int version = in.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported codec version " + version);
+        }
+        byte actual = in.get();
+        if (actual != kind) {
+            throw new IllegalArgumentException("Expected value kind " + kind + " but found " + actual);
+        }
+    }
+
+    private static void putLines(ByteBuffer out, Collection<CartItem> items, int countOffset) {
+        putVarLong(out, items.size() + (long) countOffset);
+        for (CartItem item : items) {
+            putProduct(out, item.getProduct());
+            putVarLong(out, item.getQuantity());
+        }
+    }
+
+    private static void putProduct(ByteBuffer out, Product product) {
+        byte tag = switch (product) {
+            case ExpirableShippableProduct p -> TAG_EXPIRABLE_SHIPPABLE;
+            case ExpirableProduct p -> TAG_EXPIRABLE;
+            case ShippableProduct p -> TAG_SHIPPABLE;
+            case StandardProduct p -> TAG_STANDARD;
+            default -> throw new IllegalArgumentException("No codec for product type " + product.getClass().getName());
+        };
+        out.put(tag);
+        ProductId id = product.getProductId();
+        putLong(out, id.getMostSignificantBits());
+        putLong(out, id.getLeastSignificantBits());
+        putString(out, product.getName());
+        putMoney(out, product.getPrice());
+        putVarLong(out, product.getQuantity());
+
+        switch (product) {
+            case ExpirableShippableProduct p -> {
+                putWeight(out, p.getWeight());
+                putDate(out, p.getExpirationDate());
+            }
+            case ExpirableProduct p -> putDate(out, p.getExpirationDate());
+            case ShippableProduct p -> putWeight(out, p.getWeight());
+            default -> {
+            }
+        }
+    }
+
+    private static Product getProduct(ByteBuffer in) {
+        byte tag = in.get();
+        ProductId id = new ProductId(getLong(in), getLong(in));
+        String name = getString(in);
+        Money price = getMoney(in);
+        int quantity = getCount(in);
+        return switch (tag) {
+            case TAG_STANDARD -> new StandardProduct(id, name, price, quantity);
+            case TAG_SHIPPABLE -> new ShippableProduct(id, name, price, quantity, getWeight(in));
+            case TAG_EXPIRABLE -> new ExpirableProduct(id, name, price, quantity, getDate(in));
+            case TAG_EXPIRABLE_SHIPPABLE -> {
+                Weight weight = getWeight(in);
+                yield new ExpirableShippableProduct(id, name, price, quantity, weight, getDate(in));
+            }
+            default -> throw new IllegalArgumentException("Unknown product type tag " + tag);
+        };
+    }
+
+    private static void putMoney(ByteBuffer out, Money money) {
+        if (money.fitsInCents() && money.getCentsExact() <= MAX_INLINE) {
+            putVarLong(out, money.getCentsExact() << 1);
+        } else {
+            putVarLong(out, 1);
+            putBytes(out, money.getAmount().setScale(MONEY_SCALE).unscaledValue().toByteArray());
+        }
+    }
+
+    private static Money getMoney(ByteBuffer in) {
+        long value = getVarLong(in);
+        if ((value & 1) == 0) {
+            return Money.ofCents(value >>> 1);
+        }
+        return new Money(new BigDecimal(new BigInteger(getBytes(in)), MONEY_SCALE));
+    }
+
+    private static void putWeight(ByteBuffer out, Weight weight) {
+        // 0 stands for kilograms; any other unit is written as its length + 1 and its bytes
+        if (KILOGRAMS.equals(weight.getUnit())) {
+            putVarLong(out, 0);
+        } else {
+            byte[] unit = weight.getUnit().getBytes(StandardCharsets.UTF_8);
+            putVarLong(out, unit.length + 1L);
+            out.put(unit);
+        }
+        BigDecimal amount = weight.getAmount();
+        putVarLong(out, zigzag(amount.scale()));
+        BigInteger unscaled = amount.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE - 1) {
+            putVarLong(out, unscaled.longValue() << 1);
+        } else {
+            putVarLong(out, 1);
+            putBytes(out, unscaled.toByteArray());
+        }
+    }
+
+    private static Weight getWeight(ByteBuffer in) {
+        int unitLengthPlusOne = getCount(in);
+        String unit = unitLengthPlusOne == 0 ? KILOGRAMS : getString(in, unitLengthPlusOne - 1);
+        int scale = (int) unzigzag(getVarLong(in));
+        long value = getVarLong(in);
+        BigDecimal amount = (value & 1) == 0
+                ? BigDecimal.valueOf(value >>> 1, scale)
+                : new BigDecimal(new BigInteger(getBytes(in)), scale);
+        return new Weight(amount, unit);
+    }
+
+    private static void putDate(ByteBuffer out, LocalDate date) {
+        putVarLong(out, zigzag(date.toEpochDay()));
+    }
+
+    private static LocalDate getDate(ByteBuffer in) {
+        return LocalDate.ofEpochDay(unzigzag(getVarLong(in)));
+    }
+
+    // ASCII, by far the common case, is copied char by char with no intermediate array.
+    private static void putString(ByteBuffer out, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                putBytes(out, value.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        putVarLong(out, length);
+        for (int i = 0; i < length; i++) {
+            out.put((byte) value.charAt(i));
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        return getString(in, getCount(in));
+    }
+
+    private static String getString(ByteBuffer in, int length) {
+        if (in.hasArray()) {
+            int offset = in.arrayOffset() + in.position();
+            if (length > in.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            in.position(in.position() + length);
+            return new String(in.array(), offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer out, byte[] bytes) {
+        putVarLong(out, bytes.length);
+        out.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer in) {
+        byte[] bytes = new byte[getCount(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    // Ids are always big-endian, whatever order the buffer is set to.
+    private static void putLong(ByteBuffer out, long value) {
+        out.putLong(out.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value));
+    }
+
+    private static long getLong(ByteBuffer in) {
+        long value = in.getLong();
+        return in.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than " + MAX_VARINT_BYTES + " bytes");
+    }
+
+    // A varint that must fit a non-negative int: counts, quantities and lengths.
+    private static int getCount(ByteBuffer in) {
+        long value = getVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Count out of range: " + Long.toUnsignedString(value));
+        }
+        return (int) value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,108 @@
+package com.fawry.infrastructure.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A bounded queue drained by one daemon thread, which hands whatever has piled up to
+// the handler as one batch. Producers only enqueue, and wait for the thread when the
+// queue is full. close() stops new submissions and returns once everything accepted
+// has been handled; a submit racing close() is either rejected or handled, never lost.
+public class BatchDispatcher<T> implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_MAX_BATCH = 256;
+    private static final long POLL_MILLIS = 50;
+
+    @FunctionalInterface
+    public interface Handler<T> {
+        // The list is reused once this returns. Interrupting stops the dispatcher.
+        void handle(List<T> batch) throws InterruptedException;
+    }
+
+    private final BlockingQueue<T> queue;
+    private final int maxBatch;
+    private final Handler<T> handler;
+    private final String name;
+    private final Thread thread;
+    // submits past the closed check that haven't finished enqueueing yet
+    private final AtomicInteger submitting = new AtomicInteger();
+    private volatile boolean closed;
+
+    // name is used in error messages, e.g. "Shipment outbox is closed".
+    public BatchDispatcher(String name, String threadName, int capacity, int maxBatch, Handler<T> handler) {
+        if (capacity <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("Handler cannot be null");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.handler = handler;
+        this.name = name;
+        this.thread = new Thread(this::run, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Throws IllegalStateException if the dispatcher is closed or the caller is
+    // interrupted while waiting for room.
+    public void submit(T item) {
+        submitting.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException(name + " is closed");
+            }
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing for " + name, e);
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(maxBatch);
+        // a submit counted in submitting has its item queued by the time it leaves
+        while (!closed || submitting.get() > 0 || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                handler.handle(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println(name + " batch failed: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
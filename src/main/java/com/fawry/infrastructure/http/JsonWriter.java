@@ -0,0 +1,203 @@
+package com.fawry.infrastructure.http;
+
+import com.fawry.domain.model.valueobject.Money;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+// Streaming JSON writer. Tokens go straight to the underlying Writer as they are written;
+// the only state kept is, per open container, whether it is an object and whether it
+// already has a member, so commas can be placed and misplaced names caught. Money is
+// written from its cent count without going through BigDecimal.
+public final class JsonWriter {
+    private static final int MAX_DEPTH = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final boolean[] inObject = new boolean[MAX_DEPTH];
+    private final boolean[] hasMember = new boolean[MAX_DEPTH];
+    private final char[] digits = new char[20];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(Writer out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Writer cannot be null");
+        }
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        open('{');
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        close('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        open('[');
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        close(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        if (depth == 0 || !inObject[depth - 1] || afterName) {
+            throw new IllegalStateException("Name outside an object: " + name);
+        }
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter value(BigDecimal value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        out.write(value.toPlainString());
+        return this;
+    }
+
+    // Written as a number with two decimals, e.g. 15040.50
+    public JsonWriter value(Money value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        if (!value.fitsInCents()) {
+            out.write(value.getAmount().toPlainString());
+            return this;
+        }
+        long cents = value.getCentsExact();
+        writeLong(cents / 100);
+        out.write('.');
+        int fraction = (int) (cents % 100);
+        out.write('0' + fraction / 10);
+        out.write('0' + fraction % 10);
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void open(char bracket) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested deeper than " + MAX_DEPTH);
+        }
+        beforeValue();
+        out.write(bracket);
+        inObject[depth] = bracket == '{';
+        hasMember[depth++] = false;
+    }
+
+    private void close(char bracket) throws IOException {
+        if (depth == 0 || inObject[depth - 1] != (bracket == '}') || afterName) {
+            throw new IllegalStateException("Unbalanced '" + bracket + "'");
+        }
+        depth--;
+        out.write(bracket);
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0 && inObject[depth - 1]) {
+            throw new IllegalStateException("Value in an object needs a name first");
+        }
+        separate();
+    }
+
+    private void separate() throws IOException {
+        if (depth > 0) {
+            if (hasMember[depth - 1]) {
+                out.write(',');
+            }
+            hasMember[depth - 1] = true;
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value));
+            return;
+        }
+        boolean negative = value < 0;
+        long remaining = negative ? -value : value;
+        int position = digits.length;
+        do {
+            digits[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (negative) {
+            digits[--position] = '-';
+        }
+        out.write(digits, position, digits.length - position);
+    }
+
+    // Copies runs of characters that need no escaping in one write.
+    private void string(String value) throws IOException {
+        out.write('"');
+        int run = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.write(value, run, i - run);
+            run = i + 1;
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    out.write("\\u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+                }
+            }
+        }
+        out.write(value, run, value.length() - run);
+        out.write('"');
+    }
+}
@@ -0,0 +1,443 @@
+package com.fawry.infrastructure.http;
+
+import com.fawry.application.CheckoutOutcome;
+import com.fawry.application.CheckoutService;
+import com.fawry.application.CustomerRegistry;
+import com.fawry.application.OrderCommitter;
+import com.fawry.application.ProductCatalog;
+import com.fawry.application.ProductFactory;
+import com.fawry.domain.exception.DomainException;
+import com.fawry.domain.exception.InsufficientStockException;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.ExpiryIndex;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import com.fawry.domain.service.ShippingService;
+import com.fawry.infrastructure.inventory.ShardedOrderCommitter;
+import com.fawry.infrastructure.metrics.CheckoutMetricsRegistry;
+import com.fawry.infrastructure.shipment.FileShipmentSink;
+import com.fawry.infrastructure.shipment.ShipmentOutbox;
+import com.fawry.infrastructure.shipment.ShipmentSink;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+// HTTP front end on the JDK's built-in server, one virtual thread per request. Parameters
+// come from the query string or a form-encoded body; every response is JSON.
+//
+//   GET    /products?prefix=&limit=                  catalog search by name prefix
+//   GET    /products/{id}
+//   POST   /customers              name, balance     register a customer
+//   GET    /customers/{name}
+//   GET    /customers/{name}/cart
+//   POST   /customers/{name}/cart/items              productId, quantity
+//   PUT    /customers/{name}/cart/items/{productId}  quantity
+//   DELETE /customers/{name}/cart/items/{productId}
+//   GET    /customers/{name}/quote                   subtotal, shipping and total, nothing committed
+//   POST   /customers/{name}/checkout                200 with the receipt, 409 with the rejection
+//
+// Customers live in a CustomerRegistry. A cart is not thread-safe, so requests for the same
+// customer take turns on a lock stripe picked by name; requests for other customers mostly
+// run in parallel. Each request pins the cart it works on, so a cart store never parks it
+// mid-request, and reads of an empty cart (GET cart, quote, checkout) never create one.
+public class ShopHttpServer implements AutoCloseable {
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 1000;
+    private static final int RESPONSE_BUFFER = 8192;
+    private static final int CUSTOMER_LOCK_STRIPES = 1024;
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        void serve(HttpExchange exchange, String[] path, Map<String, String> params) throws IOException;
+    }
+
+    // Ends a request with the given status; never logged, so it carries no stack trace.
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    private final ProductCatalog catalog;
+    private final CheckoutService checkoutService;
+    private final ShippingService shippingService;
+    private final CustomerRegistry customers;
+    private final ReentrantLock[] customerLocks = new ReentrantLock[CUSTOMER_LOCK_STRIPES];
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShopHttpServer(InetSocketAddress address, ProductCatalog catalog, CheckoutService checkoutService,
+            ShippingService shippingService) throws IOException {
+        this(address, catalog, checkoutService, shippingService, new CustomerRegistry());
+    }
+
+    public ShopHttpServer(InetSocketAddress address, ProductCatalog catalog, CheckoutService checkoutService,
+            ShippingService shippingService, CustomerRegistry customers) throws IOException {
+        if (address == null || catalog == null || checkoutService == null || shippingService == null
+                || customers == null) {
+            throw new IllegalArgumentException(
+                    "Address, catalog, checkout service, shipping service and customers cannot be null");
+        }
+        this.catalog = catalog;
+        this.checkoutService = checkoutService;
+        this.shippingService = shippingService;
+        this.customers = customers;
+        for (int i = 0; i < customerLocks.length; i++) {
+            customerLocks[i] = new ReentrantLock();
+        }
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/products", exchange -> handle(exchange, this::products));
+        server.createContext("/customers", exchange -> handle(exchange, this::customers));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public Customer addCustomer(String name, Money balance) {
+        return customers.register(name, balance);
+    }
+
+    // Returns null for an unknown name.
+    public Customer getCustomer(String name) {
+        return customers.get(name);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange, Route route) {
+        try (exchange) {
+            try {
+                String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+                route.serve(exchange, path, params(exchange));
+            } catch (HttpError e) {
+                fail(exchange, e.status, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                fail(exchange, 400, e.getMessage());
+            } catch (DomainException e) {
+                fail(exchange, 409, e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("Request " + exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                        + " failed: " + e);
+                fail(exchange, 500, "Internal error");
+            }
+        } catch (IOException e) {
+            // the client went away; nothing left to tell it
+        }
+    }
+
+    private void products(HttpExchange exchange, String[] path, Map<String, String> params) throws IOException {
+        requireMethod(exchange, "GET");
+        if (path.length == 1) {
+            String prefix = params.getOrDefault("prefix", "");
+            int limit = Math.min(intParam(params, "limit", DEFAULT_SEARCH_LIMIT), MAX_SEARCH_LIMIT);
+            List<Product> matches = catalog.findByNamePrefix(prefix, limit);
+            send(exchange, 200, json -> ShopJson.products(json, matches));
+        } else if (path.length == 2) {
+            Product product = product(path[1]);
+            send(exchange, 200, json -> ShopJson.product(json, product));
+        } else {
+            throw new HttpError(404, "No such resource");
+        }
+    }
+
+    private void customers(HttpExchange exchange, String[] path, Map<String, String> params) throws IOException {
+        if (path.length == 1) {
+            requireMethod(exchange, "POST");
+            Customer customer = new Customer(required(params, "name"), new Money(decimalParam(params, "balance")));
+            // the check and the insert are one step, so racing registrations all see 409 but one
+            if (customers.putIfAbsent(customer) != customer) {
+                throw new HttpError(409, "Customer already exists: " + customer.getName());
+            }
+            send(exchange, 201, json -> ShopJson.customer(json, customer));
+            return;
+        }
+
+        Customer customer = customer(path[1]);
+        ReentrantLock lock = lockFor(customer);
+        lock.lock();
+        try {
+            serveCustomer(exchange, customer, path, params);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void serveCustomer(HttpExchange exchange, Customer customer, String[] path, Map<String, String> params)
+            throws IOException {
+        String resource = path.length == 2 ? "" : path[2];
+        switch (resource) {
+            case "" -> {
+                requireMethod(exchange, "GET");
+                send(exchange, 200, json -> ShopJson.customer(json, customer));
+            }
+            case "cart" -> {
+                if (path.length == 3 && customer.isCartEmpty()) {
+                    requireMethod(exchange, "GET");
+                    send(exchange, 200, ShopJson::emptyCart);
+                    return;
+                }
+                Cart cart = customer.pinCart();
+                try {
+                    serveCart(exchange, cart, path, params);
+                } finally {
+                    customer.unpinCart();
+                }
+            }
+            case "quote" -> {
+                requireMethod(exchange, "GET");
+                if (customer.isCartEmpty()) {
+                    Money shipping = shippingService.calculateShippingCostWithDiscounts(List.of(), Money.ZERO);
+                    send(exchange, 200, json -> ShopJson.quote(json, Money.ZERO, shipping, customer.getBalance()));
+                    return;
+                }
+                Cart cart = customer.pinCart();
+                try {
+                    Money subtotal = cart.calculateSubtotal();
+                    Money shipping = shippingService.calculateShippingCostWithDiscounts(
+                            cart.getShippableItems(), subtotal);
+                    send(exchange, 200, json -> ShopJson.quote(json, subtotal, shipping, customer.getBalance()));
+                } finally {
+                    customer.unpinCart();
+                }
+            }
+            case "checkout" -> {
+                requireMethod(exchange, "POST");
+                CheckoutOutcome outcome = checkoutService.tryCheckout(customer);
+                switch (outcome) {
+                    case CheckoutOutcome.Completed completed ->
+                            send(exchange, 200, json -> ShopJson.checkoutResult(json, completed.result()));
+                    case CheckoutOutcome.Rejected rejected ->
+                            send(exchange, 409, json -> ShopJson.rejection(json, rejected));
+                }
+            }
+            default -> throw new HttpError(404, "No such resource");
+        }
+    }
+
+    private void serveCart(HttpExchange exchange, Cart cart, String[] path, Map<String, String> params)
+            throws IOException {
+        if (path.length == 3) {
+            requireMethod(exchange, "GET");
+        } else if (path.length == 4 && path[3].equals("items")) {
+            requireMethod(exchange, "POST");
+            Product product = product(required(params, "productId"));
+            int quantity = intParam(params, "quantity", 1);
+            int inCart = cart.containsProduct(product.getProductId())
+                    ? cart.getItem(product.getProductId()).getQuantity()
+                    : 0;
+            if (quantity > 0 && !product.isAvailable(inCart + quantity)) {
+                throw new InsufficientStockException(product.getName(), inCart + quantity, product.getQuantity());
+            }
+            cart.addItem(product, quantity);
+        } else if (path.length == 5 && path[3].equals("items")) {
+            ProductId productId = new ProductId(path[4]);
+            if (!cart.containsProduct(productId)) {
+                throw new HttpError(404, "Product not in cart: " + productId);
+            }
+            if (exchange.getRequestMethod().equals("PUT")) {
+                cart.updateItemQuantity(productId, intParam(params, "quantity", 0));
+            } else {
+                requireMethod(exchange, "DELETE");
+                cart.removeItem(productId);
+            }
+        } else {
+            throw new HttpError(404, "No such resource");
+        }
+        send(exchange, 200, json -> ShopJson.cart(json, cart));
+    }
+
+    private Customer customer(String name) {
+        Customer customer = customers.get(name);
+        if (customer == null) {
+            throw new HttpError(404, "Customer not found: " + name);
+        }
+        return customer;
+    }
+
+    private ReentrantLock lockFor(Customer customer) {
+        int hash = customer.getName().hashCode();
+        return customerLocks[(hash ^ (hash >>> 16)) & (customerLocks.length - 1)];
+    }
+
+    private Product product(String id) {
+        ProductId productId = new ProductId(id);
+        return catalog.findById(productId)
+                .orElseThrow(() -> new HttpError(404, "Product not found: " + productId));
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new HttpError(405, "Method not allowed: " + exchange.getRequestMethod());
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " is not an integer: " + value);
+        }
+    }
+
+    private static BigDecimal decimalParam(Map<String, String> params, String name) {
+        String value = required(params, name);
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " is not a number: " + value);
+        }
+    }
+
+    // Query string parameters, then form body parameters on top.
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readAllBytes();
+            if (bytes.length > 0) {
+                parseForm(new String(bytes, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    // Streams the body with chunked encoding; the JSON is never held in memory as a whole.
+    private static void send(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), RESPONSE_BUFFER)) {
+            body.write(new JsonWriter(writer));
+        }
+    }
+
+    private static void fail(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            // headers are out already; all we can do is cut the response short
+            return;
+        }
+        send(exchange, status, json -> ShopJson.error(json, message));
+    }
+
+    // Serves a synthetic catalog and customer population, e.g. for end-to-end load tests:
+    //   java -cp target/rise-1.0-SNAPSHOT.jar com.fawry.infrastructure.http.ShopHttpServer --port=8080
+    // Customers are named customer-0 .. customer-(n-1).
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                System.err.println("Options are --port, --products, --stock, --customers, --balance, --shards "
+                        + "and --shipments=<file>, each as --name=value");
+                System.exit(2);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        int port = intParam(options, "port", 8080);
+        int products = intParam(options, "products", 1000);
+        int stock = intParam(options, "stock", 1_000_000);
+        int customers = intParam(options, "customers", 1000);
+        int balance = intParam(options, "balance", 100_000);
+        int shards = intParam(options, "shards", 0);
+
+        ShippingService shippingService = new ShippingService();
+        ShipmentSink sink = options.containsKey("shipments")
+                ? new FileShipmentSink(Path.of(options.get("shipments")), shippingService)
+                : batch -> {
+                };
+        ShipmentOutbox outbox = new ShipmentOutbox(sink);
+        OrderCommitter committer = shards > 0 ? new ShardedOrderCommitter(shards) : new OrderCommitter();
+        CheckoutService checkoutService = new CheckoutService(shippingService, committer, outbox);
+        CheckoutMetricsRegistry metrics = new CheckoutMetricsRegistry();
+        metrics.registerMBean();
+        checkoutService.setMetrics(metrics);
+
+        ExpiryIndex expiryIndex = new ExpiryIndex();
+        expiryIndex.start();
+        ProductCatalog catalog = new ProductCatalog(expiryIndex);
+        LocalDate expiration = LocalDate.now().plusYears(1);
+        for (int i = 0; i < products; i++) {
+            String name = "Product-" + i;
+            Money price = Money.ofCents(100 + (i * 7919L) % 50_000);
+            Weight weight = new Weight((50 + (i * 104_729L) % 20_000) / 1000.0);
+            catalog.add(switch (i % 4) {
+                case 0 -> ProductFactory.createStandardProduct(name, price, stock);
+                case 1 -> ProductFactory.createShippableProduct(name, price, stock, weight);
+                case 2 -> ProductFactory.createExpirableProduct(name, price, stock, expiration);
+                default -> ProductFactory.createExpirableShippableProduct(name, price, stock, weight, expiration);
+            });
+        }
+
+        ShopHttpServer server = new ShopHttpServer(new InetSocketAddress(port), catalog, checkoutService,
+                shippingService, new CustomerRegistry(64, customers));
+        for (int i = 0; i < customers; i++) {
+            server.addCustomer("customer-" + i, new Money(balance));
+        }
+        server.start();
+        System.out.println("Listening on port " + server.getPort() + " with " + products + " products and "
+                + customers + " customers");
+    }
+}
@@ -0,0 +1,122 @@
+package com.fawry.infrastructure.http;
+
+import com.fawry.application.CheckoutOutcome;
+import com.fawry.application.CheckoutResult;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Expirable;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.Shippable;
+import com.fawry.domain.model.valueobject.Money;
+import java.io.IOException;
+import java.util.Collection;
+
+// Field-by-field JSON encoders for the API's response bodies.
+final class ShopJson {
+    private ShopJson() {
+    }
+
+    static void product(JsonWriter json, Product product) throws IOException {
+        json.beginObject()
+                .name("id").value(product.getProductId().getId())
+                .name("name").value(product.getName())
+                .name("price").value(product.getPrice())
+                .name("quantity").value(product.getQuantity());
+        if (product instanceof Shippable shippable) {
+            json.name("weight").value(shippable.getWeight().getAmount())
+                    .name("weightUnit").value(shippable.getWeight().getUnit());
+        }
+        if (product instanceof Expirable expirable) {
+            json.name("expirationDate").value(expirable.getExpirationDate().toString())
+                    .name("expired").value(expirable.isExpired());
+        }
+        json.endObject();
+    }
+
+    static void products(JsonWriter json, Collection<Product> products) throws IOException {
+        json.beginArray();
+        for (Product product : products) {
+            product(json, product);
+        }
+        json.endArray();
+    }
+
+    static void customer(JsonWriter json, Customer customer) throws IOException {
+        json.beginObject()
+                .name("name").value(customer.getName())
+                .name("balance").value(customer.getBalance())
+                .endObject();
+    }
+
+    static void cart(JsonWriter json, Cart cart) throws IOException {
+        json.beginObject().name("items");
+        lines(json, cart.getItems());
+        json.name("itemCount").value(cart.getTotalItemCount())
+                .name("subtotal").value(cart.calculateSubtotal())
+                .endObject();
+    }
+
+    // What cart writes for an empty cart, without needing a Cart.
+    static void emptyCart(JsonWriter json) throws IOException {
+        json.beginObject()
+                .name("items").beginArray().endArray()
+                .name("itemCount").value(0)
+                .name("subtotal").value(Money.ZERO)
+                .endObject();
+    }
+
+    static void quote(JsonWriter json, Money subtotal, Money shippingCost, Money balance) throws IOException {
+        Money total = subtotal.add(shippingCost);
+        json.beginObject()
+                .name("subtotal").value(subtotal)
+                .name("shippingCost").value(shippingCost)
+                .name("total").value(total)
+                .name("balance").value(balance)
+                .name("affordable").value(balance.isGreaterThanOrEqual(total))
+                .endObject();
+    }
+
+    static void checkoutResult(JsonWriter json, CheckoutResult result) throws IOException {
+        json.beginObject().name("items");
+        if (result.purchasedItems() == null) {
+            json.beginArray().endArray();
+        } else {
+            lines(json, result.purchasedItems());
+        }
+        json.name("itemCount").value(result.getTotalItemCount())
+                .name("subtotal").value(result.subtotal())
+                .name("shippingCost").value(result.shippingCost())
+                .name("total").value(result.total())
+                .name("remainingBalance").value(result.remainingBalance())
+                .endObject();
+    }
+
+    static void rejection(JsonWriter json, CheckoutOutcome.Rejected rejected) throws IOException {
+        json.beginObject()
+                .name("reason").value(rejected.reason().name())
+                .name("message").value(rejected.message())
+                .endObject();
+    }
+
+    static void error(JsonWriter json, String message) throws IOException {
+        json.beginObject()
+                .name("error").value(message)
+                .endObject();
+    }
+
+    private static void lines(JsonWriter json, Collection<CartItem> items) throws IOException {
+        json.beginArray();
+        for (CartItem item : items) {
+            Product product = item.getProduct();
+            json.beginObject()
+                    .name("productId").value(product.getProductId().getId())
+                    .name("name").value(product.getName())
+                    .name("unitPrice").value(product.getPrice())
+                    .name("quantity").value(item.getQuantity())
+                    .name("subtotal").value(item.calculateSubtotal())
+                    .endObject();
+        }
+        json.endArray();
+    }
+}
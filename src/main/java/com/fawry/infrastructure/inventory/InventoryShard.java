@@ -0,0 +1,312 @@
+package com.fawry.infrastructure.inventory;
+
+import com.fawry.application.CheckoutOutcome;
+import com.fawry.application.OrderCommitter;
+import com.fawry.domain.exception.DomainException;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.valueobject.Money;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One partition of the inventory. A single thread owns the shard: it takes messages off
+// the mailbox in arrival order and is the only checkout path that changes the stock of
+// the products routed here, so checkouts on the same shard never contend with each other.
+//
+// Prepare takes a transaction's units out of stock and parks them until the coordinator
+// sends Commit (the units stay sold) or Abort (they go back). Commit and Abort need no
+// reply, so a checkout waits for one round trip per shard it touches. A cart that
+// touches only this shard is settled by a single Checkout message instead: prepare,
+// wallet debit and commit in one go on the owner thread.
+//
+// A message that throws is logged and skipped; it never takes the owner thread down.
+// Once the owner exits, whether through Stop or an Error, whatever is left in the
+// mailbox is still handled, except that a Prepare's vote fails instead of taking stock,
+// and senders stop waiting for room in a mailbox nobody drains.
+final class InventoryShard {
+    private sealed interface Message permits Prepare, Commit, Abort, Checkout, Read, Stop {
+    }
+
+    private record Prepare(long transaction, CartItem[] lines, CompletableFuture<CheckoutOutcome.Rejected> vote)
+            implements Message {
+    }
+
+    private record Commit(long transaction) implements Message {
+    }
+
+    private record Abort(long transaction) implements Message {
+    }
+
+    // outcome is also how the coordinator gives up: whichever of the two completes it first
+    // decides whether the sale stands.
+    private record Checkout(long transaction, CartItem[] lines, Customer customer, Money total,
+            CompletableFuture<CheckoutOutcome.Rejected> outcome) implements Message {
+    }
+
+    // Runs reader between two other messages, so it sees no transaction half applied.
+    private record Read(Runnable reader, CompletableFuture<Void> done) implements Message {
+    }
+
+    private record Stop() implements Message {
+    }
+
+    // Units a prepared transaction took, kept apart from the cart lines so a later change
+    // to the cart can't change what an abort gives back.
+    private record Prepared(Product[] products, int[] units) {
+    }
+
+    private static final int MAX_DRAIN = 256;
+    private static final long SEND_RETRY_MILLIS = 100;
+
+    private final int index;
+    private final BlockingQueue<Message> mailbox;
+    private final Thread owner;
+    // only touched by the owner thread
+    private final Map<Long, Prepared> prepared = new HashMap<>();
+    private final AtomicLong processed = new AtomicLong();
+
+    InventoryShard(int index, int mailboxCapacity) {
+        this.index = index;
+        this.mailbox = new ArrayBlockingQueue<>(mailboxCapacity);
+        this.owner = new Thread(this::run, "inventory-shard-" + index);
+        owner.setDaemon(true);
+        owner.start();
+    }
+
+    CompletableFuture<CheckoutOutcome.Rejected> prepare(long transaction, CartItem[] lines) {
+        CompletableFuture<CheckoutOutcome.Rejected> vote = new CompletableFuture<>();
+        send(new Prepare(transaction, lines, vote));
+        return vote;
+    }
+
+    void commit(long transaction) {
+        send(new Commit(transaction));
+    }
+
+    void abort(long transaction) {
+        send(new Abort(transaction));
+    }
+
+    CompletableFuture<CheckoutOutcome.Rejected> checkout(long transaction, CartItem[] lines, Customer customer,
+            Money total) {
+        CompletableFuture<CheckoutOutcome.Rejected> outcome = new CompletableFuture<>();
+        send(new Checkout(transaction, lines, customer, total, outcome));
+        return outcome;
+    }
+
+    CompletableFuture<Void> read(Runnable reader) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        send(new Read(reader, done));
+        return done;
+    }
+
+    int mailboxDepth() {
+        return mailbox.size();
+    }
+
+    long processedCount() {
+        return processed.get();
+    }
+
+    // Handles everything already in the mailbox, then stops the owner thread.
+    void stop() {
+        try {
+            send(new Stop());
+        } catch (IllegalStateException e) {
+            if (owner.isAlive()) {
+                throw e;
+            }
+        }
+        try {
+            owner.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(Message message) {
+        try {
+            while (!mailbox.offer(message, SEND_RETRY_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!owner.isAlive()) {
+                    throw new IllegalStateException("Inventory shard " + index + " has stopped");
+                }
+            }
+            if (!owner.isAlive()) {
+                // the owner's last drain may have run before this message went in
+                drainAfterExit();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending to inventory shard " + index, e);
+        }
+    }
+
+    private void run() {
+        List<Message> batch = new ArrayList<>(MAX_DRAIN);
+        int next = 0;
+        try {
+            while (true) {
+                batch.clear();
+                next = 0;
+                try {
+                    batch.add(mailbox.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                mailbox.drainTo(batch, MAX_DRAIN - 1);
+                while (next < batch.size()) {
+                    Message message = batch.get(next++);
+                    if (message instanceof Stop) {
+                        return;
+                    }
+                    handleQuietly(message);
+                }
+                processed.addAndGet(batch.size());
+            }
+        } finally {
+            // messages behind the Stop in the batch, then anything still queued
+            for (Message message : batch.subList(next, batch.size())) {
+                handleAfterExit(message);
+            }
+            drainAfterExit();
+        }
+    }
+
+    // Only called once the owner has left its loop, so nothing else touches prepared.
+    private synchronized void drainAfterExit() {
+        List<Message> rest = new ArrayList<>();
+        mailbox.drainTo(rest);
+        for (Message message : rest) {
+            handleAfterExit(message);
+        }
+    }
+
+    private void handleAfterExit(Message message) {
+        if (message instanceof Prepare prepare) {
+            prepare.vote().completeExceptionally(
+                    new IllegalStateException("Inventory shard " + index + " has stopped"));
+        } else if (message instanceof Checkout checkout) {
+            checkout.outcome().completeExceptionally(
+                    new IllegalStateException("Inventory shard " + index + " has stopped"));
+        } else if (message instanceof Read read) {
+            read.done().completeExceptionally(new IllegalStateException("Inventory shard " + index + " has stopped"));
+        } else if (!(message instanceof Stop)) {
+            handleQuietly(message);
+        }
+    }
+
+    private void handleQuietly(Message message) {
+        try {
+            handle(message);
+        } catch (RuntimeException e) {
+            System.err.println("Inventory shard " + index + " failed to handle " + message + ": " + e.getMessage());
+        }
+    }
+
+    private void handle(Message message) {
+        switch (message) {
+            case Prepare prepare -> {
+                try {
+                    prepare.vote().complete(reserve(prepare.transaction(), prepare.lines()));
+                } catch (RuntimeException e) {
+                    prepare.vote().completeExceptionally(e);
+                }
+            }
+            case Commit commit -> prepared.remove(commit.transaction());
+            case Abort abort -> giveBack(prepared.remove(abort.transaction()));
+            case Checkout checkout -> {
+                try {
+                    settle(checkout);
+                } catch (RuntimeException e) {
+                    if (!checkout.outcome().completeExceptionally(e)) {
+                        throw e;
+                    }
+                }
+            }
+            case Read read -> {
+                try {
+                    read.reader().run();
+                    read.done().complete(null);
+                } catch (RuntimeException e) {
+                    read.done().completeExceptionally(e);
+                }
+            }
+            case Stop stop -> {
+                // run() stops before handing a Stop over
+            }
+        }
+    }
+
+    private void settle(Checkout checkout) {
+        CompletableFuture<CheckoutOutcome.Rejected> outcome = checkout.outcome();
+        if (outcome.isDone()) {
+            // the coordinator gave up before this got here
+            return;
+        }
+        CheckoutOutcome.Rejected rejection = reserve(checkout.transaction(), checkout.lines());
+        if (rejection != null) {
+            outcome.complete(rejection);
+            return;
+        }
+        Prepared units = prepared.remove(checkout.transaction());
+        if (!checkout.customer().tryDeductFromWallet(checkout.total())) {
+            outcome.complete(OrderCommitter.insufficientBalance(checkout.customer(), checkout.total()));
+            giveBack(units);
+            return;
+        }
+        if (!outcome.complete(null)) {
+            // the coordinator stopped waiting meanwhile and reported a failure: undo the sale
+            checkout.customer().addToWallet(checkout.total());
+            giveBack(units);
+        }
+    }
+
+    private static void giveBack(Prepared units) {
+        if (units != null) {
+            for (int i = units.products().length - 1; i >= 0; i--) {
+                units.products()[i].increaseQuantity(units.units()[i]);
+            }
+        }
+    }
+
+    // Takes every line's units out of stock, or none of them. Returns null once the
+    // transaction is prepared.
+    private CheckoutOutcome.Rejected reserve(long transaction, CartItem[] lines) {
+        for (CartItem line : lines) {
+            if (!line.canCommitStock()) {
+                return OrderCommitter.insufficientStock(line);
+            }
+        }
+
+        Product[] products = new Product[lines.length];
+        int[] units = new int[lines.length];
+        int applied = 0;
+        try {
+            for (CartItem line : lines) {
+                line.commitStock();
+                products[applied] = line.getProduct();
+                units[applied] = line.getQuantity();
+                applied++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = applied - 1; i >= 0; i--) {
+                products[i].increaseQuantity(units[i]);
+            }
+            // lost a race for stock with a path that doesn't go through the shard (e.g. reservations)
+            if (e instanceof DomainException) {
+                return OrderCommitter.insufficientStock(lines[applied]);
+            }
+            throw e;
+        }
+        prepared.put(transaction, new Prepared(products, units));
+        return null;
+    }
+}
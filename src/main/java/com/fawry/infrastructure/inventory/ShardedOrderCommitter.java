@@ -0,0 +1,345 @@
+package com.fawry.infrastructure.inventory;
+
+import com.fawry.application.CheckoutOutcome;
+import com.fawry.application.OrderCommitter;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.valueobject.Money;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Order committer over partitioned inventory. Products are routed to one of N shards by
+// ProductId hash; each shard is a single-threaded InventoryShard that owns their stock.
+// A commit splits the cart by shard and runs as two phases:
+//
+//   1. prepare is sent to every shard the cart touches at once; each takes its lines'
+//      units out of stock or votes no
+//   2. if every shard voted yes and the wallet debit succeeds, commit goes to all of them;
+//      otherwise the shards that voted yes are told to abort and put their units back
+//
+// Stock is only ever taken in phase 1, so a rejected checkout never sells anything and a
+// commit can't fail once the votes are in. A cart whose lines all live on one shard
+// skips the two phases: one Checkout message prepares, debits and commits on the shard.
+//
+// Commits aren't logged, so hasCommitLog is false and SnapshotWriter refuses this
+// committer rather than snapshot state the journal doesn't explain. The shards are the
+// only checkout path writing their products' stock, but reservations and restocking
+// still change it directly through Product's atomic stock word.
+//
+// None of the inherited lock stripes is used. A stripe here is a shard: readStripe runs
+// the reader on that shard's owner thread between two messages, and credit goes
+// straight to the wallet, which commits only ever debit with a compare-and-set.
+//
+// A shard that doesn't vote within the vote timeout fails the checkout. Every shard the
+// cart touched is then told to abort, so units a late prepare takes are put back when
+// the abort reaches it behind the prepare. close() waits for commits in flight before
+// stopping the shards, so no prepare is left unanswered.
+public class ShardedOrderCommitter extends OrderCommitter implements AutoCloseable {
+    private static final int DEFAULT_MAILBOX_CAPACITY = 4096;
+    private static final Duration DEFAULT_VOTE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final InventoryShard[] shards;
+    private final long voteTimeoutNanos;
+    private final AtomicLong nextTransaction = new AtomicLong();
+    private final AtomicLong crossShard = new AtomicLong();
+    // commits hold the read lock, close() takes the write lock
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public ShardedOrderCommitter(int shardCount) {
+        this(shardCount, DEFAULT_MAILBOX_CAPACITY, DEFAULT_VOTE_TIMEOUT);
+    }
+
+    public ShardedOrderCommitter(int shardCount, int mailboxCapacity, Duration voteTimeout) {
+        super(1, null);
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        if (mailboxCapacity <= 0) {
+            throw new IllegalArgumentException("Mailbox capacity must be positive");
+        }
+        if (voteTimeout == null || voteTimeout.isNegative() || voteTimeout.isZero()) {
+            throw new IllegalArgumentException("Vote timeout must be positive");
+        }
+        this.voteTimeoutNanos = voteTimeout.toNanos();
+        this.shards = new InventoryShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new InventoryShard(i, mailboxCapacity);
+        }
+    }
+
+    @Override
+    public CheckoutOutcome.Rejected tryCommit(Customer customer, Collection<CartItem> items, Money subtotal,
+            Money shippingCost, Money total) {
+        checkArguments(customer, items, subtotal, shippingCost, total);
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Sharded order committer is closed");
+            }
+            return coordinate(customer, items, total);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private CheckoutOutcome.Rejected coordinate(Customer customer, Collection<CartItem> items, Money total) {
+        CartItem[][] linesByShard = route(items);
+        long transaction = nextTransaction.incrementAndGet();
+        int only = onlyShard(linesByShard);
+        if (only >= 0) {
+            return awaitCheckout(only, shards[only].checkout(transaction, linesByShard[only], customer, total));
+        }
+        List<CompletableFuture<CheckoutOutcome.Rejected>> votes = new ArrayList<>(shards.length);
+        int involved = 0;
+        RuntimeException failure = null;
+        for (int s = 0; s < shards.length; s++) {
+            CompletableFuture<CheckoutOutcome.Rejected> vote = null;
+            if (linesByShard[s] != null) {
+                involved++;
+                try {
+                    vote = shards[s].prepare(transaction, linesByShard[s]);
+                } catch (RuntimeException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            votes.add(vote);
+        }
+        if (involved > 1) {
+            crossShard.incrementAndGet();
+        }
+
+        // every vote is collected, even after a no, so each yes can be aborted
+        CheckoutOutcome.Rejected rejection = null;
+        boolean[] prepared = new boolean[shards.length];
+        boolean[] answered = new boolean[shards.length];
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + voteTimeoutNanos;
+        for (int s = 0; s < shards.length; s++) {
+            CompletableFuture<CheckoutOutcome.Rejected> vote = votes.get(s);
+            if (vote == null) {
+                continue;
+            }
+            try {
+                CheckoutOutcome.Rejected answer = vote.get(Math.max(0, deadline - System.nanoTime()),
+                        TimeUnit.NANOSECONDS);
+                answered[s] = true;
+                if (answer == null) {
+                    prepared[s] = true;
+                } else if (rejection == null) {
+                    rejection = answer;
+                }
+            } catch (ExecutionException e) {
+                answered[s] = true;
+                failure = failure == null ? asRuntime(e.getCause()) : failure;
+            } catch (TimeoutException e) {
+                failure = failure == null
+                        ? new IllegalStateException("Inventory shard " + s + " did not vote in time") : failure;
+            } catch (InterruptedException e) {
+                // keep collecting, so the aborts below still go out
+                interrupted = true;
+                failure = failure == null ? new IllegalStateException("Interrupted while waiting for votes", e) : failure;
+            }
+        }
+
+        if (rejection == null && failure == null && !customer.tryDeductFromWallet(total)) {
+            rejection = insufficientBalance(customer, total);
+        }
+        boolean commit = rejection == null && failure == null;
+        for (int s = 0; s < shards.length; s++) {
+            if (votes.get(s) == null) {
+                continue;
+            }
+            try {
+                if (commit) {
+                    shards[s].commit(transaction);
+                } else if (prepared[s] || !answered[s]) {
+                    // a shard that hasn't answered may still prepare; the abort queues behind it
+                    shards[s].abort(transaction);
+                }
+            } catch (RuntimeException e) {
+                // the order stands once the wallet is debited; only a lost abort is reported
+                if (!commit && failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return rejection;
+    }
+
+    @Override
+    public void credit(Customer customer, Money amount) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        customer.addToWallet(amount);
+    }
+
+    // Runs reader on the owner thread of shard stripe and waits for it, up to the vote
+    // timeout. There is no log, so the sequence returned is always 0.
+    @Override
+    public long readStripe(int stripe, Runnable reader) {
+        if (stripe < 0 || stripe >= shards.length) {
+            throw new IllegalArgumentException("No such shard: " + stripe);
+        }
+        if (reader == null) {
+            throw new IllegalArgumentException("Reader cannot be null");
+        }
+        try {
+            shards[stripe].read(reader).get(voteTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw asRuntime(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Inventory shard " + stripe + " did not run the read in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading inventory shard " + stripe, e);
+        }
+        return 0;
+    }
+
+    @Override
+    public int stripeOf(ProductId productId) {
+        return shardOf(productId);
+    }
+
+    // Wallets belong to no shard; any shard will do for reading one.
+    @Override
+    public int stripeOf(Customer customer) {
+        return Math.floorMod(System.identityHashCode(customer), shards.length);
+    }
+
+    // The shard index if every line routes to the same shard, otherwise -1.
+    private static int onlyShard(CartItem[][] linesByShard) {
+        int only = -1;
+        for (int s = 0; s < linesByShard.length; s++) {
+            if (linesByShard[s] != null) {
+                if (only >= 0) {
+                    return -1;
+                }
+                only = s;
+            }
+        }
+        return only;
+    }
+
+    // Whoever completes outcome first decides: the shard with its result, or this thread
+    // giving up, after which the shard undoes the sale if it still gets to it.
+    private CheckoutOutcome.Rejected awaitCheckout(int shard, CompletableFuture<CheckoutOutcome.Rejected> outcome) {
+        RuntimeException gaveUp;
+        boolean interrupted = false;
+        try {
+            return outcome.get(voteTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw asRuntime(e.getCause());
+        } catch (TimeoutException e) {
+            gaveUp = new IllegalStateException("Inventory shard " + shard + " did not vote in time");
+        } catch (InterruptedException e) {
+            interrupted = true;
+            gaveUp = new IllegalStateException("Interrupted while waiting for inventory shard " + shard, e);
+        }
+        boolean won = outcome.completeExceptionally(gaveUp);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (won) {
+            throw gaveUp;
+        }
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            throw asRuntime(e.getCause());
+        }
+    }
+
+    private static RuntimeException asRuntime(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(ProductId productId) {
+        return Math.floorMod(productId.hashCode(), shards.length);
+    }
+
+    // Commits whose cart spanned more than one shard.
+    public long crossShardCount() {
+        return crossShard.get();
+    }
+
+    public int mailboxDepth(int shard) {
+        return shards[shard].mailboxDepth();
+    }
+
+    public long processedCount(int shard) {
+        return shards[shard].processedCount();
+    }
+
+    // Stops taking commits, waits for those in flight, then lets every shard finish what
+    // is already in its mailbox.
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        for (InventoryShard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    private CartItem[][] route(Collection<CartItem> items) {
+        int[] counts = new int[shards.length];
+        int[] shardOfLine = new int[items.size()];
+        int line = 0;
+        for (CartItem item : items) {
+            int shard = shardOf(item.getProduct().getProductId());
+            shardOfLine[line++] = shard;
+            counts[shard]++;
+        }
+
+        CartItem[][] linesByShard = new CartItem[shards.length][];
+        int[] filled = new int[shards.length];
+        line = 0;
+        for (CartItem item : items) {
+            int shard = shardOfLine[line++];
+            if (linesByShard[shard] == null) {
+                linesByShard[shard] = new CartItem[counts[shard]];
+            }
+            linesByShard[shard][filled[shard]++] = item;
+        }
+        return linesByShard;
+    }
+}
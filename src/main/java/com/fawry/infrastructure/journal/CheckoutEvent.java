@@ -0,0 +1,69 @@
+package com.fawry.infrastructure.journal;
+
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.valueobject.Money;
+import java.util.List;
+import java.util.function.Function;
+
+public record CheckoutEvent(
+        long sequence,
+        long timestampMillis,
+        String customerName,
+        List<Line> lines,
+        long subtotalCents,
+        long shippingCents,
+        long totalCents) {
+
+    // One purchased line; the stock delta it records is -quantity.
+    public record Line(ProductId productId, int quantity) {
+        public Line {
+            if (productId == null) {
+                throw new IllegalArgumentException("Product ID cannot be null");
+            }
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+        }
+    }
+
+    // A wallet credit (top-up or refund) is journaled as an event with no lines whose
+    // total is minus the amount credited.
+    public boolean isCredit() {
+        return totalCents < 0;
+    }
+
+    public CheckoutEvent {
+        if (customerName == null || customerName.isEmpty()) {
+            throw new IllegalArgumentException("Customer name cannot be null or empty");
+        }
+        if (lines == null) {
+            throw new IllegalArgumentException("Lines cannot be null");
+        }
+        lines = List.copyOf(lines);
+    }
+
+    // Re-applies this checkout's stock and wallet changes. Unknown products or
+    // customers are skipped, since they were removed after the event was written.
+    public void applyTo(Function<ProductId, Product> products, Function<String, Customer> customers) {
+        for (Line line : lines) {
+            Product product = products.apply(line.productId());
+            if (product != null) {
+                product.reduceQuantity(line.quantity());
+            }
+        }
+        Customer customer = customers.apply(customerName);
+        if (customer != null) {
+            applyToWallet(customer);
+        }
+    }
+
+    public void applyToWallet(Customer customer) {
+        if (isCredit()) {
+            customer.addToWallet(Money.ofCents(-totalCents));
+        } else {
+            customer.deductFromWallet(Money.ofCents(totalCents));
+        }
+    }
+}
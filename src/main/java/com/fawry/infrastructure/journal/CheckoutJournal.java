@@ -0,0 +1,294 @@
+package com.fawry.infrastructure.journal;
+
+import com.fawry.application.CommitLog;
+import com.fawry.application.CheckoutResult;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.valueobject.Money;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Append-only journal of completed checkouts, written into memory-mapped segment files.
+// Appends only copy bytes into the mapping; a background flusher forces everything
+// written since its last run in one go (group commit), so no order pays for its own
+// fsync. Callers that need an order on disk before answering use awaitDurable, which
+// fails instead of waiting on if the flusher can't force the journal.
+public class CheckoutJournal implements CommitLog, AutoCloseable {
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(10);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final Forcer forcer;
+
+    private JournalSegment current;
+    // Rolled segments not yet forced and closed; one leaves only once both are done.
+    private final List<JournalSegment> rolled = new ArrayList<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private long nextSequence;
+    // How far current has been forced; back to 0 whenever current rolls.
+    private int flushedPosition;
+    private volatile long durableSequence;
+    // Set when a background flush fails, cleared by the next one that succeeds.
+    private volatile IOException flushFailure;
+    private final AtomicLong flushFailures = new AtomicLong();
+    private boolean closed;
+
+    // Forces a byte range of a segment to disk; tests put in one that fails.
+    @FunctionalInterface
+    interface Forcer {
+        void force(JournalSegment segment, int from, int to) throws IOException;
+    }
+
+    private CheckoutJournal(Path directory, int segmentSize, Duration flushInterval, Forcer forcer)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forcer = forcer;
+
+        List<Path> files = JournalSegment.list(directory);
+        if (files.isEmpty()) {
+            current = JournalSegment.create(directory, 1, segmentSize);
+        } else {
+            current = JournalSegment.openForAppend(files.get(files.size() - 1));
+        }
+        this.nextSequence = current.lastSequence() + 1;
+        this.durableSequence = current.lastSequence();
+        this.flushedPosition = 0;
+
+        long intervalMillis = flushInterval.toMillis();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkout-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static CheckoutJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    public static CheckoutJournal open(Path directory, int segmentSize, Duration flushInterval) throws IOException {
+        return open(directory, segmentSize, flushInterval, JournalSegment::force);
+    }
+
+    static CheckoutJournal open(Path directory, int segmentSize, Duration flushInterval, Forcer forcer)
+            throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Journal directory cannot be null");
+        }
+        if (segmentSize <= JournalSegment.HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        if (flushInterval == null || flushInterval.toMillis() <= 0) {
+            throw new IllegalArgumentException("Flush interval must be at least one millisecond");
+        }
+        Files.createDirectories(directory);
+        return new CheckoutJournal(directory, segmentSize, flushInterval, forcer);
+    }
+
+    public long append(Customer customer, CheckoutResult result) {
+        if (result == null) {
+            throw new IllegalArgumentException("Checkout result cannot be null");
+        }
+        return append(customer, result.purchasedItems(), result.subtotal(), result.shippingCost(), result.total());
+    }
+
+    @Override
+    public long append(Customer customer, Collection<CartItem> items, Money subtotal, Money shippingCost, Money total) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        List<CheckoutEvent.Line> lines = new ArrayList<>(items.size());
+        for (CartItem item : items) {
+            lines.add(new CheckoutEvent.Line(item.getProduct().getProductId(), item.getQuantity()));
+        }
+        return append(customer.getName(), lines,
+                subtotal.getCentsExact(), shippingCost.getCentsExact(), total.getCentsExact());
+    }
+
+    // Logged as an event with no lines and the credit as a negative total.
+    @Override
+    public long appendCredit(Customer customer, Money amount) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        return append(customer.getName(), List.of(), 0, 0, -amount.getCentsExact());
+    }
+
+    // Returns the sequence number assigned to the event.
+    public synchronized long append(String customerName, List<CheckoutEvent.Line> lines,
+            long subtotalCents, long shippingCents, long totalCents) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        CheckoutEvent event = new CheckoutEvent(nextSequence, System.currentTimeMillis(), customerName,
+                lines, subtotalCents, shippingCents, totalCents);
+        int size = JournalSegment.encodedSize(customerName, lines.size());
+        if (size > segmentSize - JournalSegment.HEADER_SIZE) {
+            throw new IllegalArgumentException("Checkout event of " + size + " bytes does not fit in a journal segment");
+        }
+        if (size > current.remaining()) {
+            roll();
+        }
+        if (scratch.capacity() < size) {
+            scratch = ByteBuffer.allocate(Math.max(size, scratch.capacity() * 2));
+        }
+        scratch.clear();
+        JournalSegment.encode(scratch, event);
+        scratch.flip();
+        current.append(scratch, event.sequence());
+        return nextSequence++;
+    }
+
+    @Override
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    // Waits until sequence is on disk. Throws the flusher's error if it failed to force
+    // the journal since; the sequence may or may not have made it.
+    public void awaitDurable(long sequence) throws InterruptedException, IOException {
+        synchronized (flushLock) {
+            while (durableSequence < sequence) {
+                IOException failure = flushFailure;
+                if (failure != null) {
+                    throw new IOException("Checkout journal is not being flushed", failure);
+                }
+                flushLock.wait();
+            }
+        }
+    }
+
+    public long flushFailureCount() {
+        return flushFailures.get();
+    }
+
+    // Forces everything appended so far to disk. If forcing fails, whatever was not forced
+    // stays queued and the next flush starts over from there.
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            List<JournalSegment> toClose;
+            JournalSegment segment;
+            int from;
+            int to;
+            long sequence;
+            synchronized (this) {
+                toClose = new ArrayList<>(rolled);
+                segment = current;
+                from = flushedPosition;
+                to = current.writePosition();
+                sequence = nextSequence - 1;
+            }
+            for (JournalSegment old : toClose) {
+                forcer.force(old, 0, old.writePosition());
+                old.close();
+                synchronized (this) {
+                    rolled.remove(old);
+                }
+            }
+            forcer.force(segment, from, to);
+            synchronized (this) {
+                // if current rolled meanwhile, segment is in rolled now and gets forced whole
+                if (current == segment) {
+                    flushedPosition = to;
+                }
+            }
+            flushFailure = null;
+            if (sequence > durableSequence) {
+                durableSequence = sequence;
+                flushLock.notifyAll();
+            }
+        }
+    }
+
+    // Streams every event with a sequence greater than afterSequence, in order.
+    // Returns the last sequence seen, or afterSequence if there was nothing newer.
+    public long replay(long afterSequence, Consumer<CheckoutEvent> consumer) throws IOException {
+        return replay(directory, afterSequence, consumer);
+    }
+
+    public static long replay(Path directory, long afterSequence, Consumer<CheckoutEvent> consumer) throws IOException {
+        List<Path> files = JournalSegment.list(directory);
+        long[] last = {afterSequence};
+        for (int i = 0; i < files.size(); i++) {
+            boolean fullyBehind = i + 1 < files.size()
+                    && JournalSegment.firstSequenceOf(files.get(i + 1)) <= afterSequence + 1;
+            if (fullyBehind) {
+                continue;
+            }
+            JournalSegment.read(files.get(i), event -> {
+                if (event.sequence() > afterSequence) {
+                    consumer.accept(event);
+                    last[0] = event.sequence();
+                }
+            });
+        }
+        return last[0];
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flush();
+        current.close();
+    }
+
+    private void roll() {
+        try {
+            JournalSegment next = JournalSegment.create(directory, nextSequence, segmentSize);
+            rolled.add(current);
+            current = next;
+            flushedPosition = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll checkout journal segment", e);
+        }
+    }
+
+    // Background flush: a failure is kept for awaitDurable and retried on the next run.
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            flushFailures.incrementAndGet();
+            System.err.println("Checkout journal flush failed: " + e.getMessage());
+            synchronized (flushLock) {
+                flushFailure = e instanceof IOException io ? io : new IOException(e);
+                flushLock.notifyAll();
+            }
+        }
+    }
+}
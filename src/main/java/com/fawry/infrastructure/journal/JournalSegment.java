@@ -0,0 +1,213 @@
+package com.fawry.infrastructure.journal;
+
+import com.fawry.domain.model.product.ProductId;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// One fixed-size, memory-mapped journal file.
+//
+// Layout: header (magic, version, first sequence) followed by records of
+// [int payload length][int CRC32C of payload][payload]. A zero length, or a record
+// whose CRC doesn't match (a torn write), marks the end of the data.
+final class JournalSegment {
+    static final int MAGIC = 0x464A524E;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 8;
+    private static final String PREFIX = "checkout-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long firstSequence;
+    private int writePosition;
+    private long lastSequence;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer, long firstSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.firstSequence = firstSequence;
+        this.writePosition = HEADER_SIZE;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) throws IOException {
+        Path path = directory.resolve(fileName(firstSequence));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, firstSequence);
+        return new JournalSegment(path, channel, buffer, firstSequence);
+    }
+
+    static JournalSegment openForAppend(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        JournalSegment segment = new JournalSegment(path, channel, buffer, readHeader(path, buffer));
+        segment.scan(null);
+        return segment;
+    }
+
+    // Reads every intact record of a segment file through a read-only mapping.
+    static void read(Path path, Consumer<CheckoutEvent> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            new JournalSegment(path, null, buffer, readHeader(path, buffer)).scan(consumer);
+        }
+    }
+
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (var stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // zero-padded sequence numbers make name order the same as sequence order
+        files.sort(null);
+        return files;
+    }
+
+    static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static int encodedSize(String customerName, int lineCount) {
+        return RECORD_HEADER_SIZE + 5 * Long.BYTES + Integer.BYTES
+                + customerName.getBytes(StandardCharsets.UTF_8).length
+                + Integer.BYTES + lineCount * (2 * Long.BYTES + Integer.BYTES);
+    }
+
+    static void encode(ByteBuffer out, CheckoutEvent event) {
+        int start = out.position();
+        out.position(start + RECORD_HEADER_SIZE);
+        byte[] name = event.customerName().getBytes(StandardCharsets.UTF_8);
+        out.putLong(event.sequence())
+                .putLong(event.timestampMillis())
+                .putLong(event.subtotalCents())
+                .putLong(event.shippingCents())
+                .putLong(event.totalCents())
+                .putInt(name.length)
+                .put(name)
+                .putInt(event.lines().size());
+        for (CheckoutEvent.Line line : event.lines()) {
+            out.putLong(line.productId().getMostSignificantBits())
+                    .putLong(line.productId().getLeastSignificantBits())
+                    .putInt(line.quantity());
+        }
+        int payloadLength = out.position() - start - RECORD_HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(out.duplicate().position(start + RECORD_HEADER_SIZE).limit(out.position()));
+        out.putInt(start, payloadLength);
+        out.putInt(start + Integer.BYTES, (int) crc.getValue());
+    }
+
+    int remaining() {
+        return buffer.capacity() - writePosition;
+    }
+
+    // Copies an encoded record in; the length word is written last.
+    void append(ByteBuffer record, long sequence) {
+        int length = record.remaining();
+        buffer.put(writePosition + Integer.BYTES, record, record.position() + Integer.BYTES, length - Integer.BYTES);
+        buffer.putInt(writePosition, record.getInt(record.position()));
+        writePosition += length;
+        lastSequence = sequence;
+    }
+
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    private void scan(Consumer<CheckoutEvent> consumer) {
+        int position = HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(position + RECORD_HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            CheckoutEvent event = decode(payload);
+            if (consumer != null) {
+                consumer.accept(event);
+            }
+            lastSequence = event.sequence();
+            position += RECORD_HEADER_SIZE + length;
+        }
+        writePosition = position;
+    }
+
+    private static CheckoutEvent decode(ByteBuffer in) {
+        long sequence = in.getLong();
+        long timestamp = in.getLong();
+        long subtotal = in.getLong();
+        long shipping = in.getLong();
+        long total = in.getLong();
+        byte[] name = new byte[in.getInt()];
+        in.get(name);
+        int lineCount = in.getInt();
+        List<CheckoutEvent.Line> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new CheckoutEvent.Line(new ProductId(in.getLong(), in.getLong()), in.getInt()));
+        }
+        return new CheckoutEvent(sequence, timestamp, new String(name, StandardCharsets.UTF_8),
+                lines, subtotal, shipping, total);
+    }
+
+    private static long readHeader(Path path, ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a checkout journal segment: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported journal version " + buffer.getInt(4) + " in " + path);
+        }
+        return buffer.getLong(8);
+    }
+
+    private static String fileName(long firstSequence) {
+        return String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX);
+    }
+}
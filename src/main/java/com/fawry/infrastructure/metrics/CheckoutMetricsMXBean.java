@@ -0,0 +1,36 @@
+package com.fawry.infrastructure.metrics;
+
+import java.util.Map;
+
+// JMX view of CheckoutMetricsRegistry. Latencies are in microseconds, keyed by phase name.
+public interface CheckoutMetricsMXBean {
+    long getCheckoutCount();
+
+    long getFailureCount();
+
+    Map<String, Long> getFailureCounts();
+
+    Map<String, Double> getPhaseMeanMicros();
+
+    Map<String, Double> getPhaseP50Micros();
+
+    Map<String, Double> getPhaseP99Micros();
+
+    Map<String, Double> getPhaseMaxMicros();
+
+    double getCartLinesMean();
+
+    long getCartLinesP99();
+
+    long getCartLinesMax();
+
+    double getCartUnitsMean();
+
+    long getCartUnitsP99();
+
+    long getCartUnitsMax();
+
+    String dump();
+
+    void reset();
+}
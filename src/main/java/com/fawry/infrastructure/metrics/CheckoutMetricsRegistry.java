@@ -0,0 +1,212 @@
+package com.fawry.infrastructure.metrics;
+
+import com.fawry.application.CheckoutMetrics;
+import com.fawry.application.CheckoutPhase;
+import com.fawry.application.RejectionReason;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Always-on checkout instrumentation: one latency histogram per phase, a counter per
+// failure type and histograms of cart lines and units at checkout. Readable as a text
+// dump or over JMX once registered.
+public class CheckoutMetricsRegistry implements CheckoutMetrics, CheckoutMetricsMXBean, AutoCloseable {
+    public static final String DEFAULT_OBJECT_NAME = "com.fawry:type=CheckoutMetrics";
+
+    private static final CheckoutPhase[] PHASES = CheckoutPhase.values();
+    private static final double[] DUMP_PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LogLinearHistogram[] phases = new LogLinearHistogram[PHASES.length];
+    private final Map<Class<?>, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LogLinearHistogram cartLines = new LogLinearHistogram();
+    private final LogLinearHistogram cartUnits = new LogLinearHistogram();
+    private MBeanServer registeredServer;
+    private ObjectName registeredName;
+
+    public CheckoutMetricsRegistry() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LogLinearHistogram();
+        }
+    }
+
+    @Override
+    public void recordPhase(CheckoutPhase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void recordFailure(RuntimeException failure) {
+        failures.computeIfAbsent(failure.getClass(), type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void recordRejection(RejectionReason reason) {
+        // counted with the exception processCheckout would have thrown
+        failures.computeIfAbsent(reason.getExceptionType(), type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void recordCartSize(int lines, int units) {
+        cartLines.record(lines);
+        cartUnits.record(units);
+    }
+
+    public LogLinearHistogram.Snapshot getPhase(CheckoutPhase phase) {
+        return phases[phase.ordinal()].snapshot();
+    }
+
+    public synchronized void registerMBean() throws JMException {
+        registerMBean(ManagementFactory.getPlatformMBeanServer(), new ObjectName(DEFAULT_OBJECT_NAME));
+    }
+
+    public synchronized void registerMBean(MBeanServer server, ObjectName name) throws JMException {
+        if (registeredName != null) {
+            throw new IllegalStateException("Already registered as " + registeredName);
+        }
+        server.registerMBean(this, name);
+        registeredServer = server;
+        registeredName = name;
+    }
+
+    @Override
+    public synchronized void close() throws JMException {
+        if (registeredName != null) {
+            registeredServer.unregisterMBean(registeredName);
+            registeredServer = null;
+            registeredName = null;
+        }
+    }
+
+    @Override
+    public long getCheckoutCount() {
+        return getPhase(CheckoutPhase.TOTAL).getCount();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public Map<String, Long> getFailureCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        failures.forEach((type, count) -> counts.put(type.getSimpleName(), count.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMeanMicros() {
+        return perPhase(LogLinearHistogram.Snapshot::getMean);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP50Micros() {
+        return perPhase(snapshot -> snapshot.getValueAtPercentile(50));
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP99Micros() {
+        return perPhase(snapshot -> snapshot.getValueAtPercentile(99));
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMaxMicros() {
+        return perPhase(LogLinearHistogram.Snapshot::getMax);
+    }
+
+    @Override
+    public double getCartLinesMean() {
+        return cartLines.snapshot().getMean();
+    }
+
+    @Override
+    public long getCartLinesP99() {
+        return cartLines.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getCartLinesMax() {
+        return cartLines.snapshot().getMax();
+    }
+
+    @Override
+    public double getCartUnitsMean() {
+        return cartUnits.snapshot().getMean();
+    }
+
+    @Override
+    public long getCartUnitsP99() {
+        return cartUnits.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getCartUnitsMax() {
+        return cartUnits.snapshot().getMax();
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("checkouts %d, failures %d%n", getCheckoutCount(), getFailureCount()));
+
+        out.append(String.format("%-14s %10s %10s", "phase (us)", "count", "mean"));
+        for (double percentile : DUMP_PERCENTILES) {
+            out.append(String.format(" %10s", "p" + formatPercentile(percentile)));
+        }
+        out.append(String.format(" %10s%n", "max"));
+        for (CheckoutPhase phase : PHASES) {
+            LogLinearHistogram.Snapshot snapshot = getPhase(phase);
+            out.append(String.format("%-14s %10d %10.1f", phase.name().toLowerCase(), snapshot.getCount(),
+                    micros(snapshot.getMean())));
+            for (double percentile : DUMP_PERCENTILES) {
+                out.append(String.format(" %10.1f", micros(snapshot.getValueAtPercentile(percentile))));
+            }
+            out.append(String.format(" %10.1f%n", micros(snapshot.getMax())));
+        }
+
+        appendSize(out, "cart lines", cartLines.snapshot());
+        appendSize(out, "cart units", cartUnits.snapshot());
+
+        getFailureCounts().forEach((type, count) ->
+                out.append(String.format("failure %-30s %d%n", type, count)));
+        return out.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LogLinearHistogram phase : phases) {
+            phase.reset();
+        }
+        failures.values().forEach(LongAdder::reset);
+        cartLines.reset();
+        cartUnits.reset();
+    }
+
+    private Map<String, Double> perPhase(ToDoubleFunction<LogLinearHistogram.Snapshot> nanos) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (CheckoutPhase phase : PHASES) {
+            values.put(phase.name(), micros(nanos.applyAsDouble(getPhase(phase))));
+        }
+        return values;
+    }
+
+    private static void appendSize(StringBuilder out, String label, LogLinearHistogram.Snapshot snapshot) {
+        out.append(String.format("%-14s mean %.1f, p50 %d, p99 %d, max %d%n", label, snapshot.getMean(),
+                snapshot.getValueAtPercentile(50), snapshot.getValueAtPercentile(99), snapshot.getMax()));
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1_000.0;
+    }
+}
@@ -0,0 +1,123 @@
+package com.fawry.infrastructure.receipt;
+
+import com.fawry.application.CheckoutListener;
+import com.fawry.application.CheckoutResult;
+import com.fawry.application.ReceiptRenderer;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.infrastructure.dispatch.BatchDispatcher;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Takes checkout results off the checkout thread and prints their receipts from a single
+// writer thread. The checkout thread only enqueues; the writer drains whatever has piled
+// up, renders the batch into one reused buffer and writes it with a single call.
+// The queue is bounded: when it is full, checkouts wait for the writer.
+public class AsyncReceiptSink implements CheckoutListener, AutoCloseable {
+    private final OutputStream output;
+    private final boolean closeOutput;
+    private final ReceiptRenderer renderer = new ReceiptRenderer();
+    private final CharsetEncoder encoder;
+    private final BatchDispatcher<CheckoutResult> writer;
+    private final AtomicLong written = new AtomicLong();
+
+    // writer thread only
+    private final StringBuilder text = new StringBuilder(4096);
+    private ByteBuffer bytes = ByteBuffer.allocate(8192);
+
+    public AsyncReceiptSink(OutputStream output) {
+        this(output, Charset.defaultCharset(), BatchDispatcher.DEFAULT_CAPACITY, BatchDispatcher.DEFAULT_MAX_BATCH, false);
+    }
+
+    public AsyncReceiptSink(OutputStream output, Charset charset, int capacity, int maxBatch, boolean closeOutput) {
+        if (output == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        if (charset == null) {
+            throw new IllegalArgumentException("Charset cannot be null");
+        }
+        this.output = output;
+        this.closeOutput = closeOutput;
+        // same replacement behaviour as PrintStream
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.writer = new BatchDispatcher<>("Receipt sink", "receipt-writer", capacity, maxBatch, this::writeBatch);
+    }
+
+    public static AsyncReceiptSink toFile(Path file) throws IOException {
+        OutputStream output = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new AsyncReceiptSink(output, Charset.defaultCharset(),
+                BatchDispatcher.DEFAULT_CAPACITY, BatchDispatcher.DEFAULT_MAX_BATCH, true);
+    }
+
+    @Override
+    public void onCheckoutCompleted(Customer customer, CheckoutResult result) {
+        submit(result);
+    }
+
+    public void submit(CheckoutResult result) {
+        if (result == null) {
+            throw new IllegalArgumentException("Checkout result cannot be null");
+        }
+        writer.submit(result);
+    }
+
+    public int pendingCount() {
+        return writer.size();
+    }
+
+    public long writtenCount() {
+        return written.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        if (closeOutput) {
+            output.close();
+        }
+    }
+
+    private void writeBatch(List<CheckoutResult> batch) {
+        text.setLength(0);
+        for (CheckoutResult result : batch) {
+            renderer.render(result, text);
+        }
+        encode();
+        try {
+            output.write(bytes.array(), 0, bytes.position());
+            output.flush();
+            written.addAndGet(batch.size());
+        } catch (IOException e) {
+            System.err.println("Error writing receipts: " + e.getMessage());
+        }
+    }
+
+    private void encode() {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            bytes.clear();
+            encoder.reset();
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (!result.isOverflow()) {
+                result = encoder.flush(bytes);
+            }
+            if (!result.isOverflow()) {
+                return;
+            }
+            bytes = ByteBuffer.allocate(bytes.capacity() * 2);
+            chars.rewind();
+        }
+    }
+}
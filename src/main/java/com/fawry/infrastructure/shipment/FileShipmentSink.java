@@ -0,0 +1,48 @@
+package com.fawry.infrastructure.shipment;
+
+import com.fawry.domain.service.ShippingService;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Stand-in carrier that appends one shipment notice per record to a file,
+// writing and syncing each batch once.
+public class FileShipmentSink implements ShipmentSink, AutoCloseable {
+    private final Writer writer;
+    private final ShippingService shippingService;
+
+    public FileShipmentSink(Path file, ShippingService shippingService) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        if (shippingService == null) {
+            throw new IllegalArgumentException("Shipping service cannot be null");
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        this.shippingService = shippingService;
+    }
+
+    @Override
+    public void deliver(List<ShipmentRecord> batch) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (ShipmentRecord record : batch) {
+            text.append("Shipment #").append(record.id())
+                    .append(" for ").append(record.customerName())
+                    .append(" at ").append(record.createdAt())
+                    .append(System.lineSeparator())
+                    .append(shippingService.formatShipmentNotice(record.items()));
+        }
+        writer.write(text.toString());
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
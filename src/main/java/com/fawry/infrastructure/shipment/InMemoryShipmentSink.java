@@ -0,0 +1,18 @@
+package com.fawry.infrastructure.shipment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Stand-in carrier that keeps every delivered shipment.
+public class InMemoryShipmentSink implements ShipmentSink {
+    private final List<ShipmentRecord> delivered = new ArrayList<>();
+
+    @Override
+    public synchronized void deliver(List<ShipmentRecord> batch) {
+        delivered.addAll(batch);
+    }
+
+    public synchronized List<ShipmentRecord> getDelivered() {
+        return List.copyOf(delivered);
+    }
+}
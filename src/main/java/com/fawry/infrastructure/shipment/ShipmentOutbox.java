@@ -0,0 +1,159 @@
+package com.fawry.infrastructure.shipment;
+
+import com.fawry.application.ShipmentPublisher;
+import com.fawry.domain.model.cart.ShippableItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.infrastructure.dispatch.BatchDispatcher;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Takes shipments off the checkout thread. Checkout only enqueues an immutable record;
+// a single dispatcher drains whatever has piled up and hands it to the sink as one batch.
+// The queue is bounded: when it is full, checkouts wait for the dispatcher. A batch the
+// sink rejects is retried with exponential backoff and, after the last attempt, parked
+// in the dead-letter list so the dispatcher can move on.
+public class ShipmentOutbox implements ShipmentPublisher, AutoCloseable {
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 10;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final ShipmentSink sink;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final Clock clock;
+    private final BatchDispatcher<ShipmentRecord> dispatcher;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong lastLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private final List<ShipmentRecord> deadLetters = new ArrayList<>();
+
+    public ShipmentOutbox(ShipmentSink sink) {
+        this(sink, BatchDispatcher.DEFAULT_CAPACITY, BatchDispatcher.DEFAULT_MAX_BATCH, DEFAULT_MAX_ATTEMPTS,
+                DEFAULT_INITIAL_BACKOFF_MILLIS, Clock.systemUTC());
+    }
+
+    public ShipmentOutbox(ShipmentSink sink, int capacity, int maxBatch, int maxAttempts,
+            long initialBackoffMillis, Clock clock) {
+        if (sink == null) {
+            throw new IllegalArgumentException("Shipment sink cannot be null");
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        if (initialBackoffMillis < 0) {
+            throw new IllegalArgumentException("Backoff cannot be negative");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.sink = sink;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.clock = clock;
+        this.dispatcher = new BatchDispatcher<>("Shipment outbox", "shipment-dispatcher", capacity, maxBatch,
+                batch -> dispatch(List.copyOf(batch)));
+    }
+
+    @Override
+    public void publish(Customer customer, List<ShippableItem> items) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer cannot be null");
+        }
+        submit(customer.getName(), items);
+    }
+
+    public ShipmentRecord submit(String customerName, List<ShippableItem> items) {
+        ShipmentRecord record = new ShipmentRecord(nextId.incrementAndGet(), customerName, items,
+                Instant.now(clock), System.nanoTime());
+        dispatcher.submit(record);
+        enqueued.incrementAndGet();
+        return record;
+    }
+
+    public int queueDepth() {
+        return dispatcher.size();
+    }
+
+    public long enqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long deliveredCount() {
+        return delivered.get();
+    }
+
+    public long batchCount() {
+        return batches.get();
+    }
+
+    public long retryCount() {
+        return retries.get();
+    }
+
+    public synchronized int deadLetterCount() {
+        return deadLetters.size();
+    }
+
+    public synchronized List<ShipmentRecord> getDeadLetters() {
+        return List.copyOf(deadLetters);
+    }
+
+    // Time from enqueue to successful delivery, for the most recent batch and overall.
+    public long lastLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLagNanos.get());
+    }
+
+    public long maxLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get());
+    }
+
+    // Stops accepting shipments, waits for everything already queued to be dispatched.
+    @Override
+    public void close() {
+        dispatcher.close();
+    }
+
+    private void dispatch(List<ShipmentRecord> batch) throws InterruptedException {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.deliver(batch);
+                recordDelivery(batch);
+                return;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    System.err.println("Giving up on " + batch.size() + " shipments after "
+                            + attempt + " attempts: " + e.getMessage());
+                    synchronized (this) {
+                        deadLetters.addAll(batch);
+                    }
+                    return;
+                }
+                retries.incrementAndGet();
+                TimeUnit.MILLISECONDS.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void recordDelivery(List<ShipmentRecord> batch) {
+        long now = System.nanoTime();
+        // the oldest record in the batch has waited the longest
+        long lag = now - batch.get(0).enqueuedNanos();
+        lastLagNanos.set(lag);
+        maxLagNanos.accumulateAndGet(lag, Math::max);
+        delivered.addAndGet(batch.size());
+        batches.incrementAndGet();
+    }
+}
@@ -0,0 +1,25 @@
+package com.fawry.infrastructure.shipment;
+
+import com.fawry.domain.model.cart.ShippableItem;
+import java.time.Instant;
+import java.util.List;
+
+public record ShipmentRecord(
+        long id,
+        String customerName,
+        List<ShippableItem> items,
+        Instant createdAt,
+        long enqueuedNanos) {
+    public ShipmentRecord {
+        if (customerName == null || customerName.isEmpty()) {
+            throw new IllegalArgumentException("Customer name cannot be null or empty");
+        }
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Shipment items cannot be null or empty");
+        }
+        if (createdAt == null) {
+            throw new IllegalArgumentException("Creation time cannot be null");
+        }
+        items = List.copyOf(items);
+    }
+}
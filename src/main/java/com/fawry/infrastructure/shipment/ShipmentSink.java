@@ -0,0 +1,8 @@
+package com.fawry.infrastructure.shipment;
+
+import java.util.List;
+
+public interface ShipmentSink {
+    // Delivers a whole batch or throws; a failed batch is retried as a whole.
+    void deliver(List<ShipmentRecord> batch) throws Exception;
+}
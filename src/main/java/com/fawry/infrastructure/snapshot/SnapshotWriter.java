@@ -0,0 +1,168 @@
+package com.fawry.infrastructure.snapshot;
+
+import com.fawry.application.OrderCommitter;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Writes compact snapshots of stock levels and wallet balances while checkouts keep
+// running. Each entity is read under its OrderCommitter stripe, one at a time, which
+// makes the value exact as of the journal sequence at that moment; recovery then
+// replays, per entity, only the events after that sequence. No global pause is needed.
+//
+// Stock is recorded on hand (free plus held). Moving units in or out of a reservation
+// doesn't change that total, so holds need no journaling; they don't survive a restart
+// and their units come back as free stock.
+public class SnapshotWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final Path directory;
+    private final OrderCommitter committer;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ScheduledExecutorService scheduler;
+
+    // reused while capturing, guarded by this
+    private int capturedQuantity;
+    private long capturedBalance;
+
+    public SnapshotWriter(Path directory, OrderCommitter committer) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Snapshot directory cannot be null");
+        }
+        if (committer == null) {
+            throw new IllegalArgumentException("Order committer cannot be null");
+        }
+        if (!committer.hasCommitLog()) {
+            // its commits would be missing from the journal the snapshot is replayed against
+            throw new IllegalArgumentException("Snapshots need an order committer that logs its commits");
+        }
+        this.directory = directory;
+        this.committer = committer;
+    }
+
+    public synchronized Path write(Collection<? extends Product> products, Collection<Customer> customers)
+            throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "snapshot", ".tmp");
+        long replayFrom = Long.MAX_VALUE;
+        int productCount = 0;
+        int customerCount = 0;
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.clear();
+            buffer.position(StateSnapshot.HEADER_SIZE);
+
+            for (Product product : products) {
+                long applied = committer.readStripe(committer.stripeOf(product.getProductId()),
+                        () -> capturedQuantity = product.getOnHandQuantity());
+                ensureRoom(out, 2 * Long.BYTES + Integer.BYTES + Long.BYTES);
+                buffer.putLong(product.getProductId().getMostSignificantBits())
+                        .putLong(product.getProductId().getLeastSignificantBits())
+                        .putInt(capturedQuantity)
+                        .putLong(applied);
+                replayFrom = Math.min(replayFrom, applied);
+                productCount++;
+            }
+            for (Customer customer : customers) {
+                long applied = committer.readStripe(committer.stripeOf(customer),
+                        () -> capturedBalance = customer.getBalance().getCentsExact());
+                byte[] name = customer.getName().getBytes(StandardCharsets.UTF_8);
+                ensureRoom(out, Integer.BYTES + name.length + 2 * Long.BYTES);
+                buffer.putInt(name.length).put(name).putLong(capturedBalance).putLong(applied);
+                replayFrom = Math.min(replayFrom, applied);
+                customerCount++;
+            }
+            drain(out);
+
+            long createdMillis = System.currentTimeMillis();
+            replayFrom = replayFrom == Long.MAX_VALUE ? 0 : replayFrom;
+            buffer.clear();
+            buffer.putInt(StateSnapshot.MAGIC)
+                    .putInt(StateSnapshot.VERSION)
+                    .putLong(createdMillis)
+                    .putLong(replayFrom)
+                    .putInt(productCount)
+                    .putInt(customerCount)
+                    .flip();
+            out.write(buffer, 0);
+            out.force(true);
+
+            Path target = directory.resolve(StateSnapshot.fileName(replayFrom, createdMillis));
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            deleteOldSnapshots();
+            return target;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public synchronized void start(Duration interval, Supplier<? extends Collection<? extends Product>> products,
+            Supplier<? extends Collection<Customer>> customers) {
+        if (interval == null || interval.toMillis() <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be at least one millisecond");
+        }
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                write(products.get(), customers.get());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("State snapshot failed: " + e.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void ensureRoom(FileChannel out, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain(out);
+        }
+        if (buffer.remaining() < bytes) {
+            throw new IOException("Snapshot entry of " + bytes + " bytes is larger than the write buffer");
+        }
+    }
+
+    private void drain(FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void deleteOldSnapshots() throws IOException {
+        List<Path> files = StateSnapshot.list(directory);
+        for (int i = 0; i < files.size() - SNAPSHOTS_KEPT; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+}
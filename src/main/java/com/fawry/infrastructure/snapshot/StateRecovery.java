@@ -0,0 +1,91 @@
+package com.fawry.infrastructure.snapshot;
+
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.infrastructure.journal.CheckoutEvent;
+import com.fawry.infrastructure.journal.CheckoutJournal;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Restores stock and wallets from the latest snapshot, then replays only the journal
+// events each entity has not seen yet.
+public class StateRecovery {
+    private final Path snapshotDirectory;
+    private final Path journalDirectory;
+
+    public StateRecovery(Path snapshotDirectory, Path journalDirectory) {
+        if (snapshotDirectory == null || journalDirectory == null) {
+            throw new IllegalArgumentException("Snapshot and journal directories cannot be null");
+        }
+        this.snapshotDirectory = snapshotDirectory;
+        this.journalDirectory = journalDirectory;
+    }
+
+    // Products and customers are looked up by id and name; unknown ones are skipped.
+    // Returns the last journal sequence applied.
+    public long recover(Function<ProductId, Product> products, Function<String, Customer> customers)
+            throws IOException {
+        Optional<StateSnapshot> snapshot = StateSnapshot.loadLatest(snapshotDirectory);
+        long replayFrom = snapshot.map(StateSnapshot::replayFrom).orElse(0L);
+        Map<ProductId, Long> productsAppliedThrough = new HashMap<>();
+        Map<String, Long> customersAppliedThrough = new HashMap<>();
+
+        if (snapshot.isPresent()) {
+            for (StateSnapshot.ProductEntry entry : snapshot.get().products()) {
+                Product product = products.apply(entry.productId());
+                if (product != null) {
+                    restoreQuantity(product, entry.quantity());
+                    productsAppliedThrough.put(entry.productId(), entry.appliedThrough());
+                }
+            }
+            for (StateSnapshot.CustomerEntry entry : snapshot.get().customers()) {
+                Customer customer = customers.apply(entry.name());
+                if (customer != null) {
+                    restoreBalance(customer, Money.ofCents(entry.balanceCents()));
+                    customersAppliedThrough.put(entry.name(), entry.appliedThrough());
+                }
+            }
+        }
+
+        return CheckoutJournal.replay(journalDirectory, replayFrom, event -> {
+            for (CheckoutEvent.Line line : event.lines()) {
+                if (event.sequence() > productsAppliedThrough.getOrDefault(line.productId(), replayFrom)) {
+                    Product product = products.apply(line.productId());
+                    if (product != null) {
+                        product.reduceQuantity(line.quantity());
+                    }
+                }
+            }
+            if (event.sequence() > customersAppliedThrough.getOrDefault(event.customerName(), replayFrom)) {
+                Customer customer = customers.apply(event.customerName());
+                if (customer != null) {
+                    event.applyToWallet(customer);
+                }
+            }
+        });
+    }
+
+    private static void restoreQuantity(Product product, int quantity) {
+        int difference = quantity - product.getOnHandQuantity();
+        if (difference > 0) {
+            product.increaseQuantity(difference);
+        } else if (difference < 0) {
+            product.reduceQuantity(-difference);
+        }
+    }
+
+    private static void restoreBalance(Customer customer, Money balance) {
+        Money current = customer.getBalance();
+        if (balance.isGreaterThan(current)) {
+            customer.addToWallet(balance.subtract(current));
+        } else if (current.isGreaterThan(balance)) {
+            customer.deductFromWallet(current.subtract(balance));
+        }
+    }
+}
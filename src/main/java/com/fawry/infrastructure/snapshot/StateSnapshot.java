@@ -0,0 +1,100 @@
+package com.fawry.infrastructure.snapshot;
+
+import com.fawry.domain.model.product.ProductId;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Stock levels and wallet balances as captured by SnapshotWriter. Each entry carries the
+// journal sequence it is exact as of ("applied through"); replay only applies newer events.
+//
+// File layout: magic, version, created millis, replay-from sequence, product count,
+// customer count; then products (id msb, id lsb, quantity, applied through) and customers
+// (name length, UTF-8 name, balance in cents, applied through).
+public record StateSnapshot(
+        Path path,
+        long createdMillis,
+        long replayFrom,
+        List<ProductEntry> products,
+        List<CustomerEntry> customers) {
+
+    static final int MAGIC = 0x46534E50;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4;
+    static final String PREFIX = "snapshot-";
+    static final String SUFFIX = ".snap";
+
+    public record ProductEntry(ProductId productId, int quantity, long appliedThrough) {
+    }
+
+    public record CustomerEntry(String name, long balanceCents, long appliedThrough) {
+    }
+
+    public StateSnapshot {
+        products = List.copyOf(products);
+        customers = List.copyOf(customers);
+    }
+
+    public static Optional<StateSnapshot> loadLatest(Path directory) throws IOException {
+        List<Path> files = list(directory);
+        return files.isEmpty() ? Optional.empty() : Optional.of(load(files.get(files.size() - 1)));
+    }
+
+    public static StateSnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.capacity() < HEADER_SIZE || in.getInt() != MAGIC) {
+                throw new IOException("Not a state snapshot: " + path);
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+            long createdMillis = in.getLong();
+            long replayFrom = in.getLong();
+            int productCount = in.getInt();
+            int customerCount = in.getInt();
+
+            List<ProductEntry> products = new ArrayList<>(productCount);
+            for (int i = 0; i < productCount; i++) {
+                products.add(new ProductEntry(new ProductId(in.getLong(), in.getLong()), in.getInt(), in.getLong()));
+            }
+            List<CustomerEntry> customers = new ArrayList<>(customerCount);
+            for (int i = 0; i < customerCount; i++) {
+                customers.add(new CustomerEntry(readName(in), in.getLong(), in.getLong()));
+            }
+            return new StateSnapshot(path, createdMillis, replayFrom, products, customers);
+        }
+    }
+
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (var stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // names carry zero-padded sequence and time, so name order is age order
+        files.sort(null);
+        return files;
+    }
+
+    static String fileName(long replayFrom, long createdMillis) {
+        return String.format("%s%020d-%020d%s", PREFIX, replayFrom, createdMillis, SUFFIX);
+    }
+
+    private static String readName(ByteBuffer in) {
+        byte[] name = new byte[in.getInt()];
+        in.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,141 @@
+package com.fawry.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Load test settings, read from --name=value arguments. Mix weights are relative:
+// --mix=4,3,2,1 means 40% standard, 30% shippable, 20% expirable, 10% both.
+public record LoadConfig(
+        int products,
+        int[] mix,
+        double expiredShare,
+        int stock,
+        int customers,
+        int threads,
+        Duration duration,
+        Duration reportInterval,
+        double checkoutShare,
+        int maxLines,
+        int maxUnits,
+        int balance,
+        boolean restock,
+        long seed) {
+
+    public static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp rise.jar com.fawry.loadtest.LoadGenerator [--name=value ...]",
+            "  --products=10000        catalog size",
+            "  --mix=1,1,1,1           weights of standard, shippable, expirable, expirable+shippable products",
+            "  --expired-share=0.01    share of expirable products that are already expired",
+            "  --stock=1000000         starting units per product",
+            "  --customers=100000      customer population",
+            "  --threads=<2 x cores>   worker threads; each owns a slice of the customers",
+            "  --duration=60s          run time (ms, s, m or h)",
+            "  --report-interval=5s    time between progress lines",
+            "  --checkout-share=0.2    share of operations that are checkouts (the rest add to cart)",
+            "  --max-lines=20          a customer checks out once the cart has this many lines",
+            "  --max-units=5           units per add-to-cart, drawn from 1..max",
+            "  --balance=20000         starting wallet balance, also the top-up after a balance rejection",
+            "  --restock=true          refill products to their starting stock every report interval",
+            "  --seed=<time>           random seed");
+
+    public LoadConfig {
+        if (products <= 0 || customers <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Products, customers and threads must be positive");
+        }
+        if (mix == null || mix.length != 4 || mix[0] < 0 || mix[1] < 0 || mix[2] < 0 || mix[3] < 0
+                || mix[0] + mix[1] + mix[2] + mix[3] == 0) {
+            throw new IllegalArgumentException("Mix must be four non-negative weights, not all zero");
+        }
+        if (expiredShare < 0 || expiredShare > 1 || checkoutShare < 0 || checkoutShare > 1) {
+            throw new IllegalArgumentException("Shares must be between 0 and 1");
+        }
+        if (stock < 0 || balance < 0) {
+            throw new IllegalArgumentException("Stock and balance cannot be negative");
+        }
+        if (maxLines <= 0 || maxUnits <= 0) {
+            throw new IllegalArgumentException("Max lines and max units must be positive");
+        }
+        if (duration == null || duration.isNegative() || duration.isZero()
+                || reportInterval == null || reportInterval.isNegative() || reportInterval.isZero()) {
+            throw new IllegalArgumentException("Duration and report interval must be positive");
+        }
+        mix = mix.clone();
+    }
+
+    // A copy, so the weights can't change after validation.
+    @Override
+    public int[] mix() {
+        return mix.clone();
+    }
+
+    public static LoadConfig parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        LoadConfig config = new LoadConfig(
+                intValue(values.remove("products"), 10_000),
+                mix(values.remove("mix")),
+                doubleValue(values.remove("expired-share"), 0.01),
+                intValue(values.remove("stock"), 1_000_000),
+                intValue(values.remove("customers"), 100_000),
+                intValue(values.remove("threads"), Runtime.getRuntime().availableProcessors() * 2),
+                duration(values.remove("duration"), Duration.ofSeconds(60)),
+                duration(values.remove("report-interval"), Duration.ofSeconds(5)),
+                doubleValue(values.remove("checkout-share"), 0.2),
+                intValue(values.remove("max-lines"), 20),
+                intValue(values.remove("max-units"), 5),
+                intValue(values.remove("balance"), 20_000),
+                Boolean.parseBoolean(values.getOrDefault("restock", "true")),
+                values.containsKey("seed") ? Long.parseLong(values.get("seed")) : System.nanoTime());
+        values.remove("restock");
+        values.remove("seed");
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        return config;
+    }
+
+    private static int intValue(String value, int defaultValue) {
+        return value == null ? defaultValue : Integer.parseInt(value.replace("_", ""));
+    }
+
+    private static double doubleValue(String value, double defaultValue) {
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static int[] mix(String value) {
+        if (value == null) {
+            return new int[] {1, 1, 1, 1};
+        }
+        String[] parts = value.split(",");
+        int[] weights = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+        }
+        return weights;
+    }
+
+    private static Duration duration(String value, Duration defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        String text = value.trim().toLowerCase();
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unknown duration unit: " + value);
+        };
+    }
+}
@@ -0,0 +1,216 @@
+package com.fawry.loadtest;
+
+import com.fawry.application.CheckoutOutcome;
+import com.fawry.application.CheckoutService;
+import com.fawry.application.OrderCommitter;
+import com.fawry.application.RejectionReason;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.service.ShippingService;
+import com.fawry.infrastructure.metrics.CheckoutMetricsRegistry;
+import com.fawry.infrastructure.metrics.LogLinearHistogram;
+import com.fawry.infrastructure.shipment.ShipmentOutbox;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Soak test driver. Builds a synthetic catalog and customer population, then runs
+// add-to-cart and checkout traffic from many threads for a fixed time, printing
+// throughput, latency percentiles and rejection rates every report interval and a
+// summary at the end. Exits with status 1 if any operation failed unexpectedly.
+//
+//   java -cp target/rise-1.0-SNAPSHOT.jar com.fawry.loadtest.LoadGenerator --duration=10m
+public final class LoadGenerator {
+    private final LoadConfig config;
+    private final SyntheticWorkload workload;
+    private final OrderCommitter committer;
+    private final CheckoutService checkoutService;
+    private final CheckoutMetricsRegistry metrics = new CheckoutMetricsRegistry();
+    private final ShipmentOutbox shipments;
+    private final LongAdder shipped = new LongAdder();
+    private final LoadStats stats = new LoadStats();
+    private final PrintStream out;
+    private volatile boolean running = true;
+
+    public LoadGenerator(LoadConfig config, PrintStream out) {
+        this.config = config;
+        this.out = out;
+        this.workload = new SyntheticWorkload(config);
+        // shipments go through the outbox like production, to a sink that only counts them
+        this.shipments = new ShipmentOutbox(batch -> shipped.add(batch.size()));
+        this.committer = new OrderCommitter();
+        this.checkoutService = new CheckoutService(new ShippingService(), committer, shipments);
+        checkoutService.setMetrics(metrics);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (List.of(args).contains("--help")) {
+            System.out.println(LoadConfig.USAGE);
+            return;
+        }
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        long errors = new LoadGenerator(config, System.out).run();
+        System.exit(errors == 0 ? 0 : 1);
+    }
+
+    // Returns the number of operations that failed with an unexpected exception.
+    public long run() throws InterruptedException {
+        int[] mix = config.mix();
+        out.printf("catalog %d products (mix %d/%d/%d/%d, %.1f%% of expirables expired), %d customers, "
+                + "%d threads, %ds%n",
+                config.products(), mix[0], mix[1], mix[2], mix[3],
+                config.expiredShare() * 100, config.customers(), config.threads(), config.duration().toSeconds());
+
+        List<Thread> workers = new ArrayList<>(config.threads());
+        for (int t = 0; t < config.threads(); t++) {
+            int slice = t;
+            Thread worker = new Thread(() -> work(slice), "load-worker-" + t);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        long start = System.nanoTime();
+        long end = start + config.duration().toNanos();
+        workers.forEach(Thread::start);
+
+        long interval = config.reportInterval().toNanos();
+        long nextReport = start + interval;
+        while (true) {
+            long now = System.nanoTime();
+            long wait = Math.min(nextReport, end) - now;
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+                continue;
+            }
+            report(stats.rotate(), now, now - start);
+            if (config.restock()) {
+                restock();
+            }
+            if (now >= end) {
+                break;
+            }
+            nextReport += interval;
+        }
+
+        running = false;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        shipments.close();
+        summarize(System.nanoTime() - start);
+        return stats.total().errors.sum();
+    }
+
+    private void work(int slice) {
+        SplittableRandom random = new SplittableRandom(config.seed() + slice);
+        Product[] products = workload.getProducts();
+        Customer[] customers = workload.getCustomers();
+        // each worker owns every threads-th customer, so no cart is shared between threads
+        int owned = (customers.length - slice + config.threads() - 1) / config.threads();
+        if (owned <= 0) {
+            return;
+        }
+        Money topUp = new Money(config.balance());
+
+        while (running) {
+            Customer customer = customers[slice + random.nextInt(owned) * config.threads()];
+            Cart cart = customer.getCart();
+            try {
+                boolean checkout = !cart.isEmpty()
+                        && (cart.getItems().size() >= config.maxLines() || random.nextDouble() < config.checkoutShare());
+                long begin = System.nanoTime();
+                if (!checkout) {
+                    cart.addItem(products[random.nextInt(products.length)], 1 + random.nextInt(config.maxUnits()));
+                    stats.recordAdd(System.nanoTime() - begin);
+                    continue;
+                }
+
+                CheckoutOutcome outcome = checkoutService.tryCheckout(customer);
+                long nanos = System.nanoTime() - begin;
+                if (outcome instanceof CheckoutOutcome.Rejected rejected) {
+                    stats.recordRejection(rejected.reason(), nanos);
+                    // the customer gives up on this cart; a broke customer gets paid again
+                    cart.clear();
+                    if (rejected.reason() == RejectionReason.INSUFFICIENT_BALANCE) {
+                        committer.credit(customer, topUp);
+                    }
+                } else {
+                    stats.recordCheckout(nanos);
+                }
+            } catch (RuntimeException e) {
+                stats.recordError();
+                cart.clear();
+            }
+        }
+    }
+
+    private void restock() {
+        for (Product product : workload.getProducts()) {
+            int missing = config.stock() - product.getQuantity();
+            if (missing > 0) {
+                product.increaseQuantity(missing);
+            }
+        }
+    }
+
+    private void report(LoadStats.Window window, long now, long elapsed) {
+        double seconds = (now - window.startNanos) / 1e9;
+        LogLinearHistogram.Snapshot checkouts = window.checkoutLatency.snapshot();
+        LogLinearHistogram.Snapshot adds = window.addLatency.snapshot();
+        long rejected = window.rejected();
+        out.printf("[%6.1fs] checkouts %9.0f/s  adds %9.0f/s  checkout p50 %8.1fus p99 %8.1fus p99.9 %8.1fus "
+                + "max %8.1fus  rejected %5.1f%%  errors %d%n",
+                elapsed / 1e9, (checkouts.getCount() - rejected) / seconds, adds.getCount() / seconds,
+                micros(checkouts.getValueAtPercentile(50)), micros(checkouts.getValueAtPercentile(99)),
+                micros(checkouts.getValueAtPercentile(99.9)), micros(checkouts.getMax()),
+                percent(rejected, checkouts.getCount()), window.errors.sum());
+    }
+
+    private void summarize(long elapsed) {
+        LoadStats.Window total = stats.total();
+        LogLinearHistogram.Snapshot checkouts = total.checkoutLatency.snapshot();
+        LogLinearHistogram.Snapshot adds = total.addLatency.snapshot();
+        double seconds = elapsed / 1e9;
+        long rejected = total.rejected();
+
+        out.println();
+        out.printf("total %.1fs: %d checkouts attempted, %d completed (%.0f/s), %d adds (%.0f/s), %d shipped, "
+                + "%d errors%n",
+                seconds, checkouts.getCount(), checkouts.getCount() - rejected,
+                (checkouts.getCount() - rejected) / seconds, adds.getCount(), adds.getCount() / seconds,
+                shipped.sum(), total.errors.sum());
+        out.printf("checkout latency: p50 %.1fus, p90 %.1fus, p99 %.1fus, p99.9 %.1fus, max %.1fus%n",
+                micros(checkouts.getValueAtPercentile(50)), micros(checkouts.getValueAtPercentile(90)),
+                micros(checkouts.getValueAtPercentile(99)), micros(checkouts.getValueAtPercentile(99.9)),
+                micros(checkouts.getMax()));
+        out.printf("add-to-cart latency: p50 %.1fus, p99 %.1fus, max %.1fus%n",
+                micros(adds.getValueAtPercentile(50)), micros(adds.getValueAtPercentile(99)), micros(adds.getMax()));
+        out.printf("rejected %.2f%% of checkouts:", percent(rejected, checkouts.getCount()));
+        for (RejectionReason reason : RejectionReason.values()) {
+            out.printf(" %s %.2f%%", reason.name().toLowerCase(), percent(total.rejected(reason), checkouts.getCount()));
+        }
+        out.println();
+        out.println();
+        out.print(metrics.dump());
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0.0 : part * 100.0 / whole;
+    }
+}
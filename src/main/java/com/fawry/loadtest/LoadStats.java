@@ -0,0 +1,84 @@
+package com.fawry.loadtest;
+
+import com.fawry.application.RejectionReason;
+import com.fawry.infrastructure.metrics.LogLinearHistogram;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latency histograms for one reporting window. Workers record into the
+// current window; the reporter swaps in a fresh one and reads the old one.
+final class LoadStats {
+    private final AtomicReference<Window> current = new AtomicReference<>(new Window());
+    private final Window total = new Window();
+
+    Window current() {
+        return current.get();
+    }
+
+    Window total() {
+        return total;
+    }
+
+    Window rotate() {
+        return current.getAndSet(new Window());
+    }
+
+    void recordAdd(long nanos) {
+        current.get().recordAdd(nanos);
+        total.recordAdd(nanos);
+    }
+
+    void recordCheckout(long nanos) {
+        current.get().recordCheckout(nanos);
+        total.recordCheckout(nanos);
+    }
+
+    void recordRejection(RejectionReason reason, long nanos) {
+        current.get().recordRejection(reason, nanos);
+        total.recordRejection(reason, nanos);
+    }
+
+    void recordError() {
+        current.get().errors.increment();
+        total.errors.increment();
+    }
+
+    static final class Window {
+        final long startNanos = System.nanoTime();
+        final LogLinearHistogram addLatency = new LogLinearHistogram();
+        final LogLinearHistogram checkoutLatency = new LogLinearHistogram();
+        final LongAdder[] rejections = new LongAdder[RejectionReason.values().length];
+        final LongAdder errors = new LongAdder();
+
+        Window() {
+            for (int i = 0; i < rejections.length; i++) {
+                rejections[i] = new LongAdder();
+            }
+        }
+
+        void recordAdd(long nanos) {
+            addLatency.record(nanos);
+        }
+
+        void recordCheckout(long nanos) {
+            checkoutLatency.record(nanos);
+        }
+
+        void recordRejection(RejectionReason reason, long nanos) {
+            checkoutLatency.record(nanos);
+            rejections[reason.ordinal()].increment();
+        }
+
+        long rejected() {
+            long sum = 0;
+            for (LongAdder rejection : rejections) {
+                sum += rejection.sum();
+            }
+            return sum;
+        }
+
+        long rejected(RejectionReason reason) {
+            return rejections[reason.ordinal()].sum();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fawry.loadtest;
+
+import com.fawry.application.ProductCatalog;
+import com.fawry.application.ProductFactory;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Builds the catalog and customer population a load run works against.
+public final class SyntheticWorkload {
+    private final ProductCatalog catalog = new ProductCatalog();
+    private final Product[] products;
+    private final Customer[] customers;
+
+    public SyntheticWorkload(LoadConfig config) {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        int[] mix = config.mix();
+        int totalWeight = mix[0] + mix[1] + mix[2] + mix[3];
+        LocalDate today = LocalDate.now();
+
+        List<Product> created = new ArrayList<>(config.products());
+        for (int i = 0; i < config.products(); i++) {
+            String name = "Product-" + i;
+            Money price = Money.ofCents(100 + random.nextInt(50_000));
+            Weight weight = new Weight(random.nextInt(50, 20_000) / 1000.0);
+            int kind = pick(mix, random.nextInt(totalWeight));
+            LocalDate expiration = random.nextDouble() < config.expiredShare()
+                    ? today.minusDays(1 + random.nextInt(30))
+                    : today.plusDays(1 + random.nextInt(365));
+            created.add(switch (kind) {
+                case 0 -> ProductFactory.createStandardProduct(name, price, config.stock());
+                case 1 -> ProductFactory.createShippableProduct(name, price, config.stock(), weight);
+                case 2 -> ProductFactory.createExpirableProduct(name, price, config.stock(), expiration);
+                default -> ProductFactory.createExpirableShippableProduct(
+                        name, price, config.stock(), weight, expiration);
+            });
+        }
+        catalog.addAll(created);
+        this.products = created.toArray(new Product[0]);
+
+        this.customers = new Customer[config.customers()];
+        Money balance = new Money(config.balance());
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = new Customer("customer-" + i, balance);
+        }
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public Product[] getProducts() {
+        return products;
+    }
+
+    public Customer[] getCustomers() {
+        return customers;
+    }
+
+    private static int pick(int[] weights, int roll) {
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
@@ -0,0 +1,256 @@
+package com.fawry.application;
+
+import com.fawry.domain.exception.CartEmptyException;
+import com.fawry.domain.exception.DomainException;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.ExpirableProduct;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ShippableProduct;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import com.fawry.domain.service.ShippingService;
+import com.fawry.infrastructure.shipment.InMemoryShipmentSink;
+import com.fawry.infrastructure.shipment.ShipmentOutbox;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutServiceTest {
+
+    private final Product card = new StandardProduct("Card", new Money(10), 1_000);
+
+    private List<Customer> shoppers(int count) {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Customer customer = new Customer("Customer " + i, new Money(100));
+            customer.addToCart(card, 1 + i % 3);
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    @Test
+    @DisplayName("Should return results in input order")
+    void shouldKeepInputOrder() {
+        List<Customer> customers = shoppers(50);
+        CheckoutService service = new CheckoutService(new ShippingService(), new OrderCommitter(), (c, items) -> { });
+
+        BatchCheckoutResult batch = service.processCheckoutBatch(customers, 8);
+
+        assertEquals(50, batch.successCount());
+        for (int i = 0; i < customers.size(); i++) {
+            CustomerCheckout checkout = batch.checkouts().get(i);
+            assertSame(customers.get(i), checkout.customer());
+            assertEquals(new Money(10 * (1 + i % 3)), checkout.result().subtotal());
+        }
+    }
+
+    @Test
+    @DisplayName("Should record failures and errors per customer without losing the batch")
+    void shouldIsolateFailures() {
+        List<Customer> customers = shoppers(6);
+        customers.get(1).getCart().clear();
+        Customer broken = customers.get(4);
+        OrderCommitter committer = new OrderCommitter() {
+            @Override
+            public CheckoutOutcome.Rejected tryCommit(Customer customer, Collection<CartItem> items, Money subtotal,
+                    Money shippingCost, Money total) {
+                if (customer == broken) {
+                    throw new AssertionError("committer fault");
+                }
+                return super.tryCommit(customer, items, subtotal, shippingCost, total);
+            }
+        };
+        CheckoutService service = new CheckoutService(new ShippingService(), committer, (c, items) -> { });
+
+        BatchCheckoutResult batch = service.processCheckoutBatch(customers, 2);
+
+        assertEquals(4, batch.successCount());
+        assertInstanceOf(CartEmptyException.class, batch.checkouts().get(1).failure());
+        assertInstanceOf(AssertionError.class, batch.checkouts().get(4).failure());
+        assertTrue(batch.checkouts().get(5).isSuccess());
+        assertFalse(broken.getCart().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should never run more than maxInFlight checkouts at once")
+    void shouldBoundInFlightCheckouts() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        OrderCommitter committer = new OrderCommitter() {
+            @Override
+            public CheckoutOutcome.Rejected tryCommit(Customer customer, Collection<CartItem> items, Money subtotal,
+                    Money shippingCost, Money total) {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return super.tryCommit(customer, items, subtotal, shippingCost, total);
+            }
+        };
+        CheckoutService service = new CheckoutService(new ShippingService(), committer, (c, items) -> { });
+
+        BatchCheckoutResult batch = service.processCheckoutBatch(shoppers(40), 4);
+
+        assertEquals(40, batch.successCount());
+        assertTrue(peak.get() <= 4, "peak in flight was " + peak.get());
+        assertTrue(peak.get() > 1, "checkouts never overlapped");
+    }
+
+    @Test
+    @DisplayName("Should reject a customer listed twice")
+    void shouldRejectDuplicateCustomers() {
+        Customer customer = shoppers(1).get(0);
+        CheckoutService service = new CheckoutService(new ShippingService());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.processCheckoutBatch(List.of(customer, customer)));
+    }
+
+    @Test
+    @DisplayName("Should complete a committed checkout even when the shipment outbox is closed")
+    void shouldCompleteCheckoutWithClosedOutbox() {
+        Product tv = new ShippableProduct("TV", new Money(300), 5, new Weight(2, "kg"));
+        Customer customer = new Customer("Alice", new Money(1_000));
+        customer.addToCart(tv, 2);
+        ShipmentOutbox outbox = new ShipmentOutbox(new InMemoryShipmentSink());
+        outbox.close();
+        CheckoutService service = new CheckoutService(new ShippingService(), new OrderCommitter(), outbox);
+
+        CheckoutResult result = service.processCheckout(customer);
+
+        assertEquals(new Money(600), result.subtotal());
+        assertEquals(3, tv.getQuantity());
+        assertEquals(new Money(1_000).subtract(result.total()), customer.getBalance());
+        assertTrue(customer.getCart().isEmpty());
+        assertEquals(1, service.getPostCommitFailureCount());
+        // nothing is left to be charged twice
+        assertInstanceOf(CheckoutOutcome.Rejected.class, service.tryCheckout(customer));
+        assertEquals(new Money(1_000).subtract(result.total()), customer.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should keep notifying listeners and return the result when one listener throws")
+    void shouldSurviveFailingListener() {
+        Customer customer = shoppers(1).get(0);
+        CheckoutService service = new CheckoutService(new ShippingService(), new OrderCommitter(), (c, items) -> { });
+        List<CheckoutResult> notified = new ArrayList<>();
+        service.addCheckoutListener((c, result) -> {
+            throw new IllegalStateException("listener fault");
+        });
+        service.addCheckoutListener((c, result) -> notified.add(result));
+
+        CheckoutResult result = service.processCheckout(customer);
+
+        assertEquals(List.of(result), notified);
+        assertTrue(customer.getCart().isEmpty());
+        assertEquals(1, service.getPostCommitFailureCount());
+    }
+
+    // Builds the same customer twice, so tryCheckout and processCheckout each see a fresh setup.
+    private static void assertRejectedLikeThrown(RejectionReason reason, Supplier<Customer> setup) {
+        CheckoutService service = new CheckoutService(new ShippingService(), new OrderCommitter(), (c, items) -> { });
+        Customer rejected = setup.get();
+        Money balance = rejected.getBalance();
+        int lines = rejected.getCart().getItems().size();
+
+        CheckoutOutcome outcome = service.tryCheckout(rejected);
+
+        CheckoutOutcome.Rejected rejection = assertInstanceOf(CheckoutOutcome.Rejected.class, outcome);
+        assertFalse(outcome.isSuccess());
+        assertEquals(reason, rejection.reason());
+        assertEquals(balance, rejected.getBalance());
+        assertEquals(lines, rejected.getCart().getItems().size());
+
+        DomainException thrown = assertThrows(DomainException.class, () -> service.processCheckout(setup.get()));
+        assertEquals(reason.getExceptionType(), thrown.getClass());
+        assertEquals(thrown.getMessage(), rejection.message());
+
+        DomainException converted = rejection.toException();
+        assertEquals(reason.getExceptionType(), converted.getClass());
+        assertEquals(rejection.message(), converted.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty cart with the message processCheckout throws")
+    void shouldRejectEmptyCart() {
+        assertRejectedLikeThrown(RejectionReason.EMPTY_CART, () -> new Customer("Alice", new Money(100)));
+    }
+
+    @Test
+    @DisplayName("Should turn away a customer who never had a cart without creating one")
+    void shouldNotCreateCartToRejectIt() {
+        CheckoutService service = new CheckoutService(new ShippingService(), new OrderCommitter(), (c, items) -> { });
+        Customer customer = new Customer("Alice", new Money(100));
+
+        CheckoutOutcome.Rejected rejection =
+                assertInstanceOf(CheckoutOutcome.Rejected.class, service.tryCheckout(customer));
+        assertThrows(CartEmptyException.class, () -> service.processCheckout(customer));
+
+        assertEquals(RejectionReason.EMPTY_CART, rejection.reason());
+        assertEquals(CartEmptyException.MESSAGE, rejection.message());
+        assertFalse(customer.hasCart());
+    }
+
+    @Test
+    @DisplayName("Should reject an expired product with the message processCheckout throws")
+    void shouldRejectExpiredProduct() {
+        Product milk = new ExpirableProduct("Milk", new Money(3), 10, LocalDate.now().minusDays(1));
+        assertRejectedLikeThrown(RejectionReason.PRODUCT_EXPIRED, () -> {
+            Customer customer = new Customer("Alice", new Money(100));
+            customer.addToCart(card, 1);
+            customer.addToCart(milk, 2);
+            return customer;
+        });
+    }
+
+    @Test
+    @DisplayName("Should reject missing stock with the message processCheckout throws")
+    void shouldRejectInsufficientStock() {
+        assertRejectedLikeThrown(RejectionReason.INSUFFICIENT_STOCK, () -> {
+            Product scarce = new StandardProduct("Console", new Money(50), 5);
+            Customer customer = new Customer("Alice", new Money(1_000));
+            customer.addToCart(scarce, 3);
+            // someone else buys most of it after the cart was filled
+            scarce.reduceQuantity(4);
+            return customer;
+        });
+    }
+
+    @Test
+    @DisplayName("Should reject a short balance with the message processCheckout throws")
+    void shouldRejectInsufficientBalance() {
+        assertRejectedLikeThrown(RejectionReason.INSUFFICIENT_BALANCE, () -> {
+            Customer customer = new Customer("Alice", new Money(15));
+            customer.addToCart(card, 2);
+            return customer;
+        });
+    }
+
+    @Test
+    @DisplayName("Should complete through tryCheckout like processCheckout")
+    void shouldCompleteThroughTryCheckout() {
+        Customer customer = shoppers(1).get(0);
+        CheckoutService service = new CheckoutService(new ShippingService(), new OrderCommitter(), (c, items) -> { });
+
+        CheckoutOutcome outcome = service.tryCheckout(customer);
+
+        CheckoutOutcome.Completed completed = assertInstanceOf(CheckoutOutcome.Completed.class, outcome);
+        assertTrue(outcome.isSuccess());
+        assertEquals(new Money(10), completed.result().total());
+        assertEquals(new Money(90), customer.getBalance());
+        assertTrue(customer.getCart().isEmpty());
+    }
+}
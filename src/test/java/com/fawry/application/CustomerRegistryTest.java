@@ -0,0 +1,95 @@
+package com.fawry.application;
+
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerRegistryTest {
+
+    @Test
+    @DisplayName("Should find, reject duplicate and remove customers across shards")
+    void shouldRegisterFindAndRemove() {
+        CustomerRegistry registry = new CustomerRegistry(4, 0);
+        for (int i = 0; i < 1000; i++) {
+            registry.register("customer-" + i, new Money(i));
+        }
+
+        assertEquals(1000, registry.size());
+        assertEquals(new Money(42), registry.get("customer-42").getBalance());
+        assertNull(registry.get("customer-1000"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("customer-7", new Money(1)));
+
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(registry.remove("customer-" + i));
+        }
+        assertFalse(registry.remove("customer-0"));
+        assertEquals(500, registry.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 1, registry.get("customer-" + i) != null, "customer-" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should trim names in computeIfAbsent as register does")
+    void shouldTrimNamesInComputeIfAbsent() {
+        CustomerRegistry registry = new CustomerRegistry(4, 0);
+        Customer created = registry.computeIfAbsent("  Alice ", name -> new Customer(name, new Money(10)));
+
+        assertEquals("Alice", created.getName());
+        assertSame(created, registry.get("Alice"));
+        assertSame(created, registry.computeIfAbsent("Alice  ", name -> fail("should not create " + name)));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(" Alice", new Money(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.computeIfAbsent("   ", name -> new Customer("Bob", new Money(1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.computeIfAbsent("Carol", name -> new Customer("Dave", new Money(1))));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    @DisplayName("Should visit every customer while others are being registered")
+    void shouldIterateWithoutBlockingWriters() throws InterruptedException {
+        CustomerRegistry registry = new CustomerRegistry();
+        for (int i = 0; i < 10_000; i++) {
+            registry.register("existing-" + i, Money.ZERO);
+        }
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                registry.register("new-" + i, Money.ZERO);
+            }
+        });
+        writer.start();
+
+        Set<String> seen = new HashSet<>();
+        AtomicInteger visits = new AtomicInteger();
+        registry.forEach(customer -> {
+            seen.add(customer.getName());
+            visits.incrementAndGet();
+        });
+        writer.join();
+
+        assertEquals(seen.size(), visits.get());
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(seen.contains("existing-" + i));
+        }
+        assertEquals(20_000, registry.getAllCustomers().size());
+    }
+
+    @Test
+    @DisplayName("Should create a customer's cart only when it is first used")
+    void shouldCreateCartLazily() {
+        CustomerRegistry registry = new CustomerRegistry();
+        Customer customer = registry.register("Shopper", new Money(100));
+
+        assertFalse(customer.hasCart());
+        customer.addToCart(new StandardProduct("Card", new Money(10), 5), 2);
+        assertTrue(customer.hasCart());
+        assertEquals(new Money(20), customer.getCart().calculateSubtotal());
+    }
+}
@@ -0,0 +1,156 @@
+package com.fawry.application;
+
+import com.fawry.domain.exception.InvalidProductException;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCommitterTest {
+
+    // Stock that another path takes between the committer's check and its commit.
+    private static final class VanishingProduct extends StandardProduct {
+        private final RuntimeException failure;
+
+        VanishingProduct(ProductId id, RuntimeException failure) {
+            super(id, "Vanishing", new Money(5), 10);
+            this.failure = failure;
+        }
+
+        @Override
+        public void reduceQuantity(int amount) {
+            throw failure;
+        }
+    }
+
+    private static Collection<CartItem> lines(Product... products) {
+        Cart cart = new Cart();
+        for (Product product : products) {
+            cart.addItem(product, 2);
+        }
+        return cart.getItems();
+    }
+
+    @Test
+    @DisplayName("Should take stock and debit the wallet together")
+    void shouldCommitStockAndPayment() {
+        Product first = new StandardProduct("First", new Money(10), 5);
+        Product second = new StandardProduct("Second", new Money(20), 5);
+        Customer customer = new Customer("Customer", new Money(100));
+
+        assertNull(new OrderCommitter().tryCommit(customer, lines(first, second), new Money(60), Money.ZERO,
+                new Money(60)));
+
+        assertEquals(3, first.getQuantity());
+        assertEquals(3, second.getQuantity());
+        assertEquals(new Money(40), customer.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should roll back earlier lines and refund the wallet when a later line fails")
+    void shouldRollBackOnFailedLine() {
+        // lines commit in product id order, so the vanishing product goes last
+        Product first = new StandardProduct(new ProductId(0, 1), "First", new Money(10), 5);
+        Product second = new StandardProduct(new ProductId(0, 2), "Second", new Money(20), 5);
+        Product domainFailure = new VanishingProduct(new ProductId(Long.MAX_VALUE, 1),
+                new InvalidProductException("taken elsewhere"));
+        Customer customer = new Customer("Customer", new Money(100));
+        OrderCommitter committer = new OrderCommitter();
+
+        CheckoutOutcome.Rejected rejected = committer.tryCommit(customer, lines(first, second, domainFailure),
+                new Money(70), Money.ZERO, new Money(70));
+
+        assertEquals(RejectionReason.INSUFFICIENT_STOCK, rejected.reason());
+        assertEquals(5, first.getQuantity());
+        assertEquals(5, second.getQuantity());
+        assertEquals(new Money(100), customer.getBalance());
+
+        Product fault = new VanishingProduct(new ProductId(Long.MAX_VALUE, 2), new IllegalStateException("fault"));
+        assertThrows(IllegalStateException.class, () -> committer.tryCommit(customer, lines(first, fault),
+                new Money(30), Money.ZERO, new Money(30)));
+        assertEquals(5, first.getQuantity());
+        assertEquals(new Money(100), customer.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should reject without side effects when the balance is short")
+    void shouldRejectShortBalance() {
+        Product product = new StandardProduct("Product", new Money(10), 5);
+        Customer customer = new Customer("Customer", new Money(5));
+
+        CheckoutOutcome.Rejected rejected = new OrderCommitter().tryCommit(customer, lines(product),
+                new Money(20), Money.ZERO, new Money(20));
+
+        assertEquals(RejectionReason.INSUFFICIENT_BALANCE, rejected.reason());
+        assertEquals(5, product.getQuantity());
+        assertEquals(new Money(5), customer.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should neither deadlock nor oversell with overlapping carts committed concurrently")
+    void shouldOrderLocksForOverlappingCarts() {
+        // few stripes, so carts collide on stripes as well as on products
+        OrderCommitter committer = new OrderCommitter(4, null);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            products.add(new StandardProduct("Product " + i, new Money(1), 500));
+        }
+        int threads = 8;
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(t);
+                Customer customer = new Customer("Customer " + t, new Money(1_000_000));
+                workers.add(new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int round = 0; round < 2_000; round++) {
+                        Cart cart = new Cart();
+                        for (int line = 0; line < 4; line++) {
+                            Product product = products.get(random.nextInt(products.size()));
+                            if (!cart.containsProduct(product.getProductId())) {
+                                cart.addItem(product, 1);
+                            }
+                        }
+                        if (cart.isEmpty()) {
+                            continue;
+                        }
+                        Money total = cart.calculateSubtotal();
+                        if (committer.tryCommit(customer, cart.getItems(), total, Money.ZERO, total) == null) {
+                            sold.addAndGet(cart.getTotalItemCount());
+                        }
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        });
+
+        int left = products.stream().mapToInt(Product::getQuantity).sum();
+        assertTrue(products.stream().allMatch(product -> product.getQuantity() >= 0));
+        assertEquals(12 * 500, left + sold.get());
+        assertTrue(left < 12 * 500 / 2, "carts should have competed for the last units");
+    }
+}
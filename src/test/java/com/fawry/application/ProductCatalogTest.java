@@ -0,0 +1,128 @@
+package com.fawry.application;
+
+import com.fawry.domain.exception.InvalidProductException;
+import com.fawry.domain.model.product.ExpirableProduct;
+import com.fawry.domain.model.product.ExpirableShippableProduct;
+import com.fawry.domain.model.product.ExpiryIndex;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ShippableProduct;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogTest {
+
+    private final ProductCatalog catalog = new ProductCatalog();
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Should search names by case-insensitive prefix in name order")
+    void shouldSearchByPrefix() {
+        catalog.addAll(List.of(
+                new StandardProduct("Cheddar", new Money(5), 1),
+                new StandardProduct("cheese", new Money(5), 1),
+                new StandardProduct("Chai", new Money(5), 1),
+                new StandardProduct("Bread", new Money(5), 1),
+                new StandardProduct("  Cherry ", new Money(5), 1)));
+
+        assertEquals(List.of("Cheddar", "cheese", "Cherry"), names(catalog.findByNamePrefix("CHE", 10)));
+        assertEquals(List.of("Chai", "Cheddar"), names(catalog.findByNamePrefix("ch", 2)));
+        assertEquals(List.of(), catalog.findByNamePrefix("x", 10));
+        assertEquals(5, catalog.findByNamePrefix("", 10).size());
+    }
+
+    @Test
+    @DisplayName("Should keep products that share a name apart and not match past the name")
+    void shouldSeparateDuplicateNames() {
+        Product first = new StandardProduct("Milk", new Money(5), 1);
+        Product second = new StandardProduct("milk", new Money(6), 1);
+        Product longer = new StandardProduct("Milkshake", new Money(7), 1);
+        catalog.addAll(List.of(first, second, longer));
+
+        List<Product> milk = catalog.findByNamePrefix("milk", 10);
+        assertEquals(3, milk.size());
+        assertEquals(Set.of(first, second), Set.copyOf(milk.subList(0, 2)));
+        assertSame(longer, milk.get(2));
+        // the separator sorts below any printable character, so exact names come first
+        assertEquals(Set.of(first, second), Set.copyOf(catalog.findByNamePrefix("milk", 2)));
+    }
+
+    @Test
+    @DisplayName("Should drop a removed product from every index")
+    void shouldRemoveFromIndexes() {
+        Product cheese = new ExpirableShippableProduct("Cheese", new Money(5), 1, new Weight(0.2),
+                LocalDate.now().plusDays(5));
+        Product otherCheese = new StandardProduct("Cheese", new Money(6), 1);
+        catalog.addAll(List.of(cheese, otherCheese));
+
+        assertTrue(catalog.remove(cheese.getProductId()));
+        assertFalse(catalog.remove(cheese.getProductId()));
+
+        assertEquals(List.of(otherCheese), catalog.findByNamePrefix("cheese", 10));
+        assertTrue(catalog.getShippableProducts().isEmpty());
+        assertTrue(catalog.getExpirableProducts().isEmpty());
+        assertTrue(catalog.findById(cheese.getProductId()).isEmpty());
+        assertEquals(1, catalog.size());
+    }
+
+    @Test
+    @DisplayName("Should index shippable and expirable products by type")
+    void shouldIndexByType() {
+        Product standard = new StandardProduct("Card", new Money(5), 1);
+        Product shippable = new ShippableProduct("TV", new Money(5), 1, new Weight(8.0));
+        Product expirable = new ExpirableProduct("Yogurt", new Money(5), 1, LocalDate.now().plusDays(2));
+        Product both = new ExpirableShippableProduct("Cheese", new Money(5), 1, new Weight(0.2),
+                LocalDate.now().plusDays(5));
+        catalog.addAll(List.of(standard, shippable, expirable, both));
+
+        assertEquals(Set.of(shippable, both), Set.copyOf(catalog.getShippableProducts()));
+        assertEquals(Set.of(expirable, both), Set.copyOf(catalog.getExpirableProducts()));
+        assertEquals(4, catalog.getAllProducts().size());
+        assertThrows(UnsupportedOperationException.class, () -> catalog.getShippableProducts().clear());
+    }
+
+    @Test
+    @DisplayName("Should reject duplicate ids and resolve many ids in request order")
+    void shouldRejectDuplicatesAndResolveMany() {
+        Product first = new StandardProduct("First", new Money(5), 1);
+        Product second = new StandardProduct("Second", new Money(5), 1);
+        Product missing = new StandardProduct("Missing", new Money(5), 1);
+        catalog.addAll(List.of(first, second));
+
+        assertThrows(InvalidProductException.class, () -> catalog.add(first));
+        assertEquals(List.of(second, first), List.copyOf(catalog.getAll(
+                List.of(second.getProductId(), missing.getProductId(), first.getProductId())).values()));
+        assertSame(first, catalog.getById(first.getProductId()));
+        assertThrows(InvalidProductException.class, () -> catalog.getById(missing.getProductId()));
+    }
+
+    @Test
+    @DisplayName("Should keep an expiry index's membership in step with the catalog")
+    void shouldRegisterExpirablesWithIndex() {
+        ExpiryIndex index = new ExpiryIndex();
+        ProductCatalog indexed = new ProductCatalog(index);
+        ExpirableProduct old = new ExpirableProduct("Old milk", new Money(3), 5, LocalDate.now().minusDays(2));
+        ExpirableShippableProduct fresh = new ExpirableShippableProduct(
+                "Fresh cheese", new Money(9), 5, new Weight(0.3), LocalDate.now().plusDays(5));
+        indexed.addAll(List.of(old, fresh, new StandardProduct("Pen", new Money(1), 5)));
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(old), index.getExpired());
+        assertEquals(List.of(fresh), index.getExpiringWithin(7));
+        assertTrue(old.isExpired());
+
+        assertTrue(indexed.remove(old.getProductId()));
+        assertEquals(1, index.size());
+        assertTrue(index.getExpired().isEmpty());
+    }
+}
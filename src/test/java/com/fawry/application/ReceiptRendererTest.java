@@ -0,0 +1,99 @@
+package com.fawry.application;
+
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReceiptRendererTest {
+
+    private static final List<Locale> LOCALES = List.of(Locale.ROOT, Locale.US, Locale.GERMANY, Locale.FRANCE,
+            Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("hi-IN-u-nu-deva"), Locale.forLanguageTag("th-TH-u-nu-thai"));
+    private static final String[] NAMES = {"TV", "Cheese", "Scratch Card", "A very long product name", "Café crème", "كتاب"};
+
+    // What ReceiptService.printReceipt printed before the renderer, with printf's default locale made explicit.
+    private static String legacyReceipt(CheckoutResult result, Locale locale) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        output.println("** Checkout receipt **");
+        for (CartItem item : result.purchasedItems()) {
+            output.printf(locale, "%dx %-14s %8.0f%n",
+                    item.getQuantity(),
+                    item.getProduct().getName(),
+                    item.calculateSubtotal().getAmount().doubleValue());
+        }
+        output.println("----------------------");
+        output.printf(locale, "Subtotal         %8.0f%n", result.subtotal().getAmount().doubleValue());
+        output.printf(locale, "Shipping         %8.0f%n", result.shippingCost().getAmount().doubleValue());
+        output.printf(locale, "Amount           %8.0f%n", result.total().getAmount().doubleValue());
+        output.printf(locale, "Remaining balance: $%.2f%n", result.remainingBalance().getAmount().doubleValue());
+        output.println();
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Money randomAmount(Random random) {
+        return switch (random.nextInt(4)) {
+            // the half-unit rounding edge
+            case 0 -> Money.ofCents(random.nextInt(10_000) * 100L + 50);
+            // beyond the integer fast path
+            case 1 -> new Money(new BigDecimal("12345678901234567.89"));
+            default -> Money.ofCents(random.nextInt(10_000_000));
+        };
+    }
+
+    private static CheckoutResult randomReceipt(Random random) {
+        List<CartItem> items = new ArrayList<>();
+        Money subtotal = Money.ZERO;
+        for (int i = 0, lines = 1 + random.nextInt(4); i < lines; i++) {
+            StandardProduct product = new StandardProduct(NAMES[random.nextInt(NAMES.length)], randomAmount(random), 100);
+            CartItem item = new CartItem(product, 1 + random.nextInt(12));
+            items.add(item);
+            subtotal = subtotal.add(item.calculateSubtotal());
+        }
+        Money shipping = randomAmount(random);
+        return new CheckoutResult(items, subtotal, shipping, subtotal.add(shipping), randomAmount(random));
+    }
+
+    @Test
+    @DisplayName("Should render exactly what the old printf code printed, in every locale")
+    void shouldMatchLegacyPrintf() {
+        Random random = new Random(13);
+        for (Locale locale : LOCALES) {
+            ReceiptRenderer renderer = new ReceiptRenderer(locale);
+            for (int i = 0; i < 2_000; i++) {
+                CheckoutResult result = randomReceipt(random);
+                StringBuilder rendered = new StringBuilder();
+                renderer.render(result, rendered);
+                assertEquals(legacyReceipt(result, locale), rendered.toString(), "locale " + locale.toLanguageTag());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should print receipts in the default format locale like printf did")
+    void shouldFollowDefaultLocale() {
+        Locale previous = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+            CheckoutResult result = randomReceipt(new Random(7));
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new ReceiptService(new PrintStream(bytes, true, StandardCharsets.UTF_8)).printReceipt(result);
+
+            String printed = bytes.toString(StandardCharsets.UTF_8);
+            assertEquals(legacyReceipt(result, Locale.GERMANY), printed);
+            assertTrue(printed.contains("Remaining balance: $") && printed.matches("(?s).*\\$\\d+,\\d\\d.*"));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, previous);
+        }
+    }
+}
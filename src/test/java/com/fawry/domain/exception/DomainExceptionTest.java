@@ -0,0 +1,52 @@
+package com.fawry.domain.exception;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.net.URL;
+import java.net.URLClassLoader;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainExceptionTest {
+
+    private static final String STACK_TRACES = "fawry.domainExceptions.stackTraces";
+
+    // The switch is read once when DomainException is initialised, so the class is
+    // loaded afresh, in its own class loader, with the property set.
+    private static RuntimeException createInFreshLoader(String stackTraces) throws Exception {
+        String previous = System.getProperty(STACK_TRACES);
+        URL classes = DomainException.class.getProtectionDomain().getCodeSource().getLocation();
+        System.setProperty(STACK_TRACES, stackTraces);
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {classes}, ClassLoader.getPlatformClassLoader())) {
+            Class<?> type = Class.forName(CartEmptyException.class.getName(), true, loader);
+            return (RuntimeException) type.getConstructor().newInstance();
+        } finally {
+            if (previous == null) {
+                System.clearProperty(STACK_TRACES);
+            } else {
+                System.setProperty(STACK_TRACES, previous);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip stack traces and suppression by default")
+    void shouldBeStacklessByDefault() {
+        DomainException exception = new InsufficientStockException("Console", 3, 1);
+
+        assertEquals(0, exception.getStackTrace().length);
+        exception.addSuppressed(new IllegalStateException("ignored"));
+        assertEquals(0, exception.getSuppressed().length);
+        assertEquals(0, new CartEmptyException().getStackTrace().length);
+        assertEquals(0, new InsufficientBalanceException("short").fillInStackTrace().getStackTrace().length);
+    }
+
+    @Test
+    @DisplayName("Should capture stack traces when the system property turns them on")
+    void shouldCaptureStackTracesWhenEnabled() throws Exception {
+        RuntimeException enabled = createInFreshLoader("true");
+        assertNotSame(CartEmptyException.class, enabled.getClass());
+        assertTrue(enabled.getStackTrace().length > 0);
+
+        assertEquals(0, createInFreshLoader("false").getStackTrace().length);
+    }
+}
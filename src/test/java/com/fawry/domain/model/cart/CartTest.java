@@ -0,0 +1,93 @@
+package com.fawry.domain.model.cart;
+
+import com.fawry.domain.model.product.ExpirableShippableProduct;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ShippableProduct;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartTest {
+
+    @Test
+    @DisplayName("Should keep running totals in step with add, update and remove")
+    void shouldMaintainTotals() {
+        Product laptop = new ShippableProduct("Laptop", new Money(300), 100, new Weight(2.5));
+        Product card = new StandardProduct("Card", new Money(new BigDecimal("9.99")), 100);
+        Cart cart = new Cart();
+
+        cart.addItem(laptop, 2);
+        cart.addItem(card, 3);
+        cart.addItem(laptop, 1);
+        assertEquals(new Money(new BigDecimal("929.97")), cart.calculateSubtotal());
+        assertEquals(6, cart.getTotalItemCount());
+        assertEquals(new Weight(7.5), cart.getTotalShippableWeight());
+
+        cart.updateItemQuantity(card.getProductId(), 1);
+        cart.removeItem(laptop.getProductId());
+        assertEquals(new Money(new BigDecimal("9.99")), cart.calculateSubtotal());
+        assertEquals(1, cart.getTotalItemCount());
+        assertTrue(cart.getTotalShippableWeight().isZero());
+
+        cart.clear();
+        assertEquals(Money.ZERO, cart.calculateSubtotal());
+        assertEquals(0, cart.getTotalItemCount());
+    }
+
+    @Test
+    @DisplayName("Should follow quantity changes made directly on a line")
+    void shouldFollowLineChanges() {
+        Product laptop = new ShippableProduct("Laptop", new Money(300), 100, new Weight(2.5));
+        Cart cart = new Cart();
+        cart.addItem(laptop, 4);
+        CartItem item = cart.getItem(laptop.getProductId());
+
+        item.decreaseQuantity(3);
+        assertEquals(new Money(300), cart.calculateSubtotal());
+        assertEquals(new Weight(2.5), cart.getTotalShippableWeight());
+
+        cart.removeItem(laptop.getProductId());
+        item.setQuantity(10);
+        assertEquals(Money.ZERO, cart.calculateSubtotal());
+        assertDoesNotThrow(cart::verifyTotals);
+    }
+
+    @Test
+    @DisplayName("Should match a full recompute after random mutations")
+    void shouldMatchFullRecompute() {
+        List<Product> products = List.of(
+                new StandardProduct("A", new Money(new BigDecimal("0.01")), 1_000_000),
+                new ShippableProduct("B", new Money(new BigDecimal("19.99")), 1_000_000, new Weight(0.325)),
+                new ExpirableShippableProduct("C", new Money(new BigDecimal("3.50")), 1_000_000,
+                        new Weight(1.2), LocalDate.now().plusDays(5)),
+                new StandardProduct("D", new Money(120), 1_000_000));
+        Cart cart = new Cart();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 5_000; i++) {
+            Product product = products.get(random.nextInt(products.size()));
+            boolean present = cart.containsProduct(product.getProductId());
+            switch (random.nextInt(4)) {
+                case 0, 1 -> cart.addItem(product, 1 + random.nextInt(20));
+                case 2 -> {
+                    if (present) {
+                        cart.updateItemQuantity(product.getProductId(), 1 + random.nextInt(20));
+                    }
+                }
+                default -> {
+                    if (present) {
+                        cart.removeItem(product.getProductId());
+                    }
+                }
+            }
+            assertDoesNotThrow(cart::verifyTotals);
+        }
+    }
+}
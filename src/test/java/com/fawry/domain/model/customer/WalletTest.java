@@ -0,0 +1,125 @@
+package com.fawry.domain.model.customer;
+
+import com.fawry.domain.model.valueobject.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20_000;
+
+    @Test
+    @DisplayName("Should debit only what the balance covers, parked credits included")
+    void shouldDebitWithinBalance() {
+        Wallet wallet = new Wallet(new Money(10));
+
+        assertTrue(wallet.tryDebit(new Money(4)));
+        assertFalse(wallet.tryDebit(new Money(7)));
+        wallet.credit(new Money(1));
+        assertTrue(wallet.tryDebit(new Money(7)));
+        assertEquals(Money.ZERO, wallet.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should reject amounts too large for a count of cents")
+    void shouldRejectOverflowedAmounts() {
+        Money huge = new Money(new BigDecimal("1e18"));
+        assertFalse(huge.fitsInCents());
+
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class, () -> new Wallet(huge));
+        assertEquals("Wallet balance is too large: " + huge, rejected.getMessage());
+        Wallet wallet = new Wallet(new Money(10));
+        assertThrows(IllegalArgumentException.class, () -> wallet.credit(huge));
+        assertFalse(wallet.tryDebit(huge));
+        assertEquals(new Money(10), wallet.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should conserve the total under concurrent debits and credits")
+    void shouldConserveTotalUnderContention() throws InterruptedException {
+        Wallet wallet = new Wallet(new Money(100));
+        AtomicLong debited = new AtomicLong();
+        AtomicLong credited = new AtomicLong();
+        runConcurrently(worker -> {
+            for (int i = 0; i < ROUNDS; i++) {
+                long cents = 1 + (i + worker) % 7;
+                if ((i + worker) % 3 == 0) {
+                    wallet.credit(Money.ofCents(cents));
+                    credited.addAndGet(cents);
+                } else if (wallet.tryDebit(Money.ofCents(cents))) {
+                    debited.addAndGet(cents);
+                }
+            }
+        }, null);
+
+        assertEquals(Money.ofCents(10_000 + credited.get() - debited.get()), wallet.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should never report less than the balance while credits are being folded in")
+    void shouldNotUnderReportDuringFolds() throws InterruptedException {
+        // every worker credits a cent before debiting it, so the true balance never drops
+        // below the opening one, whether the cent sits in the balance or a credit cell
+        Wallet wallet = new Wallet(new Money(1));
+        AtomicLong lowest = new AtomicLong(Long.MAX_VALUE);
+        runConcurrently(worker -> {
+            for (int i = 0; i < ROUNDS; i++) {
+                wallet.credit(Money.ofCents(1));
+                assertTrue(wallet.tryDebit(Money.ofCents(1)));
+            }
+        }, () -> lowest.accumulateAndGet(wallet.getBalance().getCentsExact(), Math::min));
+
+        assertTrue(lowest.get() >= 100, "lowest balance read was " + lowest.get());
+        assertEquals(new Money(1), wallet.getBalance());
+    }
+
+    private interface Worker {
+        void run(int worker);
+    }
+
+    private static void runConcurrently(Worker work, Runnable reader) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int worker = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    work.run(worker);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+        Thread readerThread = reader == null ? null : new Thread(() -> {
+            while (!done.get()) {
+                reader.run();
+            }
+        });
+        threads.forEach(Thread::start);
+        if (readerThread != null) {
+            readerThread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        done.set(true);
+        if (readerThread != null) {
+            readerThread.join();
+        }
+        assertEquals(List.of(), failures);
+    }
+}
@@ -0,0 +1,135 @@
+package com.fawry.domain.model.product;
+
+import com.fawry.domain.exception.ProductExpiredException;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 1);
+
+    private final MutableClock clock = new MutableClock();
+    private final ExpiryIndex index = new ExpiryIndex(clock);
+
+    @Test
+    @DisplayName("Should expire a whole day's bucket on the tick after that day")
+    void shouldExpireBucketOnTick() {
+        ExpirableProduct bread = new ExpirableProduct("Bread", new Money(5), 10, TODAY);
+        ExpirableShippableProduct cheese = new ExpirableShippableProduct(
+                "Cheese", new Money(20), 10, new Weight(0.2), TODAY);
+        ExpirableProduct milk = new ExpirableProduct("Milk", new Money(3), 10, TODAY.plusDays(1));
+        index.registerAll(List.of(bread, cheese, milk, new StandardProduct("Pen", new Money(1), 10)));
+        index.start();
+        try {
+            clock.advance(Duration.ofDays(1));
+            // while the index runs, the bucket flag decides until the tick flips it
+            assertFalse(bread.isExpired());
+            assertEquals(2, index.tick());
+
+            assertTrue(bread.isExpired());
+            assertTrue(cheese.isExpired());
+            assertFalse(milk.isExpired());
+            assertEquals(0, index.tick());
+            assertEquals(3, index.size());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should expire products by date when the index was never started")
+    void shouldFallBackToDateWhenNotRunning() {
+        ExpirableProduct bread = new ExpirableProduct("Bread", new Money(5), 10, TODAY);
+        ExpirableShippableProduct cheese = new ExpirableShippableProduct(
+                "Cheese", new Money(20), 10, new Weight(0.2), TODAY.plusDays(1));
+        index.registerAll(List.of(bread, cheese));
+
+        assertFalse(index.isRunning());
+        assertFalse(bread.isExpired());
+        clock.advance(Duration.ofDays(1));
+        assertTrue(bread.isExpired());
+        assertFalse(cheese.isExpired());
+        clock.advance(Duration.ofDays(1));
+        assertTrue(cheese.isExpired());
+    }
+
+    @Test
+    @DisplayName("Should list products expiring within the next N days, soonest first")
+    void shouldListExpiringWithin() {
+        ExpirableProduct today = new ExpirableProduct("A", new Money(1), 1, TODAY);
+        ExpirableProduct inTwoDays = new ExpirableProduct("B", new Money(1), 1, TODAY.plusDays(2));
+        ExpirableProduct nextMonth = new ExpirableProduct("C", new Money(1), 1, TODAY.plusDays(30));
+        ExpirableProduct yesterday = new ExpirableProduct("D", new Money(1), 1, TODAY.minusDays(1));
+        index.registerAll(List.of(nextMonth, inTwoDays, today, yesterday));
+
+        assertEquals(List.of(today), index.getExpiringWithin(1));
+        assertEquals(List.of(today, inTwoDays), index.getExpiringWithin(3));
+        assertEquals(List.of(yesterday), index.getExpired());
+        assertTrue(yesterday.isExpired());
+    }
+
+    @Test
+    @DisplayName("Should reject checkout of an indexed product once its bucket has expired")
+    void shouldRejectExpiredProductAtCheckout() {
+        ExpirableProduct bread = new ExpirableProduct("Bread", new Money(5), 10, TODAY);
+        index.register(bread);
+        Cart cart = new Cart();
+        cart.addItem(bread, 1);
+
+        assertDoesNotThrow(cart::validateForCheckout);
+        clock.advance(Duration.ofDays(1));
+        index.tick();
+        assertThrows(ProductExpiredException.class, cart::validateForCheckout);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the date check after unregistering")
+    void shouldFallBackAfterUnregister() {
+        ExpirableProduct old = new ExpirableProduct("Old", new Money(5), 10, LocalDate.now().minusDays(1));
+        ExpirableProduct fresh = new ExpirableProduct("Fresh", new Money(5), 10, LocalDate.now().plusDays(1));
+        ExpiryIndex systemIndex = new ExpiryIndex();
+        systemIndex.registerAll(List.of(old, fresh));
+
+        assertTrue(systemIndex.unregister(old));
+        assertFalse(systemIndex.unregister(old));
+        assertTrue(old.isExpired());
+        assertFalse(fresh.isExpired());
+        assertTrue(systemIndex.getExpired().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> systemIndex.register(new StandardProduct("Pen", new Money(1), 1)));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = TODAY.atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
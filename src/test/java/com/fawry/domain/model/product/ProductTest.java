@@ -6,6 +6,12 @@ import com.fawry.domain.model.valueobject.Weight;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ProductTest {
@@ -145,4 +151,74 @@ class ProductTest {
         assertEquals(expirationDate, product.getExpirationDate());
         assertFalse(product.isExpired());
     }
+
+    @Test
+    @DisplayName("Should refuse to reduce below zero without changing stock")
+    void shouldNotReduceBelowZero() {
+        StandardProduct product = new StandardProduct("Test", new Money(10), 5);
+
+        assertFalse(product.tryReduce(6));
+        assertEquals(5, product.getQuantity());
+        assertTrue(product.tryReduce(5));
+        assertEquals(0, product.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should never oversell under concurrent reductions")
+    void shouldNotOversellUnderConcurrentReductions() throws InterruptedException {
+        int stock = 10_000;
+        int threads = 8;
+        StandardProduct product = new StandardProduct("Hot Item", new Money(1), stock);
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (product.tryReduce(3)) {
+                    sold.addAndGet(3);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(stock - sold.get(), product.getQuantity());
+        assertTrue(product.getQuantity() >= 0 && product.getQuantity() < 3);
+    }
+
+    @Test
+    @DisplayName("Should round-trip product ID through its canonical string")
+    void shouldRoundTripProductId() {
+        String canonical = "0f8fad5b-d9cb-469f-a165-70867728950e";
+
+        ProductId id = new ProductId(canonical.toUpperCase());
+
+        assertEquals(canonical, id.getId());
+        assertEquals(new ProductId(canonical), id);
+        assertEquals(new ProductId(canonical).hashCode(), id.hashCode());
+        assertEquals(UUID.fromString(canonical).getMostSignificantBits(), id.getMostSignificantBits());
+        assertThrows(IllegalArgumentException.class, () -> new ProductId("not-a-uuid"));
+    }
+
+    @Test
+    @DisplayName("Should generate version 4 product IDs ordered like their strings")
+    void shouldGenerateVersion4ProductIds() {
+        ProductId first = new ProductId();
+        ProductId second = new ProductId();
+        UUID uuid = UUID.fromString(first.getId());
+
+        assertEquals(4, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertNotEquals(first, second);
+        assertEquals(Integer.signum(first.getId().compareTo(second.getId())),
+                Integer.signum(first.compareTo(second)));
+    }
 }
@@ -0,0 +1,137 @@
+package com.fawry.domain.model.reservation;
+
+import com.fawry.domain.exception.InsufficientStockException;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockReservationsTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final StockReservations reservations =
+            new StockReservations(Duration.ofSeconds(30), Duration.ofSeconds(1), 16, clock);
+
+    @Test
+    @DisplayName("Should take stock out when a hold is placed")
+    void shouldTakeStockOnReserve() {
+        StandardProduct product = new StandardProduct("Test", new Money(10), 10);
+
+        StockHold hold = reservations.reserve(product, 4);
+
+        assertEquals(4, hold.getQuantity());
+        assertEquals(6, product.getQuantity());
+        assertEquals(4, product.getHeldQuantity());
+        assertEquals(10, product.getOnHandQuantity());
+        assertThrows(InsufficientStockException.class, () -> reservations.reserve(product, 7));
+        assertEquals(6, product.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should release expired holds on tick")
+    void shouldReleaseExpiredHolds() {
+        StandardProduct product = new StandardProduct("Test", new Money(10), 10);
+        StockHold hold = reservations.reserve(product, 4);
+
+        clock.advance(Duration.ofSeconds(29));
+        assertEquals(0, reservations.expireDue());
+        assertTrue(hold.isActive());
+
+        // more than one full turn of the wheel
+        clock.advance(Duration.ofSeconds(20));
+        assertEquals(1, reservations.expireDue());
+        assertFalse(hold.isActive());
+        assertEquals(10, product.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should restart the TTL when a hold is adjusted")
+    void shouldRestartTtlOnAdjust() {
+        StandardProduct product = new StandardProduct("Test", new Money(10), 10);
+        StockHold hold = reservations.reserve(product, 4);
+
+        clock.advance(Duration.ofSeconds(20));
+        assertSame(hold, reservations.adjust(hold, product, 2));
+        assertEquals(8, product.getQuantity());
+
+        clock.advance(Duration.ofSeconds(20));
+        assertEquals(0, reservations.expireDue());
+        clock.advance(Duration.ofSeconds(11));
+        assertEquals(1, reservations.expireDue());
+        assertEquals(10, product.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should turn a hold into a sale on consume")
+    void shouldConsumeHold() {
+        StandardProduct product = new StandardProduct("Test", new Money(10), 10);
+        StockHold hold = reservations.reserve(product, 4);
+
+        assertEquals(4, hold.consume());
+        clock.advance(Duration.ofMinutes(5));
+        assertEquals(0, reservations.expireDue());
+        assertEquals(6, product.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should hold stock for cart lines and release it when removed")
+    void shouldHoldStockForCartLines() {
+        StandardProduct product = new StandardProduct("Test", new Money(10), 10);
+        Cart cart = new Cart(reservations);
+
+        cart.addItem(product, 3);
+        cart.addItem(product, 2);
+        assertEquals(5, product.getQuantity());
+
+        cart.updateItemQuantity(product.getProductId(), 1);
+        assertEquals(9, product.getQuantity());
+
+        cart.removeItem(product.getProductId());
+        assertEquals(10, product.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should fall back to free stock when the hold expired before checkout")
+    void shouldCommitFromFreeStockAfterExpiry() {
+        StandardProduct product = new StandardProduct("Test", new Money(10), 10);
+        Cart cart = new Cart(reservations);
+        cart.addItem(product, 3);
+
+        clock.advance(Duration.ofMinutes(1));
+        reservations.expireDue();
+        assertEquals(10, product.getQuantity());
+
+        cart.getItem(product.getProductId()).commitStock();
+        assertEquals(7, product.getQuantity());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
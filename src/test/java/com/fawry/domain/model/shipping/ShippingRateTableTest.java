@@ -0,0 +1,80 @@
+package com.fawry.domain.model.shipping;
+
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShippingRateTableTest {
+
+    private static ShippingRateTable tieredTable() {
+        ShippingZone local = new ShippingZone("LOCAL", List.of(
+                new RateBracket(new Weight(5), new Money(20), new Money(8)),
+                new RateBracket(Weight.ZERO, new Money(5), new Money(10)),
+                new RateBracket(new Weight(20), new Money(50), new Money(6))),
+                new Money(1000));
+        ShippingZone international = new ShippingZone("INTL", List.of(
+                new RateBracket(Weight.ZERO, new Money(100), new Money(40))),
+                null);
+        return ShippingRateTable.compile("LOCAL", List.of(local, international));
+    }
+
+    @Test
+    @DisplayName("Should pick the bracket whose lower bound is the largest one not above the weight")
+    void shouldPickBracketByWeight() {
+        ShippingRateTable table = tieredTable();
+        int local = table.indexOf("LOCAL");
+
+        assertEquals(new Money(5), table.rateForGrams(local, 0));
+        assertEquals(new Money(5 + 49.99), table.rateForGrams(local, 4999));
+        assertEquals(new Money(20 + 40), table.rateForGrams(local, 5000));
+        assertEquals(new Money(50 + 120), table.rateForGrams(local, 20000));
+        assertEquals(new Money(new BigDecimal("55.00")), table.rateForKilograms(local, new BigDecimal("4.9995")));
+        assertEquals(new Money(100 + 80), table.rateForGrams(table.indexOf("INTL"), 2000));
+    }
+
+    @Test
+    @DisplayName("Should apply each zone's own free shipping threshold")
+    void shouldApplyPerZoneThreshold() {
+        ShippingRateTable table = tieredTable();
+
+        assertTrue(table.qualifiesForFreeShipping(table.indexOf(null), new Money(1000)));
+        assertFalse(table.qualifiesForFreeShipping(table.indexOf("LOCAL"), new Money(999.99)));
+        assertFalse(table.qualifiesForFreeShipping(table.indexOf("INTL"), new Money(1000000)));
+        assertThrows(IllegalArgumentException.class, () -> table.indexOf("MARS"));
+    }
+
+    @Test
+    @DisplayName("Should match the exact BigDecimal rate for whole and fractional grams")
+    void shouldMatchBigDecimalRate() {
+        ShippingRateTable table = ShippingRateTable.flat(new Money(10.0), new Money(16000.0));
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            long grams = random.nextInt(1_000_000);
+            BigDecimal kilograms = BigDecimal.valueOf(grams, 3);
+            Money expected = new Money(10.0).multiply(kilograms);
+
+            assertEquals(expected, table.rateForGrams(0, grams));
+            assertEquals(expected, table.rateForKilograms(0, kilograms));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject tables without a bracket at zero or with duplicate bounds")
+    void shouldRejectInvalidTables() {
+        RateBracket fromOneKg = new RateBracket(new Weight(1), Money.ZERO, new Money(1));
+        assertThrows(IllegalArgumentException.class, () -> ShippingRateTable.compile("A",
+                List.of(new ShippingZone("A", List.of(fromOneKg), null))));
+        assertThrows(IllegalArgumentException.class, () -> ShippingRateTable.compile("A",
+                List.of(new ShippingZone("A", List.of(fromOneKg, fromOneKg,
+                        new RateBracket(Weight.ZERO, Money.ZERO, Money.ZERO)), null))));
+        assertThrows(IllegalArgumentException.class, () -> ShippingRateTable.compile("B",
+                List.of(new ShippingZone("A", List.of(fromOneKg), null))));
+        assertThrows(IllegalArgumentException.class, () -> new RateBracket(new Weight(0.0005), Money.ZERO, Money.ZERO));
+    }
+}
@@ -0,0 +1,73 @@
+package com.fawry.domain.model.valueobject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should round to two decimal places half up")
+    void shouldRoundHalfUp() {
+        assertEquals(new BigDecimal("10.13"), new Money(new BigDecimal("10.125")).getAmount());
+        assertEquals(new BigDecimal("0.00"), new Money(new BigDecimal("0.004")).getAmount());
+        assertEquals(new BigDecimal("7.50"), new Money(7.5).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should add, subtract and multiply exactly")
+    void shouldDoExactArithmetic() {
+        Money price = new Money(new BigDecimal("19.99"));
+
+        assertEquals(new Money(new BigDecimal("39.98")), price.add(price));
+        assertEquals(new Money(new BigDecimal("9.99")), price.subtract(new Money(10)));
+        assertEquals(new Money(new BigDecimal("199.90")), price.multiply(10));
+        assertEquals(new Money(new BigDecimal("8.25")), new Money(10).multiply(0.825));
+    }
+
+    @Test
+    @DisplayName("Should format like a scale-2 BigDecimal")
+    void shouldFormatWithTwoDecimals() {
+        assertEquals("$0.00", Money.ZERO.toString());
+        assertEquals("$5.05", Money.ofCents(505).toString());
+        assertEquals("$30000.00", new Money(30000).toString());
+    }
+
+    @Test
+    @DisplayName("Should reject negative results")
+    void shouldRejectNegativeResults() {
+        assertThrows(IllegalArgumentException.class, () -> new Money(5).subtract(new Money(6)));
+        assertThrows(IllegalArgumentException.class, () -> new Money(5).multiply(-1));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofCents(-1));
+    }
+
+    @Test
+    @DisplayName("Should fall back to BigDecimal on overflow and come back when it fits")
+    void shouldFallBackToBigDecimalOnOverflow() {
+        Money max = Money.ofCents(Long.MAX_VALUE);
+        Money doubled = max.add(max);
+
+        assertFalse(doubled.fitsInCents());
+        assertEquals(max.getAmount().multiply(BigDecimal.valueOf(2)), doubled.getAmount());
+        assertEquals(max, doubled.subtract(max));
+        assertTrue(doubled.subtract(max).fitsInCents());
+        assertEquals(max.hashCode(), doubled.subtract(max).hashCode());
+        assertFalse(max.multiply(3).fitsInCents());
+        assertThrows(ArithmeticException.class, doubled::getCentsExact);
+    }
+
+    @Test
+    @DisplayName("Should compare and hash consistently with equals")
+    void shouldCompareConsistently() {
+        Money a = new Money(new BigDecimal("12.5"));
+        Money b = Money.ofCents(1250);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertTrue(new Money(13).isGreaterThan(a));
+        assertTrue(a.isGreaterThanOrEqual(b));
+        assertTrue(Money.ZERO.isLessThan(a));
+        assertTrue(new Money(0.0).isZero());
+    }
+}
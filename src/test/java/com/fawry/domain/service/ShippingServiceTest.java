@@ -0,0 +1,105 @@
+package com.fawry.domain.service;
+
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.ShippableItem;
+import com.fawry.domain.model.product.ExpirableShippableProduct;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ShippableProduct;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShippingServiceTest {
+
+    private final ShippingService shippingService = new ShippingService();
+
+    // The per-unit path shipping used before items were grouped by cart line: one record
+    // per unit, weights summed as doubles, notices grouped with groupingBy.
+    private record Unit(String name, double kilograms) {
+    }
+
+    private static List<Unit> expandToUnits(List<ShippableItem> items) {
+        List<Unit> units = new ArrayList<>();
+        for (ShippableItem item : items) {
+            for (int i = 0; i < item.quantity(); i++) {
+                units.add(new Unit(item.name(), item.getKilograms()));
+            }
+        }
+        return units;
+    }
+
+    private static Money perUnitShippingCost(List<Unit> units) {
+        double totalWeight = units.stream().mapToDouble(Unit::kilograms).sum();
+        return new Money(10.0).multiply(totalWeight);
+    }
+
+    private static String perUnitNotice(List<Unit> units) {
+        StringBuilder notice = new StringBuilder();
+        notice.append("**   Shipment notice   **").append(System.lineSeparator());
+        Map<String, List<Unit>> grouped = units.stream().collect(Collectors.groupingBy(Unit::name));
+        double totalWeight = 0.0;
+        for (Map.Entry<String, List<Unit>> entry : grouped.entrySet()) {
+            int quantity = entry.getValue().size();
+            double itemWeight = entry.getValue().get(0).kilograms();
+            notice.append(String.format("%dx %-14s %8.0fg%n", quantity, entry.getKey(), itemWeight * 1000));
+            totalWeight += itemWeight * quantity;
+        }
+        notice.append(String.format("Total weight %.1fkg%n%n", totalWeight));
+        return notice.toString();
+    }
+
+    @Test
+    @DisplayName("Should match the per-unit shipping cost and notice for mixed weights")
+    void shouldMatchPerUnitPath() {
+        Random random = new Random(6);
+        for (int round = 0; round < 500; round++) {
+            Cart cart = new Cart();
+            int lines = 1 + random.nextInt(8);
+            for (int line = 0; line < lines; line++) {
+                // weights from 1 g to 25 kg in whole grams, some with repeating binary fractions
+                BigDecimal kilograms = BigDecimal.valueOf(1 + random.nextInt(25_000), 3);
+                Product product = switch (random.nextInt(3)) {
+                    case 0 -> new ShippableProduct("Item " + line, new Money(1), 1000, new Weight(kilograms));
+                    case 1 -> new ExpirableShippableProduct("Item " + line, new Money(1), 1000,
+                            new Weight(kilograms), LocalDate.now().plusDays(3));
+                    default -> new StandardProduct("Card " + line, new Money(1), 1000);
+                };
+                cart.addItem(product, 1 + random.nextInt(20));
+            }
+            List<ShippableItem> items = cart.getShippableItems();
+            List<Unit> units = expandToUnits(items);
+
+            assertEquals(perUnitShippingCost(units), shippingService.calculateShippingCost(items), items.toString());
+            if (!items.isEmpty()) {
+                assertEquals(perUnitNotice(units), shippingService.formatShipmentNotice(items));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should print lines sharing a name together, with the first line's weight")
+    void shouldMergeLinesByName() {
+        Cart cart = new Cart();
+        cart.addItem(new ShippableProduct("Cheese", new Money(10), 10, new Weight(0.2)), 2);
+        cart.addItem(new ShippableProduct("Cheese", new Money(12), 10, new Weight(0.2)), 1);
+        cart.addItem(new ShippableProduct("TV", new Money(500), 10, new Weight(7.0)), 1);
+        List<ShippableItem> items = cart.getShippableItems();
+
+        String notice = shippingService.formatShipmentNotice(items);
+
+        assertEquals(perUnitNotice(expandToUnits(items)), notice);
+        assertTrue(notice.contains("3x Cheese"));
+        assertTrue(notice.contains("Total weight 7.6kg"));
+        assertEquals(new Money(76), shippingService.calculateShippingCost(items));
+    }
+}
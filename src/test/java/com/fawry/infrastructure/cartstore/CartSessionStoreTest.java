@@ -0,0 +1,268 @@
+package com.fawry.infrastructure.cartstore;
+
+import com.fawry.application.CheckoutOutcome;
+import com.fawry.application.CheckoutService;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.product.ShippableProduct;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import com.fawry.domain.service.ShippingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartSessionStoreTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final Map<ProductId, Product> catalog = new HashMap<>();
+    private final CartSessionStore store =
+            new CartSessionStore(catalog::get, 60_000, 1000, 4 << 20, clock);
+
+    private Product add(Product product) {
+        catalog.put(product.getProductId(), product);
+        return product;
+    }
+
+    @Test
+    @DisplayName("Should park idle carts off-heap and restore them on next access")
+    void shouldParkAndRestoreIdleCarts() {
+        Product card = add(new StandardProduct("Card", new Money(10), 100));
+        Product tv = add(new ShippableProduct("TV", new Money(500), 10, new Weight(8.0)));
+        Customer idle = new Customer("Idle", new Money(5000));
+        Customer active = new Customer("Active", new Money(5000));
+        store.attach(idle);
+        store.attach(active);
+        idle.addToCart(card, 3);
+        idle.addToCart(tv, 1);
+        Money subtotal = idle.getCart().calculateSubtotal();
+
+        clock.advance(Duration.ofSeconds(59));
+        active.addToCart(card, 1);
+        clock.advance(Duration.ofSeconds(2));
+
+        assertEquals(1, store.sweep());
+        assertTrue(idle.isCartParked());
+        assertFalse(active.isCartParked());
+        assertEquals(1, store.hotCount());
+        assertTrue(store.offHeapUsedBytes() > 0);
+
+        assertEquals(subtotal, idle.getCart().calculateSubtotal());
+        assertEquals(3, idle.getCart().getItem(card.getProductId()).getQuantity());
+        assertSame(tv, idle.getCart().getItem(tv.getProductId()).getProduct());
+        assertEquals(0, store.parkedCount());
+        assertEquals(0, store.offHeapUsedBytes());
+        assertEquals(2, store.hotCount());
+    }
+
+    @Test
+    @DisplayName("Should park the least recently used carts beyond the hot limit")
+    void shouldEvictLeastRecentlyUsed() {
+        CartSessionStore small = new CartSessionStore(catalog::get, 60_000, 2, 4 << 20, clock);
+        Product card = add(new StandardProduct("Card", new Money(10), 100));
+        Customer[] customers = new Customer[4];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = new Customer("Customer " + i, new Money(100));
+            small.attach(customers[i]);
+            customers[i].addToCart(card, 1);
+            clock.advance(Duration.ofSeconds(1));
+        }
+        customers[0].getCart();
+
+        assertEquals(2, small.sweep());
+        assertFalse(customers[0].isCartParked());
+        assertTrue(customers[1].isCartParked());
+        assertTrue(customers[2].isCartParked());
+        assertFalse(customers[3].isCartParked());
+    }
+
+    @Test
+    @DisplayName("Should drop lines for products gone from the catalog")
+    void shouldDropUnknownProductsOnRestore() {
+        Product kept = add(new StandardProduct("Kept", new Money(10), 100));
+        Product gone = add(new StandardProduct("Gone", new Money(20), 100));
+        Customer customer = new Customer("Customer", new Money(100));
+        store.attach(customer);
+        customer.addToCart(kept, 1);
+        customer.addToCart(gone, 1);
+
+        clock.advance(Duration.ofMinutes(2));
+        store.sweep();
+        catalog.remove(gone.getProductId());
+
+        assertEquals(1, customer.getCart().getItems().size());
+        assertEquals(new Money(10), customer.getCart().calculateSubtotal());
+    }
+
+    @Test
+    @DisplayName("Should tell whether a parked cart is empty without restoring it")
+    void shouldReadParkedEmptinessWithoutRestoring() {
+        Product card = add(new StandardProduct("Card", new Money(10), 100));
+        Customer empty = new Customer("Empty", new Money(100));
+        Customer full = new Customer("Full", new Money(100));
+        store.attach(empty);
+        store.attach(full);
+        empty.getCart();
+        full.addToCart(card, 1);
+
+        clock.advance(Duration.ofMinutes(2));
+        assertEquals(2, store.sweep());
+
+        assertTrue(empty.isCartEmpty());
+        assertFalse(full.isCartEmpty());
+        assertTrue(empty.isCartParked());
+        assertTrue(full.isCartParked());
+        assertEquals(0, store.restoreCount());
+    }
+
+    @Test
+    @DisplayName("Should never park a pinned cart, and count the unpin as an access")
+    void shouldKeepPinnedCartsOnHeap() {
+        CartSessionStore small = new CartSessionStore(catalog::get, 60_000, 0, 4 << 20, clock);
+        Product card = add(new StandardProduct("Card", new Money(10), 100));
+        Customer customer = new Customer("Customer", new Money(100));
+        small.attach(customer);
+        Cart pinned = customer.pinCart();
+        pinned.addItem(card, 1);
+
+        clock.advance(Duration.ofMinutes(2));
+        assertEquals(0, small.sweep());
+        pinned.addItem(card, 1);
+        customer.unpinCart();
+        clock.advance(Duration.ofMinutes(2));
+        assertEquals(1, small.sweep());
+
+        assertEquals(2, customer.getCart().getItem(card.getProductId()).getQuantity());
+        assertThrows(IllegalStateException.class, customer::unpinCart);
+    }
+
+    @Test
+    @DisplayName("Should leave carts touched within the grace period to the idle pass")
+    void shouldNotEvictJustUsedCarts() {
+        CartSessionStore small = new CartSessionStore(catalog::get, 60_000, 0, 4 << 20, clock);
+        Product card = add(new StandardProduct("Card", new Money(10), 100));
+        Customer older = new Customer("Older", new Money(100));
+        Customer recent = new Customer("Recent", new Money(100));
+        small.attach(older);
+        small.attach(recent);
+        older.addToCart(card, 1);
+        clock.advance(Duration.ofSeconds(5));
+        Cart inUse = recent.getCart();
+
+        assertEquals(1, small.sweep());
+        assertTrue(older.isCartParked());
+        assertFalse(recent.isCartParked());
+        inUse.addItem(card, 1);
+        clock.advance(Duration.ofSeconds(5));
+        assertEquals(1, small.sweep());
+        assertEquals(1, recent.getCart().getTotalItemCount());
+    }
+
+    @Test
+    @DisplayName("Should not lose adds or bring back bought lines when sweeps race checkouts")
+    void shouldNotParkCartsMidCheckout() throws Exception {
+        // every reading is past the grace period of the one before, so each sweep may park
+        CartSessionStore eager = new CartSessionStore(catalog::get, 0, 0, 4 << 20, new RacingClock());
+        Product card = add(new StandardProduct("Card", new Money(1), 1_000_000));
+        CheckoutService checkoutService = new CheckoutService(new ShippingService());
+        Customer customer = new Customer("Customer", new Money(1_000_000));
+        eager.attach(customer);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sweeper = new Thread(() -> {
+            while (running.get()) {
+                eager.sweep();
+            }
+        });
+        sweeper.start();
+        int bought = 0;
+        try {
+            for (int i = 0; i < 5_000; i++) {
+                customer.addToCart(card, 1);
+                CheckoutOutcome outcome = checkoutService.tryCheckout(customer);
+                assertInstanceOf(CheckoutOutcome.Completed.class, outcome, "checkout " + i);
+                bought += ((CheckoutOutcome.Completed) outcome).result().getTotalItemCount();
+                assertTrue(customer.getCart().isEmpty(), "cart after checkout " + i);
+            }
+        } finally {
+            running.set(false);
+            sweeper.join();
+        }
+
+        assertEquals(5_000, bought);
+        assertEquals(1_000_000 - 5_000, card.getQuantity());
+        assertTrue(eager.parkCount() > 0);
+    }
+
+    @Test
+    @DisplayName("Should keep a just-used cart on the heap even with no idle threshold")
+    void shouldApplyGraceWithoutIdleThreshold() {
+        CartSessionStore eager = new CartSessionStore(catalog::get, 0, 0, 4 << 20, clock);
+        Product card = add(new StandardProduct("Card", new Money(10), 100));
+        Customer customer = new Customer("Customer", new Money(100));
+        eager.attach(customer);
+        Cart inUse = customer.getCart();
+        inUse.addItem(card, 1);
+
+        clock.advance(Duration.ofMillis(999));
+        assertEquals(0, eager.sweep());
+        assertFalse(customer.isCartParked());
+        clock.advance(Duration.ofMillis(1));
+        assertEquals(1, eager.sweep());
+        assertTrue(customer.isCartParked());
+        assertEquals(1, customer.getCart().getTotalItemCount());
+    }
+
+    private static final class RacingClock extends Clock {
+        private final AtomicLong millis = new AtomicLong();
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.addAndGet(2_000));
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
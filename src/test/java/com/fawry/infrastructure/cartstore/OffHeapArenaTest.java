@@ -0,0 +1,107 @@
+package com.fawry.infrastructure.cartstore;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.nio.ByteBuffer;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapArenaTest {
+
+    private static final int CHUNK = 64 << 10;
+
+    private static ByteBuffer record(int length, int seed) {
+        ByteBuffer record = ByteBuffer.allocate(length);
+        for (int i = 0; i < length; i++) {
+            record.put(i, (byte) (seed + i));
+        }
+        return record;
+    }
+
+    @Test
+    @DisplayName("Should read back exactly the bytes written")
+    void shouldRoundTripRecords() {
+        OffHeapArena arena = new OffHeapArena(CHUNK, CHUNK);
+        long first = arena.write(record(10, 1));
+        long second = arena.write(record(300, 7));
+
+        assertEquals(record(10, 1), arena.read(first));
+        assertEquals(record(300, 7), arena.read(second));
+        assertEquals(record(0, 0), arena.read(arena.write(record(0, 0))));
+        assertTrue(first > 0 && second > 0);
+    }
+
+    @Test
+    @DisplayName("Should reuse a freed block for the next record of its size class")
+    void shouldReuseFreedBlocks() {
+        OffHeapArena arena = new OffHeapArena(CHUNK, CHUNK);
+        long small = arena.write(record(10, 1));
+        long other = arena.write(record(100, 2));
+        assertEquals(32 + 128, arena.usedBytes());
+
+        arena.free(small);
+        assertEquals(128, arena.usedBytes());
+        // 40 bytes plus the length needs a 64 B block, so the freed 32 B block stays free
+        long larger = arena.write(record(40, 3));
+        assertNotEquals(small, larger);
+        long reused = arena.write(record(20, 4));
+        assertEquals(small, reused);
+        assertEquals(record(20, 4), arena.read(reused));
+        assertEquals(record(100, 2), arena.read(other));
+        assertEquals(32 + 128 + 64, arena.usedBytes());
+        assertEquals(CHUNK, arena.reservedBytes());
+    }
+
+    @Test
+    @DisplayName("Should pick the size class by record length plus its 4-byte header")
+    void shouldSizeBlocksWithHeader() {
+        OffHeapArena arena = new OffHeapArena(CHUNK, CHUNK);
+        arena.write(record(28, 0));
+        assertEquals(32, arena.usedBytes());
+        arena.write(record(29, 0));
+        assertEquals(32 + 64, arena.usedBytes());
+    }
+
+    @Test
+    @DisplayName("Should take a record up to the 64 KB block and refuse one byte more")
+    void shouldCapRecordsAtLargestClass() {
+        OffHeapArena arena = new OffHeapArena(4L * CHUNK, CHUNK);
+        ByteBuffer tooBig = record(OffHeapArena.MAX_RECORD + 1, 0);
+        assertEquals(-1, arena.write(tooBig));
+        assertEquals(0, tooBig.position());
+        assertEquals(0, arena.usedBytes());
+
+        ByteBuffer largest = record(OffHeapArena.MAX_RECORD, 5);
+        long handle = arena.write(largest);
+        assertTrue(handle > 0);
+        assertEquals(OffHeapArena.MAX_RECORD, largest.position());
+        assertEquals(CHUNK, arena.usedBytes());
+        assertEquals(record(OffHeapArena.MAX_RECORD, 5), arena.read(handle));
+    }
+
+    @Test
+    @DisplayName("Should return -1 once every chunk is cut, until a block is freed")
+    void shouldRefuseWritesWhenFull() {
+        OffHeapArena arena = new OffHeapArena(2L * CHUNK, CHUNK);
+        long first = arena.write(record(OffHeapArena.MAX_RECORD, 1));
+        long second = arena.write(record(OffHeapArena.MAX_RECORD, 2));
+        assertTrue(first > 0 && second > 0);
+        assertEquals(2L * CHUNK, arena.reservedBytes());
+
+        assertEquals(-1, arena.write(record(OffHeapArena.MAX_RECORD, 3)));
+        assertEquals(-1, arena.write(record(1, 3)));
+        assertEquals(2L * CHUNK, arena.reservedBytes());
+
+        arena.free(first);
+        assertEquals(first, arena.write(record(OffHeapArena.MAX_RECORD, 4)));
+        assertEquals(record(OffHeapArena.MAX_RECORD, 2), arena.read(second));
+        assertEquals(-1, arena.write(record(1, 5)));
+    }
+
+    @Test
+    @DisplayName("Should reject chunks smaller than the largest block or not a power of two")
+    void shouldRejectBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapArena(CHUNK, CHUNK / 2));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapArena(3L * CHUNK, CHUNK + 1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapArena(CHUNK - 1, CHUNK));
+    }
+}
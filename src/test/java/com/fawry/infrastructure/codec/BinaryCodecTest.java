@@ -0,0 +1,121 @@
+package com.fawry.infrastructure.codec;
+
+import com.fawry.application.CheckoutResult;
+import com.fawry.domain.model.cart.Cart;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.product.Expirable;
+import com.fawry.domain.model.product.ExpirableProduct;
+import com.fawry.domain.model.product.ExpirableShippableProduct;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.Shippable;
+import com.fawry.domain.model.product.ShippableProduct;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+
+    private static List<Product> everyProductType() {
+        return List.of(
+                new StandardProduct("Scratch card", new Money(new BigDecimal("9.99")), 40),
+                new ShippableProduct("Laptop", new Money(30000), 5, new Weight(5.0)),
+                new ExpirableProduct("Brötchen \"fresh\"", new Money(5), 20, LocalDate.of(1969, 12, 30)),
+                new ExpirableShippableProduct("Cheese", new Money(new BigDecimal("1e30")), Integer.MAX_VALUE,
+                        new Weight(new BigDecimal("0.3255"), "lb"), LocalDate.of(2031, 2, 28)));
+    }
+
+    @Test
+    @DisplayName("Should round-trip every product type through heap and direct buffers")
+    void shouldRoundTripProducts() {
+        for (ByteBuffer buffer : List.of(ByteBuffer.allocate(256),
+                ByteBuffer.allocateDirect(256).order(ByteOrder.LITTLE_ENDIAN))) {
+            for (Product product : everyProductType()) {
+                buffer.clear();
+                BinaryCodec.encode(buffer, product);
+                buffer.flip();
+                Product decoded = BinaryCodec.decodeProduct(buffer);
+
+                assertFalse(buffer.hasRemaining());
+                assertSameProduct(product, decoded);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should round-trip carts and checkout results")
+    void shouldRoundTripCartAndResult() {
+        Cart cart = new Cart();
+        for (Product product : everyProductType()) {
+            cart.addItem(product, 3);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        BinaryCodec.encode(buffer, cart);
+        buffer.flip();
+        Cart decodedCart = BinaryCodec.decodeCart(buffer);
+
+        assertEquals(cart.calculateSubtotal(), decodedCart.calculateSubtotal());
+        assertEquals(cart.getTotalShippableWeight(), decodedCart.getTotalShippableWeight());
+        assertEquals(cart.getItems().size(), decodedCart.getItems().size());
+
+        CheckoutResult result = new CheckoutResult(cart.getItems(), cart.calculateSubtotal(), new Money(45),
+                cart.calculateSubtotal().add(new Money(45)), Money.ZERO);
+        buffer.clear();
+        BinaryCodec.encode(buffer, result);
+        buffer.flip();
+        CheckoutResult decoded = BinaryCodec.decodeCheckoutResult(buffer);
+
+        assertEquals(result.subtotal(), decoded.subtotal());
+        assertEquals(result.shippingCost(), decoded.shippingCost());
+        assertEquals(result.total(), decoded.total());
+        assertEquals(result.remainingBalance(), decoded.remainingBalance());
+        assertEquals(result.getTotalItemCount(), decoded.getTotalItemCount());
+        List<CartItem> expectedLines = List.copyOf(result.purchasedItems());
+        List<CartItem> decodedLines = List.copyOf(decoded.purchasedItems());
+        for (int i = 0; i < expectedLines.size(); i++) {
+            assertSameProduct(expectedLines.get(i).getProduct(), decodedLines.get(i).getProduct());
+            assertEquals(expectedLines.get(i).getQuantity(), decodedLines.get(i).getQuantity());
+        }
+
+        buffer.clear();
+        BinaryCodec.encode(buffer, new CheckoutResult(null, Money.ZERO, Money.ZERO, Money.ZERO, Money.ZERO));
+        buffer.flip();
+        assertNull(BinaryCodec.decodeCheckoutResult(buffer).purchasedItems());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown versions and mismatched kinds")
+    void shouldRejectBadHeaders() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        BinaryCodec.encode(buffer, new StandardProduct("Card", new Money(1), 1));
+        buffer.flip();
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeCart(buffer.duplicate()));
+        ByteBuffer future = buffer.duplicate();
+        future.put(0, (byte) (BinaryCodec.VERSION + 1));
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeProduct(future));
+    }
+
+    private static void assertSameProduct(Product expected, Product actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getProductId(), actual.getProductId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        if (expected instanceof Shippable shippable) {
+            Weight weight = ((Shippable) actual).getWeight();
+            assertEquals(shippable.getWeight(), weight);
+            assertEquals(shippable.getWeight().getAmount().scale(), weight.getAmount().scale());
+        }
+        if (expected instanceof Expirable expirable) {
+            assertEquals(expirable.getExpirationDate(), ((Expirable) actual).getExpirationDate());
+        }
+    }
+}
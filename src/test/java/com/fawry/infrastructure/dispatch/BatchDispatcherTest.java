@@ -0,0 +1,74 @@
+package com.fawry.infrastructure.dispatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchDispatcherTest {
+
+    @Test
+    @DisplayName("Should hand queued items over in batches no larger than the maximum")
+    void shouldDeliverInBoundedBatches() {
+        List<Integer> handled = new ArrayList<>();
+        AtomicInteger largest = new AtomicInteger();
+        BatchDispatcher<Integer> dispatcher = new BatchDispatcher<>("Test dispatcher", "test-dispatcher", 64, 8,
+                batch -> {
+                    largest.accumulateAndGet(batch.size(), Math::max);
+                    handled.addAll(batch);
+                });
+        for (int i = 0; i < 500; i++) {
+            dispatcher.submit(i);
+        }
+        dispatcher.close();
+
+        assertEquals(500, handled.size());
+        for (int i = 0; i < handled.size(); i++) {
+            assertEquals(i, handled.get(i));
+        }
+        assertTrue(largest.get() <= 8);
+        IllegalStateException closed = assertThrows(IllegalStateException.class, () -> dispatcher.submit(1));
+        assertEquals("Test dispatcher is closed", closed.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should handle every submit that returned normally, even one racing close")
+    void shouldNotDropSubmitsRacingClose() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (int round = 0; round < 200; round++) {
+                AtomicInteger handled = new AtomicInteger();
+                AtomicInteger accepted = new AtomicInteger();
+                BatchDispatcher<Integer> dispatcher = new BatchDispatcher<>("Test dispatcher", "test-dispatcher", 4, 2,
+                        batch -> handled.addAndGet(batch.size()));
+                CountDownLatch start = new CountDownLatch(1);
+                List<Thread> producers = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    Thread producer = new Thread(() -> {
+                        try {
+                            start.await();
+                            while (true) {
+                                dispatcher.submit(1);
+                                accepted.incrementAndGet();
+                            }
+                        } catch (IllegalStateException | InterruptedException e) {
+                            // closed
+                        }
+                    });
+                    producer.start();
+                    producers.add(producer);
+                }
+                start.countDown();
+                Thread.yield();
+                dispatcher.close();
+                for (Thread producer : producers) {
+                    producer.join();
+                }
+                assertEquals(accepted.get(), handled.get(), "round " + round);
+            }
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.fawry.infrastructure.http;
+
+import com.fawry.domain.model.valueobject.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonWriterTest {
+
+    private final StringWriter out = new StringWriter();
+    private final JsonWriter json = new JsonWriter(out);
+
+    @Test
+    @DisplayName("Should escape quotes, backslashes and control characters but copy everything else")
+    void shouldEscapeStrings() throws IOException {
+        json.value("a\"b\\c\nd\re\tf\u0001g\u001fh é");
+
+        assertEquals("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\\u001fh é\"", out.toString());
+    }
+
+    @Test
+    @DisplayName("Should place commas between members of nested objects and arrays only")
+    void shouldSeparateMembers() throws IOException {
+        json.beginObject()
+                .name("empty").beginArray().endArray()
+                .name("list").beginArray().value(1).beginObject().endObject().value(true).nullValue().endArray()
+                .name("inner").beginObject().name("x").value(-42).name("y").value((String) null).endObject()
+                .name("z").value(Long.MIN_VALUE)
+                .endObject();
+
+        assertEquals("{\"empty\":[],\"list\":[1,{},true,null],\"inner\":{\"x\":-42,\"y\":null},"
+                + "\"z\":-9223372036854775808}", out.toString());
+    }
+
+    @Test
+    @DisplayName("Should write Money with exactly two decimals")
+    void shouldFormatMoney() throws IOException {
+        json.beginArray()
+                .value(Money.ZERO)
+                .value(Money.ofCents(5))
+                .value(Money.ofCents(1_504_050))
+                .value(new Money(new BigDecimal("0.999")))
+                .value(new Money(new BigDecimal("1e20")))
+                .value((Money) null)
+                .endArray();
+
+        assertEquals("[0.00,0.05,15040.50,1.00,100000000000000000000.00,null]", out.toString());
+    }
+
+    @Test
+    @DisplayName("Should refuse names outside objects and unbalanced closes")
+    void shouldRejectMalformedOutput() throws IOException {
+        assertThrows(IllegalStateException.class, () -> json.name("top"));
+        json.beginArray();
+        assertThrows(IllegalStateException.class, () -> json.name("inArray"));
+        assertThrows(IllegalStateException.class, json::endObject);
+        json.endArray();
+        assertThrows(IllegalStateException.class, json::endArray);
+        json.beginObject();
+        assertThrows(IllegalStateException.class, () -> json.value(1));
+        assertThrows(IllegalStateException.class, json::endArray);
+    }
+}
@@ -0,0 +1,160 @@
+package com.fawry.infrastructure.http;
+
+import com.fawry.application.CheckoutService;
+import com.fawry.application.CustomerRegistry;
+import com.fawry.application.ProductCatalog;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.service.ShippingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShopHttpServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final CustomerRegistry customers = new CustomerRegistry();
+    private ShopHttpServer server;
+    private Product cheese;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ShippingService shippingService = new ShippingService();
+        ProductCatalog catalog = new ProductCatalog();
+        cheese = new StandardProduct("Cheese", new Money(10), 5);
+        catalog.add(cheese);
+        CheckoutService checkoutService = new CheckoutService(shippingService);
+        server = new ShopHttpServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), catalog,
+                checkoutService, shippingService, customers);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> request(String method, String path, String form) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        if (form == null) {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.header("Content-Type", "application/x-www-form-urlencoded")
+                    .method(method, HttpRequest.BodyPublishers.ofString(form));
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Should register a customer, fill the cart, quote and check out")
+    void shouldServeShoppingFlow() throws Exception {
+        String id = cheese.getProductId().getId();
+
+        HttpResponse<String> created = request("POST", "/customers", "name=alice&balance=100");
+        assertEquals(201, created.statusCode());
+        assertEquals("{\"name\":\"alice\",\"balance\":100.00}", created.body());
+
+        HttpResponse<String> added = request("POST", "/customers/alice/cart/items", "productId=" + id + "&quantity=2");
+        assertEquals(200, added.statusCode());
+        assertTrue(added.body().contains("\"itemCount\":2,\"subtotal\":20.00"), added.body());
+
+        assertEquals(200, request("PUT", "/customers/alice/cart/items/" + id, "quantity=3").statusCode());
+        HttpResponse<String> quote = request("GET", "/customers/alice/quote", null);
+        assertEquals("{\"subtotal\":30.00,\"shippingCost\":0.00,\"total\":30.00,\"balance\":100.00,"
+                + "\"affordable\":true}", quote.body());
+
+        HttpResponse<String> checkout = request("POST", "/customers/alice/checkout", null);
+        assertEquals(200, checkout.statusCode(), checkout.body());
+        assertTrue(checkout.body().contains("\"remainingBalance\":70.00"), checkout.body());
+        assertEquals(2, cheese.getQuantity());
+        assertEquals("{\"items\":[],\"itemCount\":0,\"subtotal\":0.00}",
+                request("GET", "/customers/alice/cart", null).body());
+    }
+
+    @Test
+    @DisplayName("Should map bad input to 400, missing things to 404, wrong methods to 405 and rule breaks to 409")
+    void shouldMapErrorsToStatusCodes() throws Exception {
+        server.addCustomer("bob", new Money(1));
+        String id = cheese.getProductId().getId();
+
+        assertEquals(400, request("POST", "/customers", "name=carol&balance=lots").statusCode());
+        assertEquals(400, request("POST", "/customers", "balance=5").statusCode());
+        assertEquals(404, request("GET", "/customers/nobody", null).statusCode());
+        assertEquals(400, request("GET", "/products/not-a-uuid", null).statusCode());
+        assertEquals(404, request("GET", "/products/" + new ProductId(), null).statusCode());
+        assertEquals(404, request("DELETE", "/customers/bob/cart/items/" + id, null).statusCode());
+        assertEquals(405, request("DELETE", "/customers/bob", null).statusCode());
+        assertEquals(409, request("POST", "/customers/bob/cart/items", "productId=" + id + "&quantity=6").statusCode());
+
+        HttpResponse<String> empty = request("POST", "/customers/bob/checkout", null);
+        assertEquals(409, empty.statusCode());
+        assertTrue(empty.body().startsWith("{\"reason\":\"EMPTY_CART\""), empty.body());
+
+        request("POST", "/customers/bob/cart/items", "productId=" + id);
+        HttpResponse<String> poor = request("POST", "/customers/bob/checkout", null);
+        assertEquals(409, poor.statusCode());
+        assertTrue(poor.body().startsWith("{\"reason\":\"INSUFFICIENT_BALANCE\""), poor.body());
+    }
+
+    @Test
+    @DisplayName("Should serve customers from the registry and answer reads of an empty cart without creating it")
+    void shouldReadEmptyCartsWithoutCreatingThem() throws Exception {
+        Customer frank = customers.register("frank", new Money(50));
+
+        assertEquals("{\"name\":\"frank\",\"balance\":50.00}", request("GET", "/customers/frank", null).body());
+        assertEquals("{\"items\":[],\"itemCount\":0,\"subtotal\":0.00}",
+                request("GET", "/customers/frank/cart", null).body());
+        assertEquals("{\"subtotal\":0.00,\"shippingCost\":0.00,\"total\":0.00,\"balance\":50.00,"
+                + "\"affordable\":true}", request("GET", "/customers/frank/quote", null).body());
+        assertEquals(409, request("POST", "/customers/frank/checkout", null).statusCode());
+        assertEquals(405, request("DELETE", "/customers/frank/cart", null).statusCode());
+        assertFalse(frank.hasCart());
+
+        assertEquals(201, request("POST", "/customers", "name=grace&balance=1").statusCode());
+        assertNotNull(customers.get("grace"));
+        assertSame(customers.get("grace"), server.getCustomer("grace"));
+    }
+
+    @Test
+    @DisplayName("Should answer 409 to every registration of a taken name, even when they race")
+    void shouldRejectDuplicateRegistrations() throws Exception {
+        assertEquals(201, request("POST", "/customers", "name=dave&balance=1").statusCode());
+        assertEquals(409, request("POST", "/customers", "name=+dave+&balance=1").statusCode());
+
+        List<Callable<Integer>> racers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            racers.add(() -> request("POST", "/customers", "name=erin&balance=1").statusCode());
+        }
+        int created = 0;
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (Future<Integer> status : pool.invokeAll(racers)) {
+                int code = status.get();
+                if (code == 201) {
+                    created++;
+                } else {
+                    assertEquals(409, code);
+                }
+            }
+        }
+        assertEquals(1, created);
+        Customer erin = server.getCustomer("erin");
+        assertNotNull(erin);
+    }
+}
@@ -0,0 +1,238 @@
+package com.fawry.infrastructure.inventory;
+
+import com.fawry.application.CheckoutOutcome;
+import com.fawry.application.RejectionReason;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.infrastructure.snapshot.SnapshotWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedOrderCommitterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    // A product routed to the given shard.
+    private static <P extends Product> P onShard(ShardedOrderCommitter committer, int shard, Supplier<P> factory) {
+        while (true) {
+            P product = factory.get();
+            if (committer.shardOf(product.getProductId()) == shard) {
+                return product;
+            }
+        }
+    }
+
+    private static CheckoutOutcome.Rejected buy(ShardedOrderCommitter committer, Customer customer, CartItem... lines) {
+        Money subtotal = Money.ZERO;
+        for (CartItem line : lines) {
+            subtotal = subtotal.add(line.calculateSubtotal());
+        }
+        return committer.tryCommit(customer, List.of(lines), subtotal, Money.ZERO, subtotal);
+    }
+
+    @Test
+    @DisplayName("Should take stock on every shard and debit the wallet when all shards vote yes")
+    void shouldCommitAcrossShards() {
+        ShardedOrderCommitter committer = new ShardedOrderCommitter(4);
+        Product first = onShard(committer, 0, () -> new StandardProduct("A", new Money(10), 10));
+        Product second = onShard(committer, 1, () -> new StandardProduct("B", new Money(20), 10));
+        Customer customer = new Customer("Alice", new Money(100));
+
+        assertNull(buy(committer, customer, new CartItem(first, 2), new CartItem(second, 3)));
+        committer.close();
+
+        assertEquals(8, first.getQuantity());
+        assertEquals(7, second.getQuantity());
+        assertEquals(new Money(20), customer.getBalance());
+        assertEquals(1, committer.crossShardCount());
+    }
+
+    @Test
+    @DisplayName("Should put back every shard's units when one shard or the wallet says no")
+    void shouldRollBackAcrossShards() {
+        ShardedOrderCommitter committer = new ShardedOrderCommitter(4);
+        Product plenty = onShard(committer, 0, () -> new StandardProduct("A", new Money(10), 10));
+        Product scarce = onShard(committer, 1, () -> new StandardProduct("B", new Money(20), 10));
+        Customer customer = new Customer("Alice", new Money(100));
+        CartItem scarceLine = new CartItem(scarce, 3);
+        scarce.reduceQuantity(8);
+
+        CheckoutOutcome.Rejected noStock = buy(committer, customer, new CartItem(plenty, 2), scarceLine);
+        Customer poor = new Customer("Bob", new Money(5));
+        CheckoutOutcome.Rejected noMoney = buy(committer, poor, new CartItem(plenty, 1), new CartItem(scarce, 1));
+        committer.close();
+
+        assertEquals(RejectionReason.INSUFFICIENT_STOCK, noStock.reason());
+        assertEquals(RejectionReason.INSUFFICIENT_BALANCE, noMoney.reason());
+        assertEquals(10, plenty.getQuantity());
+        assertEquals(2, scarce.getQuantity());
+        assertEquals(new Money(100), customer.getBalance());
+        assertEquals(new Money(5), poor.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should keep a shard running after a message handler throws")
+    void shouldSurviveFailingAbort() {
+        ShardedOrderCommitter committer = new ShardedOrderCommitter(2);
+        Product brittle = onShard(committer, 0, () -> new StandardProduct("Brittle", new Money(10), 10) {
+            @Override
+            public void increaseQuantity(int amount) {
+                throw new IllegalStateException("restock failed");
+            }
+        });
+        Product other = onShard(committer, 0, () -> new StandardProduct("Other", new Money(10), 10));
+        Customer poor = new Customer("Bob", new Money(5));
+        Customer customer = new Customer("Alice", new Money(100));
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            // the abort that gives Brittle's units back throws on the shard's thread
+            assertEquals(RejectionReason.INSUFFICIENT_BALANCE, buy(committer, poor, new CartItem(brittle, 1)).reason());
+            assertNull(buy(committer, customer, new CartItem(other, 2)));
+            committer.close();
+        });
+        assertEquals(8, other.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should fail a checkout whose shard doesn't vote in time and return the units a late prepare took")
+    void shouldTimeOutAndAbortLatePrepare() throws Exception {
+        ShardedOrderCommitter committer = new ShardedOrderCommitter(2, 16, Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        Product slow = onShard(committer, 0, () -> new StandardProduct("Slow", new Money(10), 10) {
+            @Override
+            public boolean isAvailable(int requestedQuantity) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.isAvailable(requestedQuantity);
+            }
+        });
+        Product fast = onShard(committer, 1, () -> new StandardProduct("Fast", new Money(10), 10));
+        Customer customer = new Customer("Alice", new Money(100));
+
+        IllegalStateException timedOut = assertThrows(IllegalStateException.class,
+                () -> buy(committer, customer, new CartItem(slow, 4), new CartItem(fast, 4)));
+        assertTrue(timedOut.getMessage().contains("did not vote in time"), timedOut.getMessage());
+        release.countDown();
+        assertTimeoutPreemptively(TIMEOUT, committer::close);
+
+        assertEquals(10, slow.getQuantity());
+        assertEquals(10, fast.getQuantity());
+        assertEquals(new Money(100), customer.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should finish or refuse every checkout racing close, without hanging or losing stock")
+    void shouldCloseWithoutStrandingCheckouts() {
+        ShardedOrderCommitter committer = new ShardedOrderCommitter(4, 8, TIMEOUT);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            products.add(new StandardProduct("P" + i, new Money(1), 1_000_000));
+        }
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            List<Thread> buyers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                Thread buyer = new Thread(() -> {
+                    Customer customer = new Customer("Customer " + offset, new Money(1_000_000));
+                    for (int i = 0; ; i++) {
+                        try {
+                            CartItem a = new CartItem(products.get((offset + i) % 8), 1);
+                            CartItem b = new CartItem(products.get((offset + i + 3) % 8), 1);
+                            assertNull(buy(committer, customer, a, b));
+                            sold.addAndGet(2);
+                        } catch (IllegalStateException e) {
+                            refused.incrementAndGet();
+                            return;
+                        }
+                    }
+                });
+                buyer.start();
+                buyers.add(buyer);
+            }
+            Thread.sleep(50);
+            committer.close();
+            for (Thread buyer : buyers) {
+                buyer.join();
+            }
+        });
+
+        assertEquals(4, refused.get());
+        long remaining = products.stream().mapToLong(Product::getQuantity).sum();
+        assertEquals(8L * 1_000_000, remaining + sold.get());
+        assertThrows(IllegalStateException.class,
+                () -> buy(committer, new Customer("Late", new Money(10)), new CartItem(products.get(0), 1)));
+    }
+
+    @Test
+    @DisplayName("Should read a product's stripe on its shard's thread and credit wallets without a lock")
+    void shouldRouteStripeReadsThroughShards() {
+        ShardedOrderCommitter committer = new ShardedOrderCommitter(4);
+        Product product = onShard(committer, 2, () -> new StandardProduct("A", new Money(10), 10));
+        Customer customer = new Customer("Alice", new Money(10));
+        String[] readBy = new String[1];
+
+        int stripe = committer.stripeOf(product.getProductId());
+        assertEquals(0, committer.readStripe(stripe, () -> readBy[0] = Thread.currentThread().getName()));
+        committer.credit(customer, new Money(5));
+        committer.close();
+
+        assertEquals(2, stripe);
+        assertEquals("inventory-shard-2", readBy[0]);
+        assertEquals(new Money(15), customer.getBalance());
+        assertThrows(IllegalStateException.class, () -> committer.readStripe(stripe, () -> { }));
+        assertThrows(IllegalArgumentException.class, () -> committer.readStripe(4, () -> { }));
+    }
+
+    @Test
+    @DisplayName("Should undo a single-shard sale the shard finishes after the checkout gave up on it")
+    void shouldUndoLateSingleShardCheckout() throws Exception {
+        ShardedOrderCommitter committer = new ShardedOrderCommitter(2, 16, Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        Product slow = onShard(committer, 0, () -> new StandardProduct("Slow", new Money(10), 10) {
+            @Override
+            public boolean isAvailable(int requestedQuantity) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.isAvailable(requestedQuantity);
+            }
+        });
+        Customer customer = new Customer("Alice", new Money(100));
+
+        assertThrows(IllegalStateException.class, () -> buy(committer, customer, new CartItem(slow, 4)));
+        release.countDown();
+        assertTimeoutPreemptively(TIMEOUT, committer::close);
+
+        assertEquals(10, slow.getQuantity());
+        assertEquals(new Money(100), customer.getBalance());
+        assertEquals(0, committer.crossShardCount());
+    }
+
+    @Test
+    @DisplayName("Should not be accepted by snapshots, since its commits are never logged")
+    void shouldRefuseSnapshots() {
+        try (ShardedOrderCommitter committer = new ShardedOrderCommitter(2)) {
+            assertFalse(committer.hasCommitLog());
+            assertThrows(IllegalArgumentException.class, () -> new SnapshotWriter(Path.of("snapshots"), committer));
+        }
+    }
+}
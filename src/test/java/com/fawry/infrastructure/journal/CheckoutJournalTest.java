@@ -0,0 +1,195 @@
+package com.fawry.infrastructure.journal;
+
+import com.fawry.domain.model.product.ProductId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutJournalTest {
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(5);
+
+    @TempDir
+    Path directory;
+
+    private static long append(CheckoutJournal journal, int index) {
+        List<CheckoutEvent.Line> lines = List.of(
+                new CheckoutEvent.Line(new ProductId(index, 1), 1 + index % 3),
+                new CheckoutEvent.Line(new ProductId(index, 2), 2));
+        return journal.append("customer-" + index, lines, 100L * index, 30, 100L * index + 30);
+    }
+
+    private List<CheckoutEvent> replay(long afterSequence) throws IOException {
+        List<CheckoutEvent> events = new ArrayList<>();
+        CheckoutJournal.replay(directory, afterSequence, events::add);
+        return events;
+    }
+
+    // File offset of the index-th record in a segment.
+    private static long recordOffset(FileChannel channel, int index) throws IOException {
+        long position = JournalSegment.HEADER_SIZE;
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        for (int i = 0; i < index; i++) {
+            length.clear();
+            channel.read(length, position);
+            position += JournalSegment.RECORD_HEADER_SIZE + length.getInt(0);
+        }
+        return position;
+    }
+
+    @Test
+    @DisplayName("Should replay appended events in order with every field intact")
+    void shouldReplayAppendedEvents() throws Exception {
+        try (CheckoutJournal journal = CheckoutJournal.open(directory, 1 << 16, FLUSH_INTERVAL)) {
+            for (int i = 1; i <= 10; i++) {
+                assertEquals(i, append(journal, i));
+            }
+            journal.awaitDurable(10);
+            assertEquals(10, journal.durableSequence());
+        }
+
+        List<CheckoutEvent> events = replay(0);
+        assertEquals(10, events.size());
+        CheckoutEvent third = events.get(2);
+        assertEquals(3, third.sequence());
+        assertEquals("customer-3", third.customerName());
+        assertEquals(List.of(new CheckoutEvent.Line(new ProductId(3, 1), 1), new CheckoutEvent.Line(new ProductId(3, 2), 2)),
+                third.lines());
+        assertEquals(300, third.subtotalCents());
+        assertEquals(30, third.shippingCents());
+        assertEquals(330, third.totalCents());
+        assertEquals(List.of(8L, 9L, 10L), replay(7).stream().map(CheckoutEvent::sequence).toList());
+    }
+
+    @Test
+    @DisplayName("Should roll over into new segments and replay across them")
+    void shouldRollOverSegments() throws Exception {
+        try (CheckoutJournal journal = CheckoutJournal.open(directory, 512, FLUSH_INTERVAL)) {
+            for (int i = 1; i <= 40; i++) {
+                append(journal, i);
+            }
+        }
+
+        List<Path> segments = JournalSegment.list(directory);
+        assertTrue(segments.size() > 3, "expected several segments, got " + segments.size());
+        List<Long> sequences = replay(0).stream().map(CheckoutEvent::sequence).toList();
+        assertEquals(40, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i + 1, sequences.get(i));
+        }
+        assertEquals(List.of(39L, 40L), replay(38).stream().map(CheckoutEvent::sequence).toList());
+
+        try (CheckoutJournal reopened = CheckoutJournal.open(directory, 512, FLUSH_INTERVAL)) {
+            assertEquals(40, reopened.lastSequence());
+            assertEquals(41, append(reopened, 41));
+        }
+        assertEquals(41, replay(0).size());
+    }
+
+    @Test
+    @DisplayName("Should stop replay at a record whose CRC doesn't match")
+    void shouldStopAtCorruptRecord() throws Exception {
+        try (CheckoutJournal journal = CheckoutJournal.open(directory, 1 << 16, FLUSH_INTERVAL)) {
+            for (int i = 1; i <= 5; i++) {
+                append(journal, i);
+            }
+        }
+        Path segment = JournalSegment.list(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // flip one byte inside the third record's payload
+            long payload = recordOffset(channel, 2) + JournalSegment.RECORD_HEADER_SIZE + 20;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, payload);
+            one.put(0, (byte) ~one.get(0)).position(0);
+            channel.write(one, payload);
+        }
+
+        assertEquals(List.of(1L, 2L), replay(0).stream().map(CheckoutEvent::sequence).toList());
+    }
+
+    @Test
+    @DisplayName("Should truncate a torn tail on reopen and append after the last intact record")
+    void shouldTruncateTornTail() throws Exception {
+        try (CheckoutJournal journal = CheckoutJournal.open(directory, 1 << 16, FLUSH_INTERVAL)) {
+            for (int i = 1; i <= 4; i++) {
+                append(journal, i);
+            }
+        }
+        Path segment = JournalSegment.list(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // a crash after the length word of record 4 landed but before all of its payload did
+            long tail = recordOffset(channel, 3) + JournalSegment.RECORD_HEADER_SIZE + 8;
+            channel.write(ByteBuffer.allocate(16), tail);
+        }
+
+        try (CheckoutJournal reopened = CheckoutJournal.open(directory, 1 << 16, FLUSH_INTERVAL)) {
+            assertEquals(3, reopened.lastSequence());
+            assertEquals(4, append(reopened, 40));
+            assertEquals(5, append(reopened, 50));
+        }
+
+        List<CheckoutEvent> events = replay(0);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), events.stream().map(CheckoutEvent::sequence).toList());
+        assertEquals("customer-40", events.get(3).customerName());
+    }
+
+    @Test
+    @DisplayName("Should force everything a failed flush left behind on the next flush that succeeds")
+    void shouldRetryFailedForce() throws Exception {
+        Map<JournalSegment, List<int[]>> forced = new IdentityHashMap<>();
+        boolean[] failing = {false};
+        CheckoutJournal.Forcer forcer = (segment, from, to) -> {
+            if (failing[0]) {
+                throw new IOException("disk gone");
+            }
+            segment.force(from, to);
+            forced.computeIfAbsent(segment, s -> new ArrayList<>()).add(new int[] {from, to});
+        };
+
+        try (CheckoutJournal journal = CheckoutJournal.open(directory, 512, Duration.ofHours(1), forcer)) {
+            for (int i = 1; i <= 3; i++) {
+                append(journal, i);
+            }
+            journal.flush();
+            assertEquals(3, journal.durableSequence());
+
+            failing[0] = true;
+            for (int i = 4; i <= 20; i++) {
+                append(journal, i);
+            }
+            assertThrows(IOException.class, journal::flush);
+            assertEquals(3, journal.durableSequence());
+
+            failing[0] = false;
+            for (int i = 21; i <= 25; i++) {
+                append(journal, i);
+            }
+            journal.flush();
+            assertEquals(25, journal.durableSequence());
+
+            assertEquals(JournalSegment.list(directory).size(), forced.size());
+            forced.forEach((segment, ranges) -> {
+                ranges.sort(Comparator.comparingInt((int[] range) -> range[0]));
+                int covered = 0;
+                for (int[] range : ranges) {
+                    assertTrue(range[0] <= covered, "gap before " + range[0] + " in " + segment.firstSequence());
+                    covered = Math.max(covered, range[1]);
+                }
+                assertEquals(segment.writePosition(), covered, "segment " + segment.firstSequence());
+            });
+        }
+        assertEquals(25, replay(0).size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.fawry.infrastructure.metrics;
+
+import com.fawry.application.CheckoutPhase;
+import com.fawry.application.RejectionReason;
+import com.fawry.domain.exception.CartEmptyException;
+import com.fawry.domain.exception.InsufficientStockException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.util.Map;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutMetricsRegistryTest {
+
+    // a power of two starts its bucket, so percentiles of a lone sample come back exact
+    private static final long TOTAL_NANOS = 2048;
+    private static final long COMMIT_NANOS = 1024;
+
+    @Test
+    @DisplayName("Should read recorded samples back through the registered MXBean")
+    void shouldExposeSamplesOverJmx() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName(CheckoutMetricsRegistry.DEFAULT_OBJECT_NAME);
+        try (CheckoutMetricsRegistry registry = recorded()) {
+            registry.registerMBean(server, name);
+            assertTrue(server.isRegistered(name));
+
+            CheckoutMetricsMXBean proxy = JMX.newMXBeanProxy(server, name, CheckoutMetricsMXBean.class);
+            assertEquals(2, proxy.getCheckoutCount());
+            assertEquals(4, proxy.getFailureCount());
+            assertEquals(Map.of("CartEmptyException", 2L, "InsufficientStockException", 2L),
+                    proxy.getFailureCounts());
+
+            assertEquals(2.048, proxy.getPhaseMeanMicros().get("TOTAL"), 1e-9);
+            assertEquals(2.048, proxy.getPhaseP50Micros().get("TOTAL"), 1e-9);
+            assertEquals(2.048, proxy.getPhaseP99Micros().get("TOTAL"), 1e-9);
+            assertEquals(1.024, proxy.getPhaseMaxMicros().get("COMMIT"), 1e-9);
+            assertEquals(0.0, proxy.getPhaseMaxMicros().get("SHIPMENT"), 1e-9);
+            assertEquals(CheckoutPhase.values().length, proxy.getPhaseMeanMicros().size());
+
+            assertEquals(2.0, proxy.getCartLinesMean(), 1e-9);
+            assertEquals(3, proxy.getCartLinesP99());
+            assertEquals(3, proxy.getCartLinesMax());
+            assertEquals(13.0, proxy.getCartUnitsMean(), 1e-9);
+            assertEquals(30, proxy.getCartUnitsP99());
+            assertEquals(30, proxy.getCartUnitsMax());
+
+            proxy.reset();
+            assertEquals(0, registry.getCheckoutCount());
+            assertEquals(0, proxy.getFailureCount());
+            assertEquals(0, proxy.getCartUnitsMax());
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    @DisplayName("Should refuse a second registration and allow one after close")
+    void shouldRegisterOnce() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName(CheckoutMetricsRegistry.DEFAULT_OBJECT_NAME);
+        CheckoutMetricsRegistry registry = new CheckoutMetricsRegistry();
+        registry.registerMBean(server, name);
+        assertThrows(IllegalStateException.class, () -> registry.registerMBean(server, name));
+
+        registry.close();
+        registry.close();
+        assertFalse(server.isRegistered(name));
+        registry.registerMBean(server, name);
+        assertTrue(server.isRegistered(name));
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Should dump phase latencies, cart sizes and failures by type")
+    void shouldDumpRecordedSamples() {
+        String dump = recorded().dump();
+        String[] lines = dump.split("\\R");
+
+        assertEquals("checkouts 2, failures 4", lines[0]);
+        assertEquals(String.format("%-14s %10s %10s %10s %10s %10s %10s %10s",
+                "phase (us)", "count", "mean", "p50", "p90", "p99", "p99.9", "max"), lines[1]);
+        assertEquals(1 + 1 + CheckoutPhase.values().length + 2 + 2, lines.length, dump);
+        assertTrue(dump.contains(String.format("%-14s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                "total", 2, 2.048, 2.048, 2.048, 2.048, 2.048, 2.048)), dump);
+        assertTrue(dump.contains(String.format("%-14s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                "shipment", 0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0)), dump);
+        assertTrue(dump.contains(String.format("%-14s mean %.1f, p50 %d, p99 %d, max %d%n",
+                "cart lines", 2.0, 2, 3, 3)), dump);
+        assertTrue(dump.contains(String.format("%-14s mean %.1f, p50 %d, p99 %d, max %d%n",
+                "cart units", 13.0, 5, 30, 30)), dump);
+        assertEquals(String.format("failure %-30s %d", "CartEmptyException", 2), lines[lines.length - 2]);
+        assertEquals(String.format("failure %-30s %d", "InsufficientStockException", 2), lines[lines.length - 1]);
+    }
+
+    private static CheckoutMetricsRegistry recorded() {
+        CheckoutMetricsRegistry registry = new CheckoutMetricsRegistry();
+        registry.recordPhase(CheckoutPhase.TOTAL, TOTAL_NANOS);
+        registry.recordPhase(CheckoutPhase.TOTAL, TOTAL_NANOS);
+        registry.recordPhase(CheckoutPhase.COMMIT, COMMIT_NANOS);
+
+        registry.recordFailure(new CartEmptyException());
+        registry.recordRejection(RejectionReason.EMPTY_CART);
+        registry.recordFailure(new InsufficientStockException("Cheese", 3, 1));
+        registry.recordRejection(RejectionReason.INSUFFICIENT_STOCK);
+
+        registry.recordCartSize(1, 4);
+        registry.recordCartSize(2, 5);
+        registry.recordCartSize(3, 30);
+        return registry;
+    }
+}
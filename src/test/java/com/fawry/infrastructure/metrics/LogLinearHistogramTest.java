@@ -0,0 +1,118 @@
+package com.fawry.infrastructure.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogLinearHistogramTest {
+
+    private static final int LAST_BUCKET = LogLinearHistogram.bucketOf(Long.MAX_VALUE);
+
+    @Test
+    @DisplayName("Should give values below 32 a bucket each and start sub-buckets at 32")
+    void shouldMapSmallValuesExactly() {
+        for (long value = 0; value < 32; value++) {
+            int bucket = LogLinearHistogram.bucketOf(value);
+            assertEquals(value, bucket);
+            assertEquals(value, LogLinearHistogram.lowestValueOf(bucket));
+            assertEquals(value, LogLinearHistogram.highestValueOf(bucket));
+        }
+        assertEquals(31, LogLinearHistogram.bucketOf(31));
+        assertEquals(32, LogLinearHistogram.bucketOf(32));
+        assertEquals(63, LogLinearHistogram.bucketOf(63));
+        assertEquals(64, LogLinearHistogram.bucketOf(64));
+        assertEquals(64, LogLinearHistogram.bucketOf(65));
+        assertEquals(65, LogLinearHistogram.bucketOf(66));
+    }
+
+    @Test
+    @DisplayName("Should start a new group of sub-buckets at every power of two")
+    void shouldSplitAtPowersOfTwo() {
+        for (int bit = 5; bit < 63; bit++) {
+            long power = 1L << bit;
+            int bucket = LogLinearHistogram.bucketOf(power);
+            assertEquals(power, LogLinearHistogram.lowestValueOf(bucket), "2^" + bit);
+            assertEquals(bucket - 1, LogLinearHistogram.bucketOf(power - 1), "2^" + bit + " - 1");
+            assertEquals(power - 1, LogLinearHistogram.highestValueOf(bucket - 1), "2^" + bit + " - 1");
+        }
+    }
+
+    @Test
+    @DisplayName("Should tile the whole range up to Long.MAX_VALUE with contiguous buckets")
+    void shouldCoverFullRange() {
+        assertEquals(0, LogLinearHistogram.lowestValueOf(0));
+        for (int bucket = 0; bucket < LAST_BUCKET; bucket++) {
+            long low = LogLinearHistogram.lowestValueOf(bucket);
+            long high = LogLinearHistogram.highestValueOf(bucket);
+            assertTrue(low <= high, "bucket " + bucket);
+            assertEquals(bucket, LogLinearHistogram.bucketOf(low));
+            assertEquals(bucket, LogLinearHistogram.bucketOf(high));
+            assertEquals(high + 1, LogLinearHistogram.lowestValueOf(bucket + 1), "gap after bucket " + bucket);
+        }
+        assertEquals(Long.MAX_VALUE, LogLinearHistogram.highestValueOf(LAST_BUCKET));
+
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.snapshot().getValueAtPercentile(100));
+    }
+
+    @Test
+    @DisplayName("Should bound each bucket's width to 1/32 of its lowest value")
+    void shouldBoundRelativeError() {
+        for (int bucket = 32; bucket <= LAST_BUCKET; bucket++) {
+            long low = LogLinearHistogram.lowestValueOf(bucket);
+            long width = LogLinearHistogram.highestValueOf(bucket) - low + 1;
+            assertTrue(width <= low / 32, "bucket " + bucket + " is " + width + " wide from " + low);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report percentiles within 1/32 of the exact value")
+    void shouldEstimatePercentiles() {
+        Random random = new Random(18);
+        long[] values = new long[100_000];
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 0; i < values.length; i++) {
+            // log-uniform from 1 ns to about 10 s, like latencies
+            values[i] = (long) Math.exp(random.nextDouble() * Math.log(1e10));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+        for (double percentile : new double[] {0, 1, 10, 50, 90, 99, 99.9, 99.99, 100}) {
+            long exact = values[(int) Math.max(0, Math.ceil(percentile / 100 * values.length) - 1)];
+            long estimate = snapshot.getValueAtPercentile(percentile);
+            assertTrue(estimate >= exact, "p" + percentile + ": " + estimate + " below " + exact);
+            assertTrue(estimate - exact <= Math.max(0, exact / 32), "p" + percentile + ": " + estimate + " vs " + exact);
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle empty snapshots, negative values, the mean and reset")
+    void shouldHandleEdgeCases() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+        assertEquals(0.0, histogram.snapshot().getMean());
+
+        histogram.record(-5);
+        histogram.record(10);
+        histogram.record(1_000);
+        LogLinearHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(3, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(0));
+        assertEquals(10, snapshot.getValueAtPercentile(50));
+        // capped at the max rather than the bucket's upper bound
+        assertEquals(1_000, snapshot.getValueAtPercentile(100));
+        assertEquals(1_010 / 3.0, snapshot.getMean(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(100.5));
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getMax());
+    }
+}
@@ -0,0 +1,169 @@
+package com.fawry.infrastructure.receipt;
+
+import com.fawry.application.CheckoutResult;
+import com.fawry.application.ReceiptRenderer;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.valueobject.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncReceiptSinkTest {
+
+    // each receipt carries its index in the remaining balance, so order shows in the output
+    private static CheckoutResult receipt(int index) {
+        StandardProduct product = new StandardProduct("Cheese", Money.ofCents(1_000), 100);
+        CartItem item = new CartItem(product, 1 + index % 5);
+        Money subtotal = item.calculateSubtotal();
+        Money shipping = Money.ofCents(3_000);
+        return new CheckoutResult(List.of(item), subtotal, shipping, subtotal.add(shipping), Money.ofCents(index));
+    }
+
+    private static String rendered(List<CheckoutResult> results) {
+        ReceiptRenderer renderer = new ReceiptRenderer();
+        StringBuilder text = new StringBuilder();
+        for (CheckoutResult result : results) {
+            renderer.render(result, text);
+        }
+        return text.toString();
+    }
+
+    @Test
+    @DisplayName("Should write every receipt in submission order")
+    void shouldWriteReceiptsInOrder() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        List<CheckoutResult> results = new ArrayList<>();
+        try (AsyncReceiptSink sink = new AsyncReceiptSink(output, StandardCharsets.UTF_8, 8, 4, false)) {
+            for (int i = 0; i < 200; i++) {
+                CheckoutResult result = receipt(i);
+                results.add(result);
+                sink.onCheckoutCompleted(null, result);
+            }
+        }
+
+        assertEquals(rendered(results), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should drain queued receipts on close and then close an owned output")
+    void shouldDrainQueueOnClose() {
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            GatedOutput output = new GatedOutput();
+            List<CheckoutResult> results = new ArrayList<>();
+            AsyncReceiptSink sink = new AsyncReceiptSink(output, StandardCharsets.UTF_8, 8, 4, true);
+            results.add(receipt(0));
+            sink.submit(results.get(0));
+            // the writer is now stuck on the first batch, so the rest queue up behind it
+            output.writing.await();
+            for (int i = 1; i <= 5; i++) {
+                results.add(receipt(i));
+                sink.submit(results.get(i));
+            }
+            assertEquals(5, sink.pendingCount());
+            assertEquals(0, sink.writtenCount());
+
+            output.open.countDown();
+            sink.close();
+
+            assertEquals(0, sink.pendingCount());
+            assertEquals(6, sink.writtenCount());
+            assertEquals(rendered(results), output.bytes.toString(StandardCharsets.UTF_8));
+            assertTrue(output.closed);
+            IllegalStateException closed = assertThrows(IllegalStateException.class, () -> sink.submit(receipt(6)));
+            assertEquals("Receipt sink is closed", closed.getMessage());
+        });
+    }
+
+    @Test
+    @DisplayName("Should report a failed write and keep writing later receipts")
+    void shouldReportWriteErrors() throws IOException {
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        AtomicInteger writes = new AtomicInteger();
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        OutputStream output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (writes.getAndIncrement() == 0) {
+                    throw new IOException("Disk full");
+                }
+                written.write(b, off, len);
+            }
+        };
+
+        System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+        AsyncReceiptSink sink = new AsyncReceiptSink(output, StandardCharsets.UTF_8, 8, 1, false);
+        try {
+            // batches of one, so only the first receipt is lost
+            for (int i = 0; i < 3; i++) {
+                sink.submit(receipt(i));
+            }
+        } finally {
+            sink.close();
+            System.setErr(originalErr);
+        }
+
+        assertEquals("Error writing receipts: Disk full" + System.lineSeparator(),
+                errors.toString(StandardCharsets.UTF_8));
+        assertEquals(2, sink.writtenCount());
+        assertEquals(rendered(List.of(receipt(1), receipt(2))), written.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should reject null output, charset and results")
+    void shouldRejectNulls() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncReceiptSink(null, StandardCharsets.UTF_8, 8, 4, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncReceiptSink(new ByteArrayOutputStream(), null, 8, 4, false));
+        try (AsyncReceiptSink sink = new AsyncReceiptSink(new ByteArrayOutputStream())) {
+            assertThrows(IllegalArgumentException.class, () -> sink.submit(null));
+        }
+    }
+
+    // Blocks the first write until opened, so receipts can be queued behind it.
+    private static final class GatedOutput extends OutputStream {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch open = new CountDownLatch(1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        volatile boolean closed;
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writing.countDown();
+            try {
+                open.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.fawry.infrastructure.shipment;
+
+import com.fawry.domain.model.cart.ShippableItem;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.valueobject.Weight;
+import com.fawry.domain.service.ShippingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileShipmentSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should append one notice per record, keeping earlier batches")
+    void shouldAppendNotices() throws Exception {
+        ShippingService shippingService = new ShippingService();
+        Path file = directory.resolve("shipments.txt");
+        List<ShippableItem> items = List.of(new ShippableItem(new ProductId(), "TV", new Weight(5.0), 2));
+        Instant at = Instant.parse("2025-01-01T00:00:00Z");
+
+        try (FileShipmentSink sink = new FileShipmentSink(file, shippingService)) {
+            sink.deliver(List.of(new ShipmentRecord(1, "alice", items, at, 0)));
+        }
+        try (FileShipmentSink sink = new FileShipmentSink(file, shippingService)) {
+            sink.deliver(List.of(new ShipmentRecord(2, "bob", items, at, 0), new ShipmentRecord(3, "carol", items, at, 0)));
+        }
+
+        String notice = shippingService.formatShipmentNotice(items);
+        String newline = System.lineSeparator();
+        assertEquals("Shipment #1 for alice at " + at + newline + notice
+                + "Shipment #2 for bob at " + at + newline + notice
+                + "Shipment #3 for carol at " + at + newline + notice, Files.readString(file));
+    }
+}
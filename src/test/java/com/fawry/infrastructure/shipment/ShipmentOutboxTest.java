@@ -0,0 +1,139 @@
+package com.fawry.infrastructure.shipment;
+
+import com.fawry.domain.model.cart.ShippableItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.ProductId;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.domain.model.valueobject.Weight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShipmentOutboxTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+    private static final List<ShippableItem> ITEMS =
+            List.of(new ShippableItem(new ProductId(), "TV", new Weight(5.0), 1));
+
+    private static ShipmentOutbox outbox(ShipmentSink sink, int capacity, int maxAttempts) {
+        return new ShipmentOutbox(sink, capacity, 1, maxAttempts, 1, Clock.systemUTC());
+    }
+
+    // Fails its first failures calls, then keeps what it is given.
+    private static final class FlakySink implements ShipmentSink {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final int failures;
+        private final List<ShipmentRecord> delivered = Collections.synchronizedList(new ArrayList<>());
+
+        FlakySink(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public void deliver(List<ShipmentRecord> batch) throws IOException {
+            if (attempts.incrementAndGet() <= failures) {
+                throw new IOException("carrier down");
+            }
+            delivered.addAll(batch);
+        }
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch until the sink takes it")
+    void shouldRetryUntilDelivered() {
+        FlakySink sink = new FlakySink(2);
+        ShipmentOutbox outbox = outbox(sink, 16, 5);
+
+        ShipmentRecord record = outbox.submit("alice", ITEMS);
+        outbox.close();
+
+        assertEquals(3, sink.attempts.get());
+        assertEquals(List.of(record), sink.delivered);
+        assertEquals(2, outbox.retryCount());
+        assertEquals(1, outbox.deliveredCount());
+        assertEquals(1, outbox.batchCount());
+        assertEquals(0, outbox.deadLetterCount());
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a batch after the last attempt and move on to the next one")
+    void shouldDeadLetterAfterMaxAttempts() {
+        FlakySink sink = new FlakySink(3);
+        ShipmentOutbox outbox = outbox(sink, 16, 3);
+
+        ShipmentRecord lost = outbox.submit("alice", ITEMS);
+        ShipmentRecord kept = outbox.submit("bob", ITEMS);
+        outbox.close();
+
+        assertEquals(4, sink.attempts.get());
+        assertEquals(List.of(lost), outbox.getDeadLetters());
+        assertEquals(List.of(kept), sink.delivered);
+        assertEquals(2, outbox.retryCount());
+        assertEquals(2, outbox.enqueuedCount());
+        assertEquals(1, outbox.deliveredCount());
+    }
+
+    @Test
+    @DisplayName("Should make publishers wait while the queue is full, and refuse them once closed")
+    void shouldApplyBackpressure() throws Exception {
+        CountDownLatch inSink = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryShipmentSink delivered = new InMemoryShipmentSink();
+        ShipmentOutbox outbox = outbox(batch -> {
+            inSink.countDown();
+            release.await();
+            delivered.deliver(batch);
+        }, 1, 1);
+        Customer customer = new Customer("alice", new Money(10));
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            outbox.publish(customer, ITEMS);
+            inSink.await();
+            // the dispatcher holds the first record, the queue holds the second
+            outbox.publish(customer, ITEMS);
+            assertEquals(1, outbox.queueDepth());
+
+            Thread blocked = new Thread(() -> outbox.publish(customer, ITEMS));
+            blocked.start();
+            while (blocked.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+            assertEquals(2, outbox.enqueuedCount());
+
+            release.countDown();
+            blocked.join();
+            outbox.close();
+        });
+
+        assertEquals(3, delivered.getDelivered().size());
+        IllegalStateException closed = assertThrows(IllegalStateException.class,
+                () -> outbox.publish(customer, ITEMS));
+        assertEquals("Shipment outbox is closed", closed.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should report how long the oldest record of a batch waited for delivery")
+    void shouldTrackDeliveryLag() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ShipmentOutbox outbox = outbox(batch -> release.await(), 16, 1);
+
+        outbox.submit("alice", ITEMS);
+        TimeUnit.MILLISECONDS.sleep(100);
+        release.countDown();
+        outbox.close();
+        long first = outbox.lastLagMillis();
+
+        assertTrue(first >= 100, "lag " + first);
+        assertEquals(first, outbox.maxLagMillis());
+        assertEquals(0, outbox.queueDepth());
+    }
+}
@@ -0,0 +1,100 @@
+package com.fawry.infrastructure.snapshot;
+
+import com.fawry.application.OrderCommitter;
+import com.fawry.domain.model.cart.CartItem;
+import com.fawry.domain.model.customer.Customer;
+import com.fawry.domain.model.product.Product;
+import com.fawry.domain.model.product.StandardProduct;
+import com.fawry.domain.model.reservation.StockReservations;
+import com.fawry.domain.model.valueobject.Money;
+import com.fawry.infrastructure.journal.CheckoutJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateRecoveryTest {
+
+    @TempDir
+    Path directory;
+
+    private Path journalDirectory() {
+        return directory.resolve("journal");
+    }
+
+    private Path snapshotDirectory() {
+        return directory.resolve("snapshots");
+    }
+
+    private static void buy(OrderCommitter committer, Customer customer, Product product, int quantity) {
+        Money subtotal = product.calculateSubtotal(quantity);
+        committer.commit(customer, List.of(new CartItem(product, quantity)), subtotal, Money.ZERO, subtotal);
+    }
+
+    @Test
+    @DisplayName("Should recover held stock and wallet credits from a snapshot plus the journal")
+    void shouldRecoverHeldStockAndCredits() throws Exception {
+        StandardProduct product = new StandardProduct("Laptop", new Money(100), 10);
+        Customer holder = new Customer("Holder", new Money(1000), new StockReservations(Duration.ofMinutes(10)));
+        Customer buyer = new Customer("Buyer", new Money(1000));
+
+        try (CheckoutJournal journal = CheckoutJournal.open(journalDirectory(), 1 << 16, Duration.ofMillis(5));
+                SnapshotWriter snapshots = new SnapshotWriter(snapshotDirectory(), new OrderCommitter(journal))) {
+            OrderCommitter committer = new OrderCommitter(journal);
+            holder.addToCart(product, 3);
+            buy(committer, buyer, product, 2);
+            committer.credit(buyer, new Money(50));
+            assertEquals(3, product.getHeldQuantity());
+
+            snapshots.write(List.of(product), List.of(holder, buyer));
+
+            buy(committer, buyer, product, 1);
+            committer.credit(holder, new Money(25));
+            journal.flush();
+        }
+
+        // a restart: same ids and names, state from the catalog's seed values
+        StandardProduct restoredProduct = new StandardProduct(product.getProductId(), "Laptop", new Money(100), 10);
+        Map<String, Customer> restored = Map.of(
+                "Holder", new Customer("Holder", new Money(1000)),
+                "Buyer", new Customer("Buyer", new Money(1000)));
+        long last = new StateRecovery(snapshotDirectory(), journalDirectory())
+                .recover(id -> id.equals(product.getProductId()) ? restoredProduct : null, restored::get);
+
+        assertEquals(4, last);
+        // the 3 held units are back as free stock; only the 3 sold are gone
+        assertEquals(product.getOnHandQuantity(), restoredProduct.getQuantity());
+        assertEquals(7, restoredProduct.getQuantity());
+        assertEquals(holder.getBalance(), restored.get("Holder").getBalance());
+        assertEquals(buyer.getBalance(), restored.get("Buyer").getBalance());
+        assertEquals(new Money(750), restored.get("Buyer").getBalance());
+    }
+
+    @Test
+    @DisplayName("Should replay credits and checkouts from the journal alone")
+    void shouldReplayCreditsWithoutSnapshot() throws Exception {
+        StandardProduct product = new StandardProduct("Phone", new Money(40), 5);
+        Customer customer = new Customer("Alice", new Money(100));
+
+        try (CheckoutJournal journal = CheckoutJournal.open(journalDirectory(), 1 << 16, Duration.ofMillis(5))) {
+            OrderCommitter committer = new OrderCommitter(journal);
+            buy(committer, customer, product, 2);
+            committer.credit(customer, new Money(60));
+            buy(committer, customer, product, 2);
+            journal.flush();
+        }
+
+        StandardProduct restoredProduct = new StandardProduct(product.getProductId(), "Phone", new Money(40), 5);
+        Customer restoredCustomer = new Customer("Alice", new Money(100));
+        new StateRecovery(snapshotDirectory(), journalDirectory())
+                .recover(id -> restoredProduct, name -> restoredCustomer);
+
+        assertEquals(1, restoredProduct.getQuantity());
+        assertEquals(new Money(0), restoredCustomer.getBalance());
+        assertEquals(customer.getBalance(), restoredCustomer.getBalance());
+    }
+}